@@ -0,0 +1,22 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша балансов карт.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.balance-cache")
+public class BalanceCacheConfig {
+    /** Максимальное число балансов в кэше */
+    private long maximumSize = 100_000;
+    /** Время хранения баланса с момента чтения из БД */
+    private Duration ttl = Duration.ofSeconds(30);
+}
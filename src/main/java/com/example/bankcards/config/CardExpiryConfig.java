@@ -0,0 +1,24 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки перевода просроченных карт в статус EXPIRED.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.card-expiry")
+public class CardExpiryConfig {
+    /** Расписание запуска в формате cron */
+    private String cron = "0 5 0 * * *";
+    /** Число карт, обновляемых одним запросом */
+    private int chunkSize = 1000;
+    /** Пауза между порциями, снижающая нагрузку на БД */
+    private Duration pause = Duration.ofMillis(100);
+}
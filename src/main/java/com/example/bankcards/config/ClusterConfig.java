@@ -0,0 +1,42 @@
+package com.example.bankcards.config;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки рассылки отзывов токенов и инвалидаций кэшей между узлами
+ * через PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Каждый узел держит для приема событий отдельное соединение вне пула и поток опроса.
+ */
+@Configuration
+@Validated
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.cluster")
+public class ClusterConfig {
+    /** Включает рассылку и прием событий; для одного узла можно выключить */
+    private boolean enabled = true;
+    /**
+     * Канал NOTIFY. Подставляется в LISTEN без кавычек, поэтому допускаются только
+     * идентификаторы в нижнем регистре - иначе имя не совпадет с литералом в pg_notify
+     */
+    @Pattern(regexp = "[a-z_][a-z0-9_]*")
+    private String channel = "bank_invalidation";
+    /** Интервал, за который события узла собираются в одно уведомление */
+    private Duration flushInterval = Duration.ofMillis(10);
+    /** Время ожидания уведомлений на соединении LISTEN за один опрос */
+    private Duration pollTimeout = Duration.ofMillis(500);
+    /** Пауза перед повторным подключением после обрыва соединения */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+    /** Интервал дочитывания отзывов из таблицы на случай потерянных уведомлений */
+    private Duration catchUpInterval = Duration.ofSeconds(30);
+    /** Перекрытие окна дочитывания, покрывающее расхождение часов узлов и долгие транзакции */
+    private Duration catchUpOverlap = Duration.ofMinutes(1);
+}
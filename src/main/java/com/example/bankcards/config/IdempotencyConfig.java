@@ -0,0 +1,26 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки обработки заголовка Idempotency-Key для переводов.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.idempotency")
+public class IdempotencyConfig {
+    /** Время хранения результата перевода */
+    private Duration ttl = Duration.ofHours(24);
+    /** Сколько ключ остается занятым запросом, который еще не сохранил результат */
+    private Duration leaseTimeout = Duration.ofMinutes(1);
+    /** Максимальное число результатов в кэше в памяти */
+    private long cacheSize = 10_000;
+    /** Сколько дубликат ждет завершения исходного запроса */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+}
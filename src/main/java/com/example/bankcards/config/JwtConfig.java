@@ -23,6 +23,7 @@ public class JwtConfig {
     private String secret;
     private long accessTtl;
     private long refreshTtl;
+    private boolean statelessPrincipal;
 
     @Bean
     public JwtTokenFactoryImpl jwtTokenFactory(SecretKey secretKey) {
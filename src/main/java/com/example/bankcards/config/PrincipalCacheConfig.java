@@ -0,0 +1,22 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша аутентифицированных пользователей.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.principal-cache")
+public class PrincipalCacheConfig {
+    /** Максимальное число пользователей в кэше */
+    private long maximumSize = 100_000;
+    /** Время хранения пользователя с момента чтения из БД */
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,42 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройки ограничения частоты запросов пользователей.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.rate-limit")
+public class RateLimitConfig {
+    private boolean enabled = true;
+    /** Максимальное число хранимых корзин токенов (пар пользователь-маршрут) */
+    private long maxBuckets = 1_000_000;
+    /** Через сколько удаляется корзина неактивного пользователя */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    /** Ограничения по маршрутам; ключ - имя маршрута */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        /** HTTP-метод; пустое значение - любой метод */
+        private String method;
+        /** Шаблоны путей в формате PathPattern */
+        private List<String> patterns = new ArrayList<>();
+        /** Максимальное число запросов подряд */
+        private int capacity;
+        /** Скорость пополнения, запросов в секунду */
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Включает повтор операций с картами при конфликтах параллельных изменений.
+ * Перехватчик повторов работает снаружи транзакционного, поэтому каждая
+ * попытка выполняется в отдельной транзакции.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
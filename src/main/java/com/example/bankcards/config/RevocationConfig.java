@@ -0,0 +1,24 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки хранилища отозванных JWT токенов.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.revocation")
+public class RevocationConfig {
+    /** Ожидаемое число одновременно отозванных и еще не истекших токенов */
+    private int expectedTokens = 1_000_000;
+    /** Допустимая доля ложных срабатываний фильтра Блума */
+    private double falsePositiveRate = 0.01;
+    /** Ширина слота колеса таймеров и интервал удаления истекших токенов */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+}
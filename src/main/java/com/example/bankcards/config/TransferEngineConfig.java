@@ -0,0 +1,76 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки режима выполнения одиночных переводов.
+ * <p>
+ * {@code bank.transfers.engine}:
+ * <ul>
+ *   <li>{@code default} - каждый перевод выполняется в своей транзакции</li>
+ *   <li>{@code sharded} - переводы распределяются по однопоточным шардам по userId</li>
+ *   <li>{@code group-commit} - параллельные переводы объединяются в общие транзакции</li>
+ * </ul>
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.transfers")
+public class TransferEngineConfig {
+    /** Режим выполнения переводов */
+    private String engine = "default";
+    private Sharded sharded = new Sharded();
+    private GroupCommit groupCommit = new GroupCommit();
+    private Async async = new Async();
+
+    @Getter
+    @Setter
+    public static class Sharded {
+        /** Число шардов */
+        private int shards = Runtime.getRuntime().availableProcessors();
+        /** Емкость очереди одного шарда */
+        private int queueCapacity = 10_000;
+        /** Максимальное число переводов в одной транзакции шарда */
+        private int maxBatchSize = 256;
+        /** Сколько перевод ждет места в переполненной очереди */
+        private Duration submitTimeout = Duration.ofMillis(100);
+        /** Сколько вызывающий поток ждет результат перевода */
+        private Duration resultTimeout = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class GroupCommit {
+        /** Число потоков, параллельно выполняющих пакеты */
+        private int workers = 4;
+        /** Емкость общей очереди переводов */
+        private int queueCapacity = 10_000;
+        /** Максимальное число переводов в одной транзакции */
+        private int maxBatchSize = 128;
+        /** Сколько пакет ждет новых переводов после первого */
+        private Duration window = Duration.ofMillis(2);
+        /** Сколько перевод ждет места в переполненной очереди */
+        private Duration submitTimeout = Duration.ofMillis(100);
+        /** Сколько вызывающий поток ждет результат перевода */
+        private Duration resultTimeout = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Асинхронный прием переводов (заголовок {@code Prefer: respond-async}).
+     */
+    @Getter
+    @Setter
+    public static class Async {
+        /** Максимальное число принятых, но еще не выполненных переводов */
+        private int maxInFlight = 1_000;
+        /** Время хранения статуса выполненного перевода */
+        private Duration statusTtl = Duration.ofHours(1);
+        /** Максимальное число хранимых статусов выполненных переводов */
+        private long statusCacheSize = 100_000;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша проверенных JWT токенов.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bank.verified-token-cache")
+public class VerifiedTokenCacheConfig {
+    /** Максимальное число токенов в кэше */
+    private long maximumSize = 10_000;
+    /** Максимальное время хранения токена; не превышает срок действия самого токена */
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -1,19 +1,32 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.ExportFormat;
 import com.example.bankcards.dto.cards.*;
 import com.example.bankcards.dto.users.UpdateUserRequest;
 import com.example.bankcards.dto.users.UserDTO;
 import com.example.bankcards.dto.users.UserRegisterRequest;
+import com.example.bankcards.service.admin.AdminExportService;
 import com.example.bankcards.service.admin.AdminService;
+import com.example.bankcards.service.admin.CardIssuanceService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -24,6 +37,8 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class AdminController {
     private final AdminService adminService;
+    private final AdminExportService adminExportService;
+    private final CardIssuanceService cardIssuanceService;
 
     @PostMapping("/cards/create")
     public ResponseEntity<CardDTO> createCard(@RequestBody @Valid UserCardRequest request) {
@@ -31,6 +46,19 @@ public class AdminController {
         return ResponseEntity.ok(adminService.createCard(request.getUserId()));
     }
 
+    @PostMapping(value = "/cards/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> issueCards(@RequestBody @Valid CardIssueRequest request) {
+        log.info("Admin issuing cards for {} users", request.getUserIds().size());
+        return issue(request.getUserIds());
+    }
+
+    @PostMapping(value = "/cards/bulk", consumes = "text/csv")
+    public ResponseEntity<StreamingResponseBody> issueCardsFromCsv(InputStream csv) throws IOException {
+        List<Long> userIds = cardIssuanceService.readUserIds(csv);
+        log.info("Admin issuing cards for {} users from CSV", userIds.size());
+        return issue(userIds);
+    }
+
     @PostMapping("/cards/activate")
     public ResponseEntity<CardDTO> activateCard(
             @RequestBody @Valid UserCardOperationRequest request) {
@@ -68,6 +96,28 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllCards());
     }
 
+    @GetMapping("/cards/export")
+    public ResponseEntity<StreamingResponseBody> exportCards(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        log.info("Admin exporting cards as {}", format);
+        return export("cards", format, out -> adminExportService.exportCards(format, out));
+    }
+
+    @GetMapping("/cards/filter")
+    public ResponseEntity<CursorPage<CardDTO>> findCards(
+            @Valid AdminCardFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return ResponseEntity.ok(adminService.findCards(filter, cursor, size));
+    }
+
+    @GetMapping("/cards/search")
+    public ResponseEntity<List<CardDTO>> searchCards(
+            @RequestParam @NotBlank String query,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return ResponseEntity.ok(adminService.searchCards(query, size));
+    }
+
     @GetMapping("/cards/get_by_user_id/{userId}")
     public ResponseEntity<List<CardDTO>> getUserCards(
             @PathVariable Long userId) {
@@ -79,6 +129,13 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllUsers());
     }
 
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        log.info("Admin exporting users as {}", format);
+        return export("users", format, out -> adminExportService.exportUsers(format, out));
+    }
+
     @GetMapping("/users/get_by_user_id/{userId}")
     public ResponseEntity<UserDTO> getUserById(
             @PathVariable Long userId) {
@@ -109,4 +166,21 @@ public class AdminController {
         adminService.deleteUser(userId);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<StreamingResponseBody> issue(List<Long> userIds) {
+        return ResponseEntity.ok()
+                .contentType(ExportFormat.NDJSON.getMediaType())
+                .body(out -> cardIssuanceService.issueCards(userIds, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, ExportFormat format,
+                                                         StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(name + "." + format.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
 }
@@ -1,26 +1,43 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.cards.BatchTransferRequest;
+import com.example.bankcards.dto.cards.BatchTransferResponse;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.cards.CardTransactionDTO;
+import com.example.bankcards.dto.cards.P2PTransferRequest;
+import com.example.bankcards.dto.cards.P2PTransferResponse;
 import com.example.bankcards.dto.cards.TransferRequest;
 import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.dto.cards.TransferStatusDTO;
 import com.example.bankcards.dto.users.UserDTO;
-import com.example.bankcards.entity.User;
+import com.example.bankcards.security.principal.UserPrincipal;
 import com.example.bankcards.service.cards.CardService;
+import com.example.bankcards.service.idempotency.TransferIdempotencyService;
+import com.example.bankcards.service.transfers.AsyncTransferService;
 import com.example.bankcards.service.transfers.TransferService;
 import com.example.bankcards.service.users.UserService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
 
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
@@ -31,65 +48,172 @@ import static org.springframework.data.domain.Sort.Direction.DESC;
 @PreAuthorize("hasRole('ROLE_USER')")
 @SecurityRequirement(name = "bearerAuth")
 public class UserController {
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final UserService userService;
     private final CardService cardService;
     private final TransferService transferService;
+    private final TransferIdempotencyService transferIdempotencyService;
+    private final AsyncTransferService asyncTransferService;
 
     @GetMapping("/cards")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Page<CardDTO>> getUserCards(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @RequestParam(required = false) String search,
             @PageableDefault(sort = "expiryDate", direction = DESC) Pageable pageable) {
 
-        Long userId = user.getUserId();
+        Long userId = user.userId();
         log.info("User {} requested cards list", userId);
         return ResponseEntity.ok(cardService.getUserCards(userId, search, pageable));
     }
 
+    @GetMapping(value = "/cards", params = "cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPage<CardDTO>> scrollUserCards(
+            @AuthenticationPrincipal UserPrincipal user,
+            @RequestParam(required = false) String search,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+
+        Long userId = user.userId();
+        log.info("User {} requested cards list by cursor", userId);
+        return ResponseEntity.ok(cardService.scrollUserCards(userId, search, cursor, size));
+    }
+
+    @GetMapping("/cards/search")
+    public ResponseEntity<List<CardDTO>> searchUserCards(
+            @AuthenticationPrincipal UserPrincipal user,
+            @RequestParam @NotBlank String query,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+
+        Long userId = user.userId();
+        log.info("User {} searched cards", userId);
+        return ResponseEntity.ok(cardService.searchUserCards(userId, query, size));
+    }
+
     @GetMapping("/cards/{cardNumber}/balance")
     public ResponseEntity<BigDecimal> getCardBalance(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @PathVariable String cardNumber) {
 
-        Long userId = user.getUserId();
+        Long userId = user.userId();
         log.info("User {} requested balance for card {}", userId, cardNumber);
         return ResponseEntity.ok(cardService.getCardBalance(userId, cardNumber));
     }
 
+    @GetMapping("/cards/{cardNumber}/transactions")
+    public ResponseEntity<CursorPage<CardTransactionDTO>> getCardTransactions(
+            @AuthenticationPrincipal UserPrincipal user,
+            @PathVariable String cardNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+
+        Long userId = user.userId();
+        log.info("User {} requested transactions for card {}", userId, cardNumber);
+        return ResponseEntity.ok(cardService.getCardTransactions(userId, cardNumber, cursor, size));
+    }
+
     @PostMapping("/cards/{cardNumber}/block")
     public ResponseEntity<Void> blockCard(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @PathVariable String cardNumber) {
 
-        Long userId = user.getUserId();
+        Long userId = user.userId();
         log.info("User {} requested to block card {}", userId, cardNumber);
         cardService.blockCard(userId, cardNumber);
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Перевод между своими картами.
+     * <p>
+     * С заголовком {@code Prefer: respond-async} перевод только принимается к выполнению:
+     * ответ 202 содержит идентификатор перевода, статус запрашивается через
+     * {@code GET /transfers/{transferId}}.
+     */
     @PostMapping("/transfer")
-    public ResponseEntity<TransferResponse> transferBetweenCards(
-            @AuthenticationPrincipal User user,
+    public ResponseEntity<?> transferBetweenCards(
+            @AuthenticationPrincipal UserPrincipal user,
+            @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255) String idempotencyKey,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
             @Valid @RequestBody TransferRequest request) {
 
-        Long userId = user.getUserId();
+        Long userId = user.userId();
         log.info("User {} initiated transfer: {}", userId, request);
 
-        TransferResponse response = transferService.transferBetweenUserCards(
+        if (prefer != null && prefer.toLowerCase().contains(RESPOND_ASYNC)) {
+            TransferStatusDTO status = asyncTransferService.submit(
+                    userId, () -> transfer(userId, idempotencyKey, request));
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/v1/user/transfers/" + status.getTransferId()))
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(status);
+        }
+        return ResponseEntity.ok(transfer(userId, idempotencyKey, request));
+    }
+
+    @GetMapping("/transfers/{transferId}")
+    public ResponseEntity<TransferStatusDTO> getTransferStatus(
+            @AuthenticationPrincipal UserPrincipal user,
+            @PathVariable UUID transferId) {
+
+        return ResponseEntity.ok(asyncTransferService.getStatus(user.userId(), transferId));
+    }
+
+    private TransferResponse transfer(Long userId, String idempotencyKey, TransferRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return transfer(userId, request);
+        }
+        return transferIdempotencyService.execute(userId, idempotencyKey, request,
+                completion -> transferService.transferBetweenUserCards(
+                        userId,
+                        request.getFromCardNumber(),
+                        request.getToCardNumber(),
+                        request.getAmount(),
+                        completion
+                ));
+    }
+
+    private TransferResponse transfer(Long userId, TransferRequest request) {
+        return transferService.transferBetweenUserCards(
                 userId,
                 request.getFromCardNumber(),
                 request.getToCardNumber(),
                 request.getAmount()
         );
+    }
+
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(
+            @AuthenticationPrincipal UserPrincipal user,
+            @Valid @RequestBody BatchTransferRequest request) {
 
-        return ResponseEntity.ok(response);
+        Long userId = user.userId();
+        log.info("User {} initiated batch of {} transfers", userId, request.getTransfers().size());
+        return ResponseEntity.ok(transferService.transferBatch(userId, request.getTransfers()));
+    }
+
+    @PostMapping("/transfers/p2p")
+    public ResponseEntity<P2PTransferResponse> transferToUser(
+            @AuthenticationPrincipal UserPrincipal user,
+            @Valid @RequestBody P2PTransferRequest request) {
+
+        Long userId = user.userId();
+        log.info("User {} initiated transfer to user {}", userId, request.getRecipientId());
+        return ResponseEntity.ok(transferService.transferToUser(
+                userId,
+                request.getFromCardNumber(),
+                request.getRecipientId(),
+                request.getToCardNumber(),
+                request.getAmount()
+        ));
     }
 
     @GetMapping("/profile")
     public ResponseEntity<UserDTO> getUserProfile(
-            @AuthenticationPrincipal User user) {
-        Long userId = user.getUserId();
+            @AuthenticationPrincipal UserPrincipal user) {
+        Long userId = user.userId();
         log.info("User {} requested profile", userId);
         return ResponseEntity.ok(userService.getUserProfile(userId));
     }
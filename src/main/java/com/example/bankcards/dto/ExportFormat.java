@@ -0,0 +1,20 @@
+package com.example.bankcards.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+/**
+ * Формат потоковой выгрузки.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    /** Один JSON-объект на строку */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    /** CSV с заголовком по RFC 4180 */
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+}
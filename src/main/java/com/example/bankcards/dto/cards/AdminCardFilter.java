@@ -0,0 +1,36 @@
+package com.example.bankcards.dto.cards;
+
+import com.example.bankcards.entity.CardStatus;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Фильтр поиска карт администратором. Незаданные поля не ограничивают выборку,
+ * границы диапазонов включаются.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminCardFilter {
+    private Long userId;
+    private CardStatus status;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiryFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiryTo;
+    @PositiveOrZero
+    private BigDecimal minBalance;
+    @PositiveOrZero
+    private BigDecimal maxBalance;
+    @Size(max = 100)
+    private String holderPrefix;
+}
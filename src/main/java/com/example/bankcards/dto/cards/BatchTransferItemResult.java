@@ -0,0 +1,17 @@
+package com.example.bankcards.dto.cards;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferItemResult {
+    private int index;
+    private boolean success;
+    private TransferResponse transfer;
+    private String error;
+}
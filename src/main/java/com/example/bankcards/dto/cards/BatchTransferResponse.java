@@ -0,0 +1,18 @@
+package com.example.bankcards.dto.cards;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransferResponse {
+    private int completed;
+    private int rejected;
+    private List<BatchTransferItemResult> results;
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.dto.cards;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardIssueRequest {
+    public static final int MAX_SIZE = 1_000_000;
+
+    @NotEmpty
+    @Size(max = MAX_SIZE)
+    private List<@NotNull Long> userIds;
+}
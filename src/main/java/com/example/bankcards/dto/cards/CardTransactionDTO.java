@@ -0,0 +1,22 @@
+package com.example.bankcards.dto.cards;
+
+import com.example.bankcards.entity.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardTransactionDTO {
+    private Long transactionId;
+    private TransactionType type;
+    private BigDecimal amount;
+    private BigDecimal balanceAfter;
+    private LocalDateTime createdAt;
+}
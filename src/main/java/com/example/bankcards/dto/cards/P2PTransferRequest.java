@@ -0,0 +1,33 @@
+package com.example.bankcards.dto.cards;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class P2PTransferRequest {
+    @NotBlank
+    @Size(min = 4, max = 4)
+    private String fromCardNumber;
+
+    @NotNull
+    private Long recipientId;
+
+    @NotBlank
+    @Size(min = 4, max = 4)
+    private String toCardNumber;
+
+    @NotNull
+    @DecimalMin("0.01")
+    private BigDecimal amount;
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.dto.cards;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Результат перевода другому пользователю. Состояние карты получателя
+ * (баланс, срок действия) отправителю не раскрывается.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class P2PTransferResponse {
+    private CardDTO fromCard;
+    private Long recipientId;
+    private String toCardNumber;
+    private BigDecimal amount;
+}
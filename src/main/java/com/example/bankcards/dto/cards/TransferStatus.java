@@ -0,0 +1,8 @@
+package com.example.bankcards.dto.cards;
+
+public enum TransferStatus {
+    PENDING,
+    COMPLETED,
+    REJECTED,
+    FAILED
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.dto.cards;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferStatusDTO {
+    private UUID transferId;
+    private TransferStatus status;
+    private TransferResponse transfer;
+    private String error;
+}
@@ -1,5 +1,6 @@
 package com.example.bankcards.entity;
 
+import com.example.bankcards.util.CardNumbers;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -17,12 +18,16 @@ import java.time.LocalDateTime;
 @Table(name = "cards")
 public class Card {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long cardId;
 
     @Column(nullable = false)
     private String cardNumber;
 
+    @Column(nullable = false)
+    private Short last4;
+
     @Column(nullable = false)
     private String cardHolder;
 
@@ -35,8 +40,16 @@ public class Card {
     @Column(nullable = false)
     private CardStatus status = CardStatus.ACTIVE;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "userId", nullable = false)
     private User user;
 
+    @PrePersist
+    void fillLast4() {
+        last4 = CardNumbers.last4Of(cardNumber);
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Отозванный JWT токен, общий для всех узлов.
+ * Токен хранится по шестнадцатеричной записи {@link com.example.bankcards.util.TokenFingerprint}
+ * до истечения его срока действия.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    @Column(length = 32)
+    private String tokenId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
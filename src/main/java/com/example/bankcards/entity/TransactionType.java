@@ -0,0 +1,7 @@
+package com.example.bankcards.entity;
+
+public enum TransactionType {
+    TRANSFER_IN,
+    TRANSFER_OUT,
+    ADJUSTMENT
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+    /** Через сколько секунд можно повторить запрос */
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long waitNanos) {
+        super("Too many requests, try again later");
+        this.retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class CardNotFoundException extends RuntimeException {
-    public CardNotFoundException(String cardNumber, String email) {
-        super("Card not found with number " + cardNumber + " for user with email " + email);
+    public CardNotFoundException(String cardNumber) {
+        super("Card not found with number " + cardNumber);
     }
 }
\ No newline at end of file
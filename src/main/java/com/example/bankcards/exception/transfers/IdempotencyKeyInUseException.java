@@ -0,0 +1,11 @@
+package com.example.bankcards.exception.transfers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInUseException extends RuntimeException {
+    public IdempotencyKeyInUseException(String idempotencyKey) {
+        super("Request with Idempotency-Key " + idempotencyKey + " is still in progress");
+    }
+}
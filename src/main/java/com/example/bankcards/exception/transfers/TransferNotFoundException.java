@@ -0,0 +1,13 @@
+package com.example.bankcards.exception.transfers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class TransferNotFoundException extends RuntimeException {
+    public TransferNotFoundException(UUID transferId) {
+        super("Transfer " + transferId + " not found");
+    }
+}
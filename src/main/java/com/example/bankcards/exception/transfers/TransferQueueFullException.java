@@ -0,0 +1,11 @@
+package com.example.bankcards.exception.transfers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TransferQueueFullException extends RuntimeException {
+    public TransferQueueFullException() {
+        super("Too many transfers in progress, try again later");
+    }
+}
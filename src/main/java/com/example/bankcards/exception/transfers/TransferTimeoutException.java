@@ -0,0 +1,12 @@
+package com.example.bankcards.exception.transfers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TransferTimeoutException extends RuntimeException {
+    public TransferTimeoutException() {
+        super("Transfer did not complete in time, its result is unknown; "
+                + "check card balances or retry with the same Idempotency-Key");
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.entity.CardStatus;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Атомарные операции изменения баланса карты.
+ * <p>
+ * Каждая операция выполняется одним условным UPDATE-запросом без загрузки сущности
+ * в контекст персистентности, поэтому не создает нагрузки на dirty checking Hibernate.
+ * Строка карты блокируется до конца текущей транзакции.
+ */
+public interface CardBalanceOperations {
+
+    /**
+     * Списывает сумму с активной карты, если на ней достаточно средств.
+     *
+     * @param cardId идентификатор карты
+     * @param amount сумма списания
+     * @return состояние карты после списания или пустой Optional,
+     *         если карта неактивна или средств недостаточно
+     */
+    Optional<CardDTO> debit(Long cardId, BigDecimal amount);
+
+    /**
+     * Зачисляет сумму на активную карту.
+     *
+     * @param cardId идентификатор карты
+     * @param amount сумма зачисления
+     * @return состояние карты после зачисления или пустой Optional, если карта неактивна
+     */
+    Optional<CardDTO> credit(Long cardId, BigDecimal amount);
+
+    /**
+     * Читает актуальный статус карты в обход контекста персистентности.
+     *
+     * @param cardId идентификатор карты
+     * @return статус карты или пустой Optional, если карта не найдена
+     */
+    Optional<CardStatus> findStatus(Long cardId);
+
+    /**
+     * Блокирует строки указанных карт до конца транзакции.
+     * <p>
+     * Блокировки берутся одним запросом в порядке возрастания card_id,
+     * поэтому пакеты с пересекающимися картами не блокируют друг друга взаимно.
+     *
+     * @param keys адреса карт
+     * @return снимки найденных карт, отсортированные по card_id
+     */
+    List<CardState> lockCards(Collection<CardKey> keys);
+
+    /**
+     * Применяет изменения балансов одним пакетом JDBC.
+     * Строки карт должны быть заблокированы в текущей транзакции.
+     *
+     * @param deltas изменение баланса по идентификатору карты
+     */
+    void applyBalanceDeltas(Map<Long, BigDecimal> deltas);
+}
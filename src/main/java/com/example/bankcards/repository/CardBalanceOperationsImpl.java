@@ -0,0 +1,139 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.entity.CardStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Реализация {@link CardBalanceOperations} на JDBC.
+ * <p>
+ * Условие на статус и баланс проверяется в том же UPDATE, что и изменение баланса,
+ * поэтому параллельные переводы не теряют обновления. Состояние карты после изменения
+ * возвращается через RETURNING - один запрос к БД на каждую операцию.
+ * <p>
+ * Каждое изменение увеличивает version, чтобы операции с оптимистической блокировкой
+ * (изменение баланса и статуса администратором) обнаруживали параллельный перевод.
+ */
+@RequiredArgsConstructor
+public class CardBalanceOperationsImpl implements CardBalanceOperations {
+    private static final String DEBIT_SQL = """
+            UPDATE cards SET balance = balance - :amount, version = version + 1
+            WHERE card_id = :cardId AND balance >= :amount AND status = 'ACTIVE'
+            RETURNING card_number, expiry_date, card_holder, balance, status
+            """;
+
+    private static final String CREDIT_SQL = """
+            UPDATE cards SET balance = balance + :amount, version = version + 1
+            WHERE card_id = :cardId AND status = 'ACTIVE'
+            RETURNING card_number, expiry_date, card_holder, balance, status
+            """;
+
+    private static final String STATUS_SQL = "SELECT status FROM cards WHERE card_id = :cardId";
+
+    private static final String LOCK_SQL = """
+            SELECT card_id, user_id, card_number, last4, card_holder, expiry_date, balance, status
+            FROM cards
+            WHERE (user_id, last4) IN (:keys)
+            ORDER BY card_id
+            FOR NO KEY UPDATE
+            """;
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE cards SET balance = balance + ?, version = version + 1 WHERE card_id = ?";
+
+    private static final RowMapper<CardDTO> CARD_ROW_MAPPER = (rs, rowNum) -> new CardDTO(
+            rs.getString("card_number"),
+            rs.getObject("expiry_date", LocalDate.class),
+            rs.getString("card_holder"),
+            rs.getBigDecimal("balance"),
+            CardStatus.valueOf(rs.getString("status"))
+    );
+
+    private static final RowMapper<CardState> CARD_STATE_ROW_MAPPER = (rs, rowNum) -> new CardState(
+            rs.getLong("card_id"),
+            rs.getLong("user_id"),
+            rs.getString("card_number"),
+            rs.getShort("last4"),
+            rs.getString("card_holder"),
+            rs.getObject("expiry_date", LocalDate.class),
+            rs.getBigDecimal("balance"),
+            CardStatus.valueOf(rs.getString("status"))
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<CardDTO> debit(Long cardId, BigDecimal amount) {
+        return updateBalance(DEBIT_SQL, cardId, amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<CardDTO> credit(Long cardId, BigDecimal amount) {
+        return updateBalance(CREDIT_SQL, cardId, amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<CardStatus> findStatus(Long cardId) {
+        return jdbcTemplate.query(STATUS_SQL, new MapSqlParameterSource("cardId", cardId),
+                        (rs, rowNum) -> CardStatus.valueOf(rs.getString("status")))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CardState> lockCards(Collection<CardKey> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> tuples = keys.stream()
+                .map(key -> new Object[]{key.userId(), key.last4()})
+                .toList();
+        return jdbcTemplate.query(LOCK_SQL, new MapSqlParameterSource("keys", tuples), CARD_STATE_ROW_MAPPER);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Изменения применяются в порядке возрастания card_id.
+     */
+    @Override
+    public void applyBalanceDeltas(Map<Long, BigDecimal> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new TreeMap<>(deltas).entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(APPLY_DELTA_SQL, args);
+    }
+
+    private Optional<CardDTO> updateBalance(String sql, Long cardId, BigDecimal amount) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cardId", cardId)
+                .addValue("amount", amount);
+        return jdbcTemplate.query(sql, params, CARD_ROW_MAPPER).stream().findFirst();
+    }
+}
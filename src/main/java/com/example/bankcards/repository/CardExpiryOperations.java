@@ -0,0 +1,24 @@
+package com.example.bankcards.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Перевод просроченных карт в статус EXPIRED.
+ */
+public interface CardExpiryOperations {
+
+    /**
+     * Переводит в статус EXPIRED порцию активных карт со сроком действия раньше указанной даты.
+     * <p>
+     * Карты выбираются по индексу (status, expiry_date) и обновляются одним запросом.
+     * Строки, заблокированные другими транзакциями, пропускаются и попадут в следующую порцию
+     * или следующий запуск, поэтому запрос не ждет переводов и не удерживает блокировки
+     * дольше собственного выполнения.
+     *
+     * @param today первая дата, в которую карта еще действительна
+     * @param limit максимальное число карт в порции
+     * @return адреса карт, переведенных в статус EXPIRED
+     */
+    List<CardKey> expireBatch(LocalDate today, int limit);
+}
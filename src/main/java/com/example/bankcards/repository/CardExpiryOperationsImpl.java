@@ -0,0 +1,42 @@
+package com.example.bankcards.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Реализация {@link CardExpiryOperations} на JDBC.
+ * <p>
+ * Увеличивает version измененных карт, чтобы операции с оптимистической блокировкой
+ * обнаруживали смену статуса.
+ */
+@RequiredArgsConstructor
+public class CardExpiryOperationsImpl implements CardExpiryOperations {
+    private static final String EXPIRE_BATCH_SQL = """
+            UPDATE cards SET status = 'EXPIRED', version = version + 1
+            WHERE card_id IN (
+                SELECT card_id FROM cards
+                WHERE status = 'ACTIVE' AND expiry_date < :today
+                LIMIT :limit
+                FOR NO KEY UPDATE SKIP LOCKED
+            )
+            RETURNING user_id, last4
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CardKey> expireBatch(LocalDate today, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("today", today)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(EXPIRE_BATCH_SQL, params,
+                (rs, rowNum) -> new CardKey(rs.getLong("user_id"), rs.getShort("last4")));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bankcards.repository;
+
+/**
+ * Адрес карты в пределах пользователя.
+ *
+ * @param userId идентификатор владельца
+ * @param last4 последние 4 цифры номера карты
+ */
+public record CardKey(Long userId, Short last4) {
+}
@@ -0,0 +1,17 @@
+package com.example.bankcards.repository;
+
+/**
+ * Резервирование блоков номеров счетов карт.
+ */
+public interface CardNumberBlockOperations {
+
+    /**
+     * Резервирует следующий блок номеров счетов карт.
+     * <p>
+     * nextval не откатывается вместе с транзакцией, поэтому выданный блок не достанется
+     * другому узлу, даже если карта так и не будет создана.
+     *
+     * @return номер блока из последовательности card_number_block_seq
+     */
+    long nextCardNumberBlock();
+}
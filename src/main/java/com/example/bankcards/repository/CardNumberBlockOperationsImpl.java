@@ -0,0 +1,27 @@
+package com.example.bankcards.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Реализация {@link CardNumberBlockOperations} на JDBC.
+ */
+@RequiredArgsConstructor
+public class CardNumberBlockOperationsImpl implements CardNumberBlockOperations {
+    private static final String NEXT_BLOCK_SQL = "SELECT nextval('card_number_block_seq')";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextCardNumberBlock() {
+        Long block = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, EmptySqlParameterSource.INSTANCE, Long.class);
+        if (block == null) {
+            throw new IllegalStateException("card_number_block_seq returned null");
+        }
+        return block;
+    }
+}
@@ -1,17 +1,149 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.cards.CardDTO;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card> {
+public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card>,
+        CardBalanceOperations, CardExpiryOperations, CardNumberBlockOperations {
+    int EXPORT_FETCH_SIZE = 500;
+
+    String CARD_DTO_SELECT = """
+            SELECT new com.example.bankcards.dto.cards.CardDTO(
+                c.cardNumber, c.expiryDate, c.cardHolder, c.balance, c.status)
+            FROM Card c
+            """;
+
+    String USER_CARDS_FILTER = """
+            WHERE c.user.userId = :userId
+              AND (:search IS NULL
+                   OR lower(c.cardNumber) LIKE :search ESCAPE '\\'
+                   OR lower(c.cardHolder) LIKE :search ESCAPE '\\')
+            """;
+
+    String SEARCH_RANK = """
+            greatest(word_similarity(:term, lower(c.card_holder)),
+                     word_similarity(:term, lpad(CAST(c.last4 AS text), 4, '0'))) DESC, c.card_id DESC
+            """;
+
+    String SEARCH_MATCH = """
+            (lower(c.card_holder) LIKE :pattern ESCAPE '\\'
+             OR lpad(CAST(c.last4 AS text), 4, '0') LIKE :pattern ESCAPE '\\')
+            """;
+
+    /**
+     * Возвращает последние 4 цифры номеров всех карт пользователя.
+     *
+     * @param userId идентификатор владельца
+     * @return значения колонки last4
+     */
+    @Query("SELECT c.last4 FROM Card c WHERE c.user.userId = :userId")
+    Set<Short> findLast4ByUserId(@Param("userId") Long userId);
+
+    /**
+     * Возвращает адреса всех карт указанных пользователей.
+     *
+     * @param userIds идентификаторы владельцев
+     * @return пары (userId, last4)
+     */
+    @Query("""
+            SELECT new com.example.bankcards.repository.CardKey(c.user.userId, c.last4)
+            FROM Card c
+            WHERE c.user.userId IN :userIds
+            """)
+    List<CardKey> findCardKeysByUserIds(@Param("userIds") Collection<Long> userIds);
+
     List<Card> findByUser(User user);
-    Optional<Card> findByCardNumberAndUser(String cardNumber, User user);
-    Optional<Card> findByCardNumberAndUser_UserId(String cardNumber, Long userId);
+    Optional<Card> findByUser_UserIdAndLast4(Long userId, Short last4);
+    List<Card> findByUser_UserIdAndLast4In(Long userId, Collection<Short> last4);
+
+    /**
+     * Возвращает страницу карт пользователя сразу в виде DTO, без загрузки сущностей.
+     *
+     * @param userId идентификатор владельца
+     * @param search шаблон LIKE по номеру или имени держателя в нижнем регистре, может быть null
+     * @param pageable параметры пагинации и сортировки
+     * @return страница DTO карт
+     */
+    @Query(value = CARD_DTO_SELECT + USER_CARDS_FILTER,
+            countQuery = "SELECT count(c) FROM Card c " + USER_CARDS_FILTER)
+    Page<CardDTO> findCardDTOsByUser(@Param("userId") Long userId, @Param("search") String search,
+                                     Pageable pageable);
+
+    /**
+     * Возвращает все карты сразу в виде DTO, без загрузки сущностей.
+     *
+     * @return список DTO карт
+     */
+    @Query(CARD_DTO_SELECT)
+    List<CardDTO> findAllCardDTOs();
+
+    /**
+     * Читает все карты в виде DTO серверным курсором, по {@value #EXPORT_FETCH_SIZE} строк за раз.
+     * Поток должен быть прочитан и закрыт внутри транзакции.
+     *
+     * @return поток DTO карт в порядке card_id
+     */
+    @Query(CARD_DTO_SELECT + "ORDER BY c.cardId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CardDTO> streamAllCardDTOs();
+
+    /**
+     * Читает баланс карты пользователя без загрузки сущности.
+     *
+     * @param userId идентификатор владельца
+     * @param last4 последние 4 цифры номера карты
+     * @return баланс или пустой Optional, если карта не найдена
+     */
+    @Query("SELECT c.balance FROM Card c WHERE c.user.userId = :userId AND c.last4 = :last4")
+    Optional<BigDecimal> findBalance(@Param("userId") Long userId, @Param("last4") Short last4);
+
+    /**
+     * Ищет карты пользователя по подстроке имени держателя или последних 4 цифр номера.
+     * Условие поиска использует trigram-индексы, результаты упорядочены по релевантности.
+     *
+     * @param userId идентификатор владельца
+     * @param term нормализованный поисковый запрос
+     * @param pattern шаблон LIKE для запроса
+     * @param limit максимальное число карт
+     * @return найденные карты
+     */
+    @Query(value = "SELECT c.* FROM cards c WHERE c.user_id = :userId AND " + SEARCH_MATCH
+            + "ORDER BY " + SEARCH_RANK + "LIMIT :limit", nativeQuery = true)
+    List<Card> searchByUser(@Param("userId") Long userId, @Param("term") String term,
+                            @Param("pattern") String pattern, @Param("limit") int limit);
+
+    /**
+     * Ищет карты всех пользователей по подстроке имени держателя или последних 4 цифр номера.
+     *
+     * @param term нормализованный поисковый запрос
+     * @param pattern шаблон LIKE для запроса
+     * @param limit максимальное число карт
+     * @return найденные карты
+     * @see #searchByUser(Long, String, String, int)
+     */
+    @Query(value = "SELECT c.* FROM cards c WHERE " + SEARCH_MATCH
+            + "ORDER BY " + SEARCH_RANK + "LIMIT :limit", nativeQuery = true)
+    List<Card> search(@Param("term") String term, @Param("pattern") String pattern, @Param("limit") int limit);
 }
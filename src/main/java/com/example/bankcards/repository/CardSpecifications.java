@@ -0,0 +1,110 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.cards.AdminCardFilter;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.InvalidCursorException;
+import com.example.bankcards.util.KeysetCursor;
+import com.example.bankcards.util.LikePatterns;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Условия выборки карт и keyset-пагинация по ключу (expiry_date DESC, card_id DESC).
+ * <p>
+ * Порядок совпадает с индексами idx_cards_user_expiry_date_card_id,
+ * idx_cards_status_expiry_date_card_id и idx_cards_expiry_date_card_id, поэтому
+ * страница читается из индекса без сортировки, а диапазон срока действия сужает
+ * тот же диапазон индекса.
+ */
+public final class CardSpecifications {
+    /** Порядок keyset-пагинации карт */
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("expiryDate"), Sort.Order.desc("cardId"));
+
+    private CardSpecifications() {
+    }
+
+    /**
+     * Строит условие по фильтру администратора.
+     *
+     * @param filter фильтр; незаданные поля пропускаются
+     * @return спецификация для JPA-запроса
+     */
+    public static Specification<Card> matching(AdminCardFilter filter) {
+        List<Specification<Card>> specs = new ArrayList<>();
+        if (filter.getUserId() != null) {
+            specs.add(ownedBy(filter.getUserId()));
+        }
+        if (filter.getStatus() != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("status"), filter.getStatus()));
+        }
+        if (filter.getExpiryFrom() != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("expiryDate"), filter.getExpiryFrom()));
+        }
+        if (filter.getExpiryTo() != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("expiryDate"), filter.getExpiryTo()));
+        }
+        if (filter.getMinBalance() != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("balance"), filter.getMinBalance()));
+        }
+        if (filter.getMaxBalance() != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("balance"), filter.getMaxBalance()));
+        }
+        if (StringUtils.hasText(filter.getHolderPrefix())) {
+            String pattern = LikePatterns.startsWith(LikePatterns.normalize(filter.getHolderPrefix()));
+            specs.add((root, query, cb) -> cb.like(cb.lower(root.get("cardHolder")), pattern, '\\'));
+        }
+        return Specification.allOf(specs);
+    }
+
+    /**
+     * Условие на владельца карты.
+     *
+     * @param userId идентификатор владельца
+     * @return спецификация для JPA-запроса
+     */
+    public static Specification<Card> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("userId"), userId);
+    }
+
+    /**
+     * Условие keyset-пагинации: карты, следующие за картой из курсора.
+     *
+     * @param cursor курсор, полученный из {@link #nextCursor(Card)}
+     * @return спецификация для JPA-запроса
+     * @throws InvalidCursorException если курсор поврежден
+     */
+    public static Specification<Card> after(String cursor) {
+        String[] values = KeysetCursor.decode(cursor, 2);
+        LocalDate expiryDate;
+        Long cardId;
+        try {
+            expiryDate = LocalDate.parse(values[0]);
+            cardId = Long.valueOf(values[1]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException();
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("expiryDate"), expiryDate),
+                cb.and(
+                        cb.equal(root.get("expiryDate"), expiryDate),
+                        cb.lessThan(root.get("cardId"), cardId)
+                )
+        );
+    }
+
+    /**
+     * Формирует курсор следующей страницы.
+     *
+     * @param last последняя карта текущей страницы
+     * @return курсор
+     */
+    public static String nextCursor(Card last) {
+        return KeysetCursor.encode(last.getExpiryDate(), last.getCardId());
+    }
+}
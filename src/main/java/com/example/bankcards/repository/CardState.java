@@ -0,0 +1,33 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.entity.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Неизменяемый снимок строки карты, прочитанный в обход контекста персистентности.
+ *
+ * @param cardId идентификатор карты
+ * @param userId идентификатор владельца
+ * @param cardNumber замаскированный номер карты
+ * @param last4 последние 4 цифры номера карты
+ * @param cardHolder держатель карты
+ * @param expiryDate дата окончания действия
+ * @param balance баланс на момент чтения
+ * @param status статус карты
+ */
+public record CardState(Long cardId, Long userId, String cardNumber, Short last4, String cardHolder,
+                        LocalDate expiryDate, BigDecimal balance, CardStatus status) {
+
+    /**
+     * Возвращает DTO карты с указанным балансом.
+     *
+     * @param currentBalance баланс, который нужно показать клиенту
+     * @return DTO карты
+     */
+    public CardDTO toDTO(BigDecimal currentBalance) {
+        return new CardDTO(cardNumber, expiryDate, cardHolder, currentBalance, status);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Запись журнала движений по карте.
+ *
+ * @param cardId идентификатор карты
+ * @param counterpartyCardId идентификатор второй карты перевода или null
+ * @param type тип движения
+ * @param amount сумма движения со знаком: положительная для зачисления, отрицательная для списания
+ * @param balanceAfter баланс карты после движения
+ */
+public record CardTransactionEntry(Long cardId, Long counterpartyCardId, TransactionType type,
+                                   BigDecimal amount, BigDecimal balanceAfter) {
+
+    /**
+     * Формирует пару записей для перевода между картами.
+     *
+     * @param fromCardId карта списания
+     * @param fromBalance баланс карты списания после перевода
+     * @param toCardId карта зачисления
+     * @param toBalance баланс карты зачисления после перевода
+     * @param amount сумма перевода
+     * @return записи списания и зачисления
+     */
+    public static List<CardTransactionEntry> transfer(Long fromCardId, BigDecimal fromBalance,
+                                                      Long toCardId, BigDecimal toBalance, BigDecimal amount) {
+        return List.of(
+                new CardTransactionEntry(fromCardId, toCardId, TransactionType.TRANSFER_OUT, amount.negate(), fromBalance),
+                new CardTransactionEntry(toCardId, fromCardId, TransactionType.TRANSFER_IN, amount, toBalance)
+        );
+    }
+}
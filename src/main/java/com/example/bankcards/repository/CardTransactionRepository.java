@@ -0,0 +1,111 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.cards.CardTransactionDTO;
+import com.example.bankcards.entity.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Журнал движений по картам (таблица card_transactions).
+ * <p>
+ * Таблица секционирована по месяцам по created_at и только дополняется. Записи добавляются
+ * в транзакции, изменяющей баланс, поэтому журнал всегда согласован с балансами карт.
+ * История читается keyset-пагинацией по индексу (card_id, created_at DESC, transaction_id DESC):
+ * стоимость страницы не зависит от ее номера и общего размера таблицы.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CardTransactionRepository {
+    private static final String INSERT_SQL = """
+            INSERT INTO card_transactions (card_id, counterparty_card_id, type, amount, balance_after)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String FIRST_PAGE_SQL = """
+            SELECT transaction_id, type, amount, balance_after, created_at
+            FROM card_transactions
+            WHERE card_id = :cardId
+            ORDER BY created_at DESC, transaction_id DESC
+            LIMIT :limit
+            """;
+
+    private static final String NEXT_PAGE_SQL = """
+            SELECT transaction_id, type, amount, balance_after, created_at
+            FROM card_transactions
+            WHERE card_id = :cardId AND (created_at, transaction_id) < (:createdAt, :transactionId)
+            ORDER BY created_at DESC, transaction_id DESC
+            LIMIT :limit
+            """;
+
+    private static final String CREATE_PARTITION_SQL =
+            "CREATE TABLE IF NOT EXISTS card_transactions_%s PARTITION OF card_transactions FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final RowMapper<CardTransactionDTO> ROW_MAPPER = (rs, rowNum) -> new CardTransactionDTO(
+            rs.getLong("transaction_id"),
+            TransactionType.valueOf(rs.getString("type")),
+            rs.getBigDecimal("amount"),
+            rs.getBigDecimal("balance_after"),
+            rs.getObject("created_at", LocalDateTime.class)
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Добавляет записи в журнал одним пакетом JDBC.
+     *
+     * @param entries записи журнала
+     */
+    public void append(List<CardTransactionEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = entries.stream()
+                .map(entry -> new Object[]{entry.cardId(), entry.counterpartyCardId(), entry.type().name(),
+                        entry.amount(), entry.balanceAfter()})
+                .toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * Возвращает движения по карте от новых к старым.
+     *
+     * @param cardId идентификатор карты
+     * @param createdAt время последней записи предыдущей страницы или null для первой страницы
+     * @param transactionId идентификатор последней записи предыдущей страницы
+     * @param limit максимальное число записей
+     * @return записи журнала
+     */
+    public List<CardTransactionDTO> findByCard(Long cardId, LocalDateTime createdAt, Long transactionId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cardId", cardId)
+                .addValue("limit", limit);
+        if (createdAt == null) {
+            return jdbcTemplate.query(FIRST_PAGE_SQL, params, ROW_MAPPER);
+        }
+        params.addValue("createdAt", createdAt).addValue("transactionId", transactionId);
+        return jdbcTemplate.query(NEXT_PAGE_SQL, params, ROW_MAPPER);
+    }
+
+    /**
+     * Создает секцию журнала за месяц, если ее еще нет.
+     *
+     * @param month месяц
+     */
+    public void createPartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.getJdbcTemplate().execute(
+                CREATE_PARTITION_SQL.formatted(month.format(PARTITION_SUFFIX), from, to));
+    }
+}
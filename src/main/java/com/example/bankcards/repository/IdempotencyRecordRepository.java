@@ -0,0 +1,68 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    /**
+     * Занимает ключ для выполнения запроса. Истекшая запись с тем же ключом перезаписывается.
+     *
+     * @return 1, если ключ занят этим вызовом, 0 - если ключ уже используется
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO transfer_idempotency_keys
+                (user_id, idempotency_key, request_hash, response, created_at, expires_at)
+            VALUES (:userId, :idempotencyKey, :requestHash, NULL, :createdAt, :expiresAt)
+            ON CONFLICT (user_id, idempotency_key) DO UPDATE
+                SET request_hash = EXCLUDED.request_hash,
+                    response = NULL,
+                    created_at = EXCLUDED.created_at,
+                    expires_at = EXCLUDED.expires_at
+                WHERE transfer_idempotency_keys.expires_at < EXCLUDED.created_at
+            """, nativeQuery = true)
+    int claim(Long userId, String idempotencyKey, String requestHash,
+              LocalDateTime createdAt, LocalDateTime expiresAt);
+
+    /**
+     * Сохраняет результат запроса, занявшего ключ в момент {@code claimedAt}, и продлевает
+     * хранение записи. Выполняется в текущей транзакции, если она есть.
+     *
+     * @return 1, если результат сохранен, 0 - если ключ уже занят другим запросом
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update IdempotencyRecord r set r.response = :response, r.expiresAt = :expiresAt
+            where r.userId = :userId and r.idempotencyKey = :idempotencyKey
+                and r.createdAt = :claimedAt and r.response is null
+            """)
+    int complete(Long userId, String idempotencyKey, LocalDateTime claimedAt,
+                 String response, LocalDateTime expiresAt);
+
+    /**
+     * Освобождает ключ, занятый в момент {@code claimedAt}, если результат еще не сохранен.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            delete from IdempotencyRecord r
+            where r.userId = :userId and r.idempotencyKey = :idempotencyKey
+                and r.createdAt = :claimedAt and r.response is null
+            """)
+    int release(Long userId, String idempotencyKey, LocalDateTime claimedAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,40 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Сохраняет отзыв токена. Повторный отзыв того же токена не меняет запись.
+     *
+     * @return 1, если запись добавлена, 0 - если токен уже отозван
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO revoked_tokens (token_id, expires_at, revoked_at)
+            VALUES (:tokenId, :expiresAt, :revokedAt)
+            ON CONFLICT (token_id) DO NOTHING
+            """, nativeQuery = true)
+    int insert(String tokenId, Instant expiresAt, Instant revokedAt);
+
+    /**
+     * Находит еще не истекшие токены, отозванные начиная с указанного момента.
+     */
+    @Query("select r from RevokedToken r where r.revokedAt >= :since and r.expiresAt > :now")
+    List<RevokedToken> findActiveRevokedSince(Instant since, Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
@@ -1,17 +1,79 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.users.UserDTO;
 import com.example.bankcards.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    String USER_DTO_SELECT = """
+            SELECT new com.example.bankcards.dto.users.UserDTO(
+                u.userId, u.name, u.surname, u.patronymic, u.birthday, u.email, u.createdAt)
+            FROM User u
+            """;
+
     Optional<User> findByEmail(String email);
     Optional<User> findById(Long id);
+
+    /**
+     * Находит пользователя и блокирует его строку до конца транзакции.
+     * Используется для последовательного выпуска карт одному пользователю.
+     *
+     * @param userId идентификатор пользователя
+     * @return пользователь или пустой Optional
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.userId = :userId")
+    Optional<User> findByIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Находит пользователей и блокирует их строки до конца транзакции
+     * в порядке возрастания идентификатора.
+     *
+     * @param userIds идентификаторы пользователей
+     * @return найденные пользователи
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.userId IN :userIds ORDER BY u.userId")
+    List<User> findAllByIdForUpdate(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Возвращает данные пользователя сразу в виде DTO, без загрузки сущности.
+     *
+     * @param userId идентификатор пользователя
+     * @return DTO пользователя или пустой Optional, если пользователь не найден
+     */
+    @Query(USER_DTO_SELECT + "WHERE u.userId = :userId")
+    Optional<UserDTO> findDTOById(@Param("userId") Long userId);
+
+    /**
+     * Читает всех пользователей в виде DTO серверным курсором,
+     * по {@value CardRepository#EXPORT_FETCH_SIZE} строк за раз.
+     * Поток должен быть прочитан и закрыт внутри транзакции.
+     *
+     * @return поток DTO пользователей в порядке user_id
+     */
+    @Query(USER_DTO_SELECT + "ORDER BY u.userId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + CardRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<UserDTO> streamAllUserDTOs();
     boolean existsByEmail(@NotNull(message = "The field couldn`t be empty!") @Email(message = "Incorrect email!")
                           String email);
     Optional<User> findByRefreshToken(String token);
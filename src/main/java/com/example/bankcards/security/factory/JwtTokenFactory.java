@@ -9,6 +9,10 @@ import java.util.List;
  * Предоставляет методы для генерации подписанных токенов с указанными claims.
  */
 public interface JwtTokenFactory {
+    /** Claim access токена с идентификатором пользователя */
+    String USER_ID_CLAIM = "userId";
+    /** Claim access токена с ролью пользователя */
+    String ROLE_CLAIM = "role";
 
     /**
      * Создает access токен для пользователя с указанными authorities.
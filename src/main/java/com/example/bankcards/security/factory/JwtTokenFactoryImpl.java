@@ -27,6 +27,7 @@ public class JwtTokenFactoryImpl implements JwtTokenFactory {
      * - issuedAt (время создания)
      * - expiration (время истечения)
      * - claim "authorities" (список прав)
+     * - claims "userId" и "role", достаточные для аутентификации без обращения к БД
      */
     @Override
     public String createAccessToken(User user, List<String> authorities) {
@@ -35,6 +36,8 @@ public class JwtTokenFactoryImpl implements JwtTokenFactory {
                 .issuedAt(new Date())
                 .expiration(Date.from(Instant.now().plusMillis(accessTtl)))
                 .claim("authorities", authorities)
+                .claim(USER_ID_CLAIM, user.getUserId())
+                .claim(ROLE_CLAIM, user.getRole() == null ? null : user.getRole().name())
                 .signWith(secretKey)
                 .compact();
     }
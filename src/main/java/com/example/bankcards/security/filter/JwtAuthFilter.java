@@ -1,10 +1,14 @@
 package com.example.bankcards.security.filter;
 
+import com.example.bankcards.config.JwtConfig;
 import com.example.bankcards.exception.auth.InvalidTokenException;
 import com.example.bankcards.exception.users.UserNotFoundException;
-import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.parser.JwtParser;
+import com.example.bankcards.security.principal.PrincipalCache;
+import com.example.bankcards.security.principal.UserPrincipal;
 import com.example.bankcards.security.validator.JwtTokenValidator;
+import com.example.bankcards.util.TokenFingerprint;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -24,6 +28,18 @@ import java.io.IOException;
  * Фильтр аутентификации на основе JWT токенов.
  * Проверяет наличие и валидность access и refresh токенов для защищенных эндпоинтов.
  * Игнорирует публичные эндпоинты (/auth/register, /auth/login и др.).
+ * Пользователь берется из {@link PrincipalCache}, поэтому обычный запрос
+ * не обращается к БД для аутентификации.
+ * Подпись и срок действия access токена проверяются один раз за запрос
+ * в {@link JwtParser#parseToken}, после чего используются полученные claims.
+ * Ключ токена ({@link TokenFingerprint}) тоже вычисляется один раз и используется
+ * и для кэша проверенных токенов, и для проверки отзыва.
+ * <p>
+ * При {@code jwt.stateless-principal=true} пользователь строится из claims userId и role
+ * access токена без обращения к кэшу и БД, а refresh токен сверяется с хэшем действующего
+ * только на /auth/refresh. Смена роли и удаление пользователя в этом режиме вступают в силу
+ * после истечения выданных access токенов; выход из системы отзывает access токен.
+ * Токены без claims userId и role проверяются прежним способом.
  */
 @Component
 @RequiredArgsConstructor
@@ -33,9 +49,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private final static String REFRESH_TOKEN_COOKIE = "__Host-refresh";
     private static final String AUTH_TOKEN_COOKIE = "__Host-auth-token";
 
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
     private final JwtParser jwtParser;
     private final JwtTokenValidator jwtTokenValidator;
+    private final JwtConfig jwtConfig;
 
     /**
      * Основной метод фильтрации запросов.
@@ -56,7 +73,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 request.getServletPath().startsWith("/api/v1/auth/validate") ||
                 request.getServletPath().startsWith("/swagger-ui") ||
                 request.getServletPath().startsWith("/v3/api-docs") ||
-                request.getServletPath().startsWith("/webjars/")) {
+                request.getServletPath().startsWith("/webjars/") ||
+                request.getServletPath().equals("/actuator/health")) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -66,28 +84,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             if (accessToken == null) {
                 throw new InvalidTokenException("Access token required!");
             }
-            String username = jwtParser.extractUsername(accessToken);
-            var user = userRepository.findByEmail(username)
-                    .orElseThrow(UserNotFoundException::new);
-
-            if (!jwtTokenValidator.isTokenValid(accessToken, user)) {
+            TokenFingerprint accessTokenKey = TokenFingerprint.of(accessToken);
+            Claims claims = jwtParser.parseToken(accessTokenKey, accessToken);
+            if (jwtTokenValidator.isTokenRevoked(accessTokenKey)) {
                 throw new InvalidTokenException("Invalid access token!");
             }
+            boolean refreshRequest = request.getServletPath().equals("/api/v1/auth/refresh");
+            UserPrincipal principal = jwtConfig.isStatelessPrincipal() && !refreshRequest
+                    ? UserPrincipal.fromClaims(claims).orElse(null)
+                    : null;
 
-            if (!request.getServletPath().equals("/api/v1/auth/refresh")) {
-                String refreshToken = extractRefreshToken(request);
-                if (refreshToken == null) {
-                    throw new InvalidTokenException("Refresh token required!");
-                }
-                if (!refreshToken.equals(user.getRefreshToken())) {
-                    throw new InvalidTokenException("Invalid refresh token!");
+            if (principal == null) {
+                principal = principalCache.get(claims.getSubject())
+                        .orElseThrow(UserNotFoundException::new);
+                if (!refreshRequest || jwtConfig.isStatelessPrincipal()) {
+                    checkRefreshToken(request, principal);
                 }
             }
 
             var authentication = new UsernamePasswordAuthenticationToken(
-                    user,
+                    principal,
                     null,
-                    user.getAuthorities()
+                    principal.authorities()
             );
             SecurityContextHolder.getContext().setAuthentication(authentication);
             filterChain.doFilter(request, response);
@@ -98,6 +116,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Сверяет refresh токен из кук с хэшем действующего refresh токена пользователя.
+     *
+     * @param request HTTP запрос
+     * @param principal пользователь
+     * @throws InvalidTokenException если токена нет или он не совпадает с действующим
+     */
+    private void checkRefreshToken(HttpServletRequest request, UserPrincipal principal) {
+        String refreshToken = extractRefreshToken(request);
+        if (refreshToken == null) {
+            throw new InvalidTokenException("Refresh token required!");
+        }
+        if (!principal.refreshTokenMatches(refreshToken)) {
+            throw new InvalidTokenException("Invalid refresh token!");
+        }
+    }
+
     /**
      * Извлекает access токен из запроса.
      * Ищет токен в заголовке Authorization или в куках.
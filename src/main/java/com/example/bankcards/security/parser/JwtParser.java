@@ -1,6 +1,7 @@
 package com.example.bankcards.security.parser;
 
 import com.example.bankcards.exception.auth.InvalidTokenException;
+import com.example.bankcards.util.TokenFingerprint;
 import io.jsonwebtoken.Claims;
 
 import java.util.Date;
@@ -21,6 +22,16 @@ public interface JwtParser {
      */
     Claims parseToken(String token);
 
+    /**
+     * Парсит JWT токен с уже вычисленным ключом и возвращает его claims.
+     *
+     * @param key ключ токена, {@link TokenFingerprint#of(String)} от {@code token}
+     * @param token JWT токен
+     * @return claims токена
+     * @throws InvalidTokenException если токен невалиден
+     */
+    Claims parseToken(TokenFingerprint key, String token);
+
     /**
      * Извлекает конкретный claim из токена.
      *
@@ -1,37 +1,70 @@
 package com.example.bankcards.security.parser;
 
+import com.example.bankcards.config.VerifiedTokenCacheConfig;
 import com.example.bankcards.exception.auth.InvalidTokenException;
+import com.example.bankcards.util.TokenFingerprint;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.function.Function;
 
 /**
  * Реализация {@link JwtParser} для работы с JWT токенами с использованием JJWT.
  * Проверяет подпись токена и извлекает claims.
+ * <p>
+ * Парсер JJWT неизменяем и потокобезопасен, поэтому создается один раз.
+ * Claims проверенных токенов хранятся в LRU кэше по {@link TokenFingerprint} не дольше
+ * срока действия токена, поэтому повторные обращения к одному токену в рамках запроса
+ * и между запросами не проверяют HMAC подпись заново. Невалидные токены не кэшируются.
  */
 @Component
-@RequiredArgsConstructor
 public class JwtParserImpl implements JwtParser {
-    private final SecretKey secretKey;
+    private final io.jsonwebtoken.JwtParser parser;
+    private final Cache<TokenFingerprint, Claims> verified;
+
+    public JwtParserImpl(SecretKey secretKey, VerifiedTokenCacheConfig config, MeterRegistry meterRegistry) {
+        this.parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        Duration maxTtl = config.getTtl();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfter(Expiry.creating((TokenFingerprint key, Claims claims) -> timeToLive(claims, maxTtl)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "verified-token");
+    }
 
     /**
      * {@inheritDoc}
      * <p>
-     * Проверяет подпись токена с использованием секретного ключа.
+     * Проверяет подпись токена с использованием секретного ключа,
+     * если токен еще не был проверен.
      */
     @Override
     public Claims parseToken(String token) {
+        return parseToken(TokenFingerprint.of(token), token);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Проверяет подпись токена с использованием секретного ключа,
+     * если токен еще не был проверен.
+     */
+    @Override
+    public Claims parseToken(TokenFingerprint key, String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return verified.get(key, k -> parser.parseSignedClaims(token).getPayload());
         } catch (Exception e) {
             throw new InvalidTokenException("Incorrect JWT token: " + e.getMessage());
         }
@@ -77,4 +110,16 @@ public class JwtParserImpl implements JwtParser {
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
+
+    private static Duration timeToLive(Claims claims, Duration maxTtl) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return maxTtl;
+        }
+        Duration remaining = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis());
+        if (remaining.isNegative()) {
+            return Duration.ZERO;
+        }
+        return remaining.compareTo(maxTtl) < 0 ? remaining : maxTtl;
+    }
 }
@@ -0,0 +1,94 @@
+package com.example.bankcards.security.principal;
+
+import com.example.bankcards.config.PrincipalCacheConfig;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.cluster.ClusterEvent;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Кэш аутентифицированных пользователей по email (subject токена).
+ * <p>
+ * Операции, меняющие email, роль или refresh токен пользователя либо удаляющие его,
+ * вызывают {@link #evict}; удаление из кэша выполняется после завершения их транзакции.
+ * Загрузка и удаление по одному ключу в Caffeine упорядочены, поэтому значение,
+ * прочитанное до фиксации изменения, не остается в кэше после удаления.
+ * <p>
+ * Удаление рассылается другим узлам через {@link ClusterEventPublisher}; если уведомление
+ * потеряно, изменения, выполненные другими узлами, становятся видны не позже чем через {@code ttl}.
+ */
+@Component
+public class PrincipalCache {
+    private final Cache<String, UserPrincipal> principals;
+    private final UserRepository userRepository;
+    private final ClusterEventPublisher publisher;
+
+    public PrincipalCache(PrincipalCacheConfig config,
+                          UserRepository userRepository,
+                          ClusterEventPublisher publisher,
+                          MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.publisher = publisher;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "user-principal");
+    }
+
+    /**
+     * Возвращает пользователя из кэша или загружает его из БД.
+     *
+     * @param email email пользователя
+     * @return пользователь или пустой Optional, если пользователя нет
+     */
+    public Optional<UserPrincipal> get(String email) {
+        return Optional.ofNullable(principals.get(email,
+                key -> userRepository.findByEmail(key).map(UserPrincipal::of).orElse(null)));
+    }
+
+    /**
+     * Удаляет пользователя из кэша после завершения текущей транзакции
+     * или сразу, если транзакции нет, и рассылает удаление другим узлам.
+     *
+     * @param email email пользователя
+     */
+    public void evict(String email) {
+        publisher.publish(new ClusterEvent.PrincipalChanged(email));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            principals.invalidate(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                principals.invalidate(email);
+            }
+        });
+    }
+
+    /**
+     * Удаляет пользователя из кэша только на этом узле.
+     *
+     * @param email email пользователя
+     */
+    public void invalidate(String email) {
+        principals.invalidate(email);
+    }
+
+    /**
+     * Очищает кэш этого узла.
+     */
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+}
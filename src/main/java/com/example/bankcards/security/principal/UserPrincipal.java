@@ -0,0 +1,98 @@
+package com.example.bankcards.security.principal;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.security.factory.JwtTokenFactory;
+import com.example.bankcards.util.TokenDigests;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Аутентифицированный пользователь запроса.
+ * <p>
+ * Неизменяемый снимок полей пользователя, нужных для аутентификации. Вместо refresh токена
+ * хранится его SHA-256, поэтому снимок можно держать в кэше без утечки токенов.
+ * Хэш сравнивается по содержимому и не выводится в {@link #toString()}.
+ *
+ * @param userId идентификатор пользователя
+ * @param email email пользователя (subject токенов)
+ * @param role роль пользователя
+ * @param refreshTokenHash SHA-256 действующего refresh токена или null, если его нет
+ */
+public record UserPrincipal(Long userId, String email, Role role, byte[] refreshTokenHash) {
+
+    /**
+     * Создает снимок пользователя.
+     *
+     * @param user пользователь
+     * @return снимок для аутентификации
+     */
+    public static UserPrincipal of(User user) {
+        String refreshToken = user.getRefreshToken();
+        return new UserPrincipal(user.getUserId(), user.getEmail(), user.getRole(),
+                refreshToken == null ? null : TokenDigests.sha256(refreshToken));
+    }
+
+    /**
+     * Создает пользователя из проверенных claims access токена без обращения к БД.
+     * Refresh токен в таком снимке не хранится.
+     *
+     * @param claims claims access токена
+     * @return пользователь или пустой Optional, если токен не содержит userId и role
+     */
+    public static Optional<UserPrincipal> fromClaims(Claims claims) {
+        if (!(claims.get(JwtTokenFactory.USER_ID_CLAIM) instanceof Number userId)
+                || !(claims.get(JwtTokenFactory.ROLE_CLAIM) instanceof String role)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new UserPrincipal(userId.longValue(), claims.getSubject(), Role.valueOf(role), null));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Сравнивает refresh токен с действующим.
+     *
+     * @param refreshToken refresh токен из запроса
+     * @return true, если токен совпадает с действующим
+     */
+    public boolean refreshTokenMatches(String refreshToken) {
+        return TokenDigests.matches(refreshToken, refreshTokenHash);
+    }
+
+    /**
+     * Возвращает полномочия пользователя.
+     *
+     * @return роль пользователя в виде authority ROLE_*
+     */
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof UserPrincipal other
+                && Objects.equals(userId, other.userId)
+                && Objects.equals(email, other.email)
+                && role == other.role
+                && Arrays.equals(refreshTokenHash, other.refreshTokenHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, email, role, Arrays.hashCode(refreshTokenHash));
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[userId=" + userId + ", email=" + email + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bankcards.security.ratelimit;
+
+import com.example.bankcards.exception.RateLimitExceededException;
+import com.example.bankcards.security.principal.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Применяет {@link RateLimiter} к запросам аутентифицированных пользователей.
+ * Запросы без пользователя не ограничиваются - их отклоняет Spring Security.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal user)) {
+            return true;
+        }
+        long waitNanos = rateLimiter.tryAcquire(user.userId(), request.getMethod(), request.getRequestURI());
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(waitNanos);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bankcards.security.ratelimit;
+
+/**
+ * Ограничение частоты запросов пользователя по маршрутам.
+ */
+public interface RateLimiter {
+    /**
+     * Учитывает запрос пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param method HTTP-метод запроса
+     * @param path путь запроса
+     * @return 0, если запрос разрешен или маршрут не ограничен,
+     *         иначе время в наносекундах до следующего разрешенного запроса
+     */
+    long tryAcquire(Long userId, String method, String path);
+}
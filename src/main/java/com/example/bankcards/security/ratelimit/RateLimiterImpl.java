@@ -0,0 +1,80 @@
+package com.example.bankcards.security.ratelimit;
+
+import com.example.bankcards.config.RateLimitConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Реализация {@link RateLimiter} на корзинах токенов.
+ * <p>
+ * Корзины хранятся в кэше Caffeine с ограничением размера и удалением после простоя,
+ * поэтому память не растет с числом различных пользователей.
+ */
+@Component
+public class RateLimiterImpl implements RateLimiter {
+    private final List<Route> routes;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final LongSupplier clock;
+
+    @Autowired
+    public RateLimiterImpl(RateLimitConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    RateLimiterImpl(RateLimitConfig config, LongSupplier clock) {
+        this.clock = clock;
+        this.routes = config.getRoutes().entrySet().stream()
+                .map(entry -> Route.of(entry.getKey(), entry.getValue()))
+                .toList();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxBuckets())
+                .expireAfterAccess(config.getIdleTimeout())
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long tryAcquire(Long userId, String method, String path) {
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (Route route : routes) {
+            if (route.matches(method, pathContainer)) {
+                long now = clock.getAsLong();
+                TokenBucket bucket = buckets.get(new BucketKey(userId, route.name()),
+                        key -> new TokenBucket(route.capacity(), route.refillPerSecond(), now));
+                return bucket.tryAcquire(now);
+            }
+        }
+        return 0;
+    }
+
+    private record BucketKey(Long userId, String route) {
+    }
+
+    private record Route(String name, String method, List<PathPattern> patterns,
+                         int capacity, double refillPerSecond) {
+
+        static Route of(String name, RateLimitConfig.Route config) {
+            List<PathPattern> patterns = config.getPatterns().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            return new Route(name, config.getMethod(), patterns, config.getCapacity(), config.getRefillPerSecond());
+        }
+
+        boolean matches(String requestMethod, PathContainer path) {
+            if (method != null && !method.isBlank() && !method.equalsIgnoreCase(requestMethod)) {
+                return false;
+            }
+            return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.bankcards.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок.
+ * <p>
+ * Реализована как GCRA: вместо числа токенов хранится теоретическое время следующего
+ * запроса (TAT) в наносекундах. Запрос разрешен, если TAT опережает текущее время
+ * не больше чем на (capacity - 1) интервалов пополнения. Состояние - один AtomicLong,
+ * обновляемый через CAS, поэтому параллельные запросы не блокируют друг друга.
+ */
+class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param capacity максимальное число запросов подряд
+     * @param refillPerSecond скорость пополнения, запросов в секунду
+     * @param now текущее время в наносекундах
+     */
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.intervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.toleranceNanos = intervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Пытается взять токен.
+     *
+     * @param now текущее время в наносекундах
+     * @return 0, если токен взят, иначе время в наносекундах до появления токена
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = Math.max(tat, now);
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
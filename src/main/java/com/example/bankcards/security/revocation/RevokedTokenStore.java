@@ -0,0 +1,186 @@
+package com.example.bankcards.security.revocation;
+
+import com.example.bankcards.config.RevocationConfig;
+import com.example.bankcards.util.TokenFingerprint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Отозванные токены до истечения их срока действия.
+ * <p>
+ * Токен хранится по {@link TokenFingerprint} вместе со временем истечения.
+ * Для удаления истекших записей ключи раскладываются по слотам колеса таймеров
+ * шириной {@code sweep-interval}; очистка снимает только прошедшие слоты и не
+ * просматривает остальные записи.
+ * <p>
+ * Проверка не отозванного токена, самый частый случай, отсекается фильтром Блума
+ * без обращения к таблице. Из фильтра нельзя удалять ключи, поэтому после очистки
+ * он перестраивается по оставшимся записям. Новый фильтр строится вне блокировки,
+ * поэтому отзывы не ждут перестроения; ключи, отозванные за это время, добавляются
+ * в новый фильтр перед его публикацией. Проверки блокировок не берут.
+ */
+@Component
+@Slf4j
+public class RevokedTokenStore {
+    private final Map<TokenFingerprint, Long> expirations = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Queue<TokenFingerprint>> wheel = new ConcurrentSkipListMap<>();
+    private final RevocationConfig config;
+    private final long slotMillis;
+    private volatile TokenBloomFilter filter;
+    /** Ключи, отозванные во время перестроения фильтра; null, если фильтр не перестраивается */
+    private List<TokenFingerprint> revokedDuringRebuild;
+
+    public RevokedTokenStore(RevocationConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.slotMillis = Math.max(1, config.getSweepInterval().toMillis());
+        this.filter = new TokenBloomFilter(config.getExpectedTokens(), config.getFalsePositiveRate());
+        Gauge.builder("bank.auth.revoked-tokens", expirations, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Отзывает токен до истечения его срока действия.
+     * Уже истекшие токены не сохраняются.
+     *
+     * @param token JWT токен
+     * @param expiresAt время истечения токена
+     */
+    public void revoke(String token, Instant expiresAt) {
+        revoke(TokenFingerprint.of(token), expiresAt.toEpochMilli());
+    }
+
+    /**
+     * Отзывает токен по его ключу до истечения срока действия.
+     * Уже истекшие токены не сохраняются.
+     *
+     * @param key ключ токена
+     * @param expiresAtMillis время истечения токена
+     */
+    public void revoke(TokenFingerprint key, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (this) {
+            expirations.merge(key, expiresAtMillis, Math::max);
+            wheel.computeIfAbsent(slot(expiresAtMillis), s -> new ConcurrentLinkedQueue<>()).add(key);
+            filter.put(key);
+            if (revokedDuringRebuild != null) {
+                revokedDuringRebuild.add(key);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param token JWT токен
+     * @return true, если токен отозван и еще не истек
+     */
+    public boolean isRevoked(String token) {
+        return isRevoked(TokenFingerprint.of(token));
+    }
+
+    /**
+     * Проверяет, отозван ли токен, по уже вычисленному ключу. Для не отозванного токена
+     * не выделяет память.
+     *
+     * @param key ключ токена
+     * @return true, если токен отозван и еще не истек
+     */
+    public boolean isRevoked(TokenFingerprint key) {
+        if (!filter.mightContain(key)) {
+            return false;
+        }
+        Long expiresAt = expirations.get(key);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Число отозванных токенов, которые еще хранятся.
+     *
+     * @return размер хранилища
+     */
+    public int size() {
+        return expirations.size();
+    }
+
+    /**
+     * Удаляет истекшие токены по расписанию.
+     */
+    @Scheduled(fixedDelayString = "${bank.revocation.sweep-interval:1m}")
+    public void sweepExpired() {
+        int removed = sweep(Instant.now());
+        if (removed > 0) {
+            log.debug("Removed {} expired revoked tokens", removed);
+        }
+    }
+
+    /**
+     * Удаляет токены из слотов, полностью истекших к указанному моменту,
+     * и перестраивает фильтр Блума.
+     *
+     * @param now текущее время
+     * @return число удаленных токенов
+     */
+    public int sweep(Instant now) {
+        long nowMillis = now.toEpochMilli();
+        int removed = 0;
+        synchronized (this) {
+            Map.Entry<Long, Queue<TokenFingerprint>> slot;
+            while ((slot = wheel.firstEntry()) != null && (slot.getKey() + 1) * slotMillis <= nowMillis) {
+                wheel.remove(slot.getKey());
+                for (TokenFingerprint key : slot.getValue()) {
+                    Long expiresAt = expirations.get(key);
+                    if (expiresAt != null && expiresAt <= nowMillis && expirations.remove(key, expiresAt)) {
+                        removed++;
+                    }
+                }
+            }
+            // Перестроение уже идет: лишние ключи старого фильтра дают только ложные срабатывания
+            if (removed == 0 || revokedDuringRebuild != null) {
+                return removed;
+            }
+            revokedDuringRebuild = new ArrayList<>();
+        }
+        rebuildFilter();
+        return removed;
+    }
+
+    private void rebuildFilter() {
+        TokenBloomFilter rebuilt;
+        try {
+            rebuilt = new TokenBloomFilter(
+                    Math.max(config.getExpectedTokens(), expirations.size() * 2), config.getFalsePositiveRate());
+            expirations.keySet().forEach(rebuilt::put);
+        } catch (RuntimeException | Error e) {
+            // Недостроенный фильтр не публикуется: в нем могут отсутствовать отозванные ключи
+            synchronized (this) {
+                revokedDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            revokedDuringRebuild.forEach(rebuilt::put);
+            revokedDuringRebuild = null;
+            filter = rebuilt;
+        }
+    }
+
+    private long slot(long expiresAtMillis) {
+        return expiresAtMillis / slotMillis;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.security.revocation;
+
+import com.example.bankcards.util.TokenFingerprint;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума по ключам токенов.
+ * <p>
+ * Ключ уже является криптографическим хэшем, поэтому позиции битов получаются
+ * двойным хэшированием из двух его половин без дополнительных вычислений и выделения памяти.
+ * Отрицательный ответ точен, положительный требует проверки по хранилищу.
+ */
+final class TokenBloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    TokenBloomFilter(int expectedTokens, double falsePositiveRate) {
+        long n = Math.max(expectedTokens, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(TokenFingerprint key) {
+        long hash = key.high();
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (current, m) -> current | m);
+            }
+            hash += key.low();
+        }
+    }
+
+    boolean mightContain(TokenFingerprint key) {
+        long hash = key.high();
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            hash += key.low();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bankcards.security.revocation;
+
+import com.example.bankcards.config.ClusterConfig;
+import com.example.bankcards.entity.RevokedToken;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import com.example.bankcards.service.cluster.ClusterEvent;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import com.example.bankcards.util.TokenFingerprint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Отзыв токенов, согласованный между узлами.
+ * <p>
+ * Отзыв сохраняется в таблицу revoked_tokens, применяется к локальному
+ * {@link RevokedTokenStore} и рассылается другим узлам через {@link ClusterEventPublisher}.
+ * Таблица - источник истины: при старте и периодически узел дочитывает из нее отзывы,
+ * сделанные с момента предыдущего дочитывания, поэтому потерянное уведомление
+ * задерживает отзыв не дольше чем на {@code catch-up-interval}.
+ */
+@Component
+@Slf4j
+public class TokenRevocationService {
+    private final RevokedTokenStore store;
+    private final RevokedTokenRepository repository;
+    private final ClusterEventPublisher publisher;
+    private final ClusterConfig config;
+    private Instant lastCatchUp;
+
+    public TokenRevocationService(RevokedTokenStore store,
+                                  RevokedTokenRepository repository,
+                                  ClusterEventPublisher publisher,
+                                  ClusterConfig config) {
+        this.store = store;
+        this.repository = repository;
+        this.publisher = publisher;
+        this.config = config;
+    }
+
+    /**
+     * Отзывает токен на всех узлах до истечения его срока действия.
+     * Уже истекшие токены не сохраняются.
+     *
+     * @param token JWT токен
+     * @param expiration время истечения токена
+     */
+    public void revoke(String token, Date expiration) {
+        Instant expiresAt = expiration.toInstant();
+        Instant now = Instant.now();
+        if (!expiresAt.isAfter(now)) {
+            return;
+        }
+        TokenFingerprint key = TokenFingerprint.of(token);
+        store.revoke(key, expiresAt.toEpochMilli());
+        repository.insert(key.toHex(), expiresAt, now);
+        publisher.publish(new ClusterEvent.TokenRevoked(key, expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param token JWT токен
+     * @return true, если токен отозван и еще не истек
+     */
+    public boolean isRevoked(String token) {
+        return store.isRevoked(token);
+    }
+
+    /**
+     * Проверяет, отозван ли токен, по уже вычисленному ключу.
+     *
+     * @param key ключ токена
+     * @return true, если токен отозван и еще не истек
+     */
+    public boolean isRevoked(TokenFingerprint key) {
+        return store.isRevoked(key);
+    }
+
+    /**
+     * Применяет отзыв, полученный от другого узла.
+     *
+     * @param key ключ токена
+     * @param expiresAtMillis время истечения токена
+     */
+    public void apply(TokenFingerprint key, long expiresAtMillis) {
+        store.revoke(key, expiresAtMillis);
+    }
+
+    /**
+     * Дочитывает из таблицы отзывы, сделанные с предыдущего дочитывания.
+     * Первый вызов загружает все действующие отзывы.
+     *
+     * @return число прочитанных отзывов
+     */
+    @Scheduled(fixedDelayString = "${bank.cluster.catch-up-interval:30s}")
+    public synchronized int catchUp() {
+        Instant now = Instant.now();
+        Instant since = lastCatchUp == null ? Instant.EPOCH : lastCatchUp.minus(config.getCatchUpOverlap());
+        int loaded = 0;
+        for (RevokedToken revoked : repository.findActiveRevokedSince(since, now)) {
+            store.revoke(TokenFingerprint.fromHex(revoked.getTokenId()), revoked.getExpiresAt().toEpochMilli());
+            loaded++;
+        }
+        lastCatchUp = now;
+        if (loaded > 0) {
+            log.debug("Loaded {} revoked tokens since {}", loaded, since);
+        }
+        return loaded;
+    }
+
+    /**
+     * Удаляет истекшие отзывы из таблицы.
+     */
+    @Scheduled(fixedDelayString = "${bank.revocation.sweep-interval:1m}")
+    public void deleteExpired() {
+        int deleted = repository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired revoked tokens", deleted);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.factory.JwtTokenFactory;
+import com.example.bankcards.security.principal.PrincipalCache;
 import com.example.bankcards.util.Mapper;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
@@ -34,12 +35,15 @@ public class JwtServiceImpl implements JwtService {
     private final JwtConfig jwtConfig;
     private final Mapper mapper;
     private final JwtTokenFactory jwtTokenFactory;
+    private final PrincipalCache principalCache;
 
     /**
      * {@inheritDoc}
      * <p>
      * Для администраторов добавляет authority ROLE_ADMIN, для обычных пользователей - ROLE_USER.
-     * Сохраняет refresh токен и время его истечения в базу данных.
+     * Сохраняет refresh токен и время его истечения в базу данных
+     * и удаляет пользователя из {@link PrincipalCache}, чтобы прежний refresh токен
+     * перестал приниматься.
      */
     @Override
     public UserLoginResponse generateTokenPair(User user) {
@@ -53,6 +57,7 @@ public class JwtServiceImpl implements JwtService {
         user.setRefreshToken(refreshToken);
         user.setRefreshTokenExpiry(expiry);
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
 
         return new UserLoginResponse(
                 accessToken,
@@ -1,6 +1,6 @@
 package com.example.bankcards.security.validator;
 
-import com.example.bankcards.entity.User;
+import com.example.bankcards.util.TokenFingerprint;
 
 /**
  * Валидатор JWT токенов.
@@ -12,10 +12,10 @@ public interface JwtTokenValidator {
      * Проверяет валидность токена для указанного пользователя.
      *
      * @param token JWT токен
-     * @param user пользователь, для которого проверяется токен
+     * @param username email пользователя, для которого проверяется токен
      * @return true, если токен валиден и не отозван
      */
-    boolean isTokenValid(String token, User user);
+    boolean isTokenValid(String token, String username);
 
     /**
      * Проверяет, отозван ли токен.
@@ -25,6 +25,14 @@ public interface JwtTokenValidator {
      */
     boolean isTokenRevoked(String token);
 
+    /**
+     * Проверяет, отозван ли токен, по уже вычисленному ключу.
+     *
+     * @param key ключ токена
+     * @return true, если токен находится в списке отозванных
+     */
+    boolean isTokenRevoked(TokenFingerprint key);
+
     /**
      * Добавляет токен в список отозванных.
      * Не отзывает уже истекшие токены.
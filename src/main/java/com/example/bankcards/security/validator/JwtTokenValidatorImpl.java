@@ -1,23 +1,23 @@
 package com.example.bankcards.security.validator;
 
-import com.example.bankcards.entity.User;
 import com.example.bankcards.security.parser.JwtParser;
+import com.example.bankcards.security.revocation.TokenRevocationService;
+import com.example.bankcards.util.TokenFingerprint;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Date;
 
 /**
  * Реализация {@link JwtTokenValidator} для проверки JWT токенов.
- * Хранит список отозванных токенов в памяти (ConcurrentHashMap).
+ * Отзывы токенов согласуются между узлами через {@link TokenRevocationService}.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtTokenValidatorImpl implements JwtTokenValidator {
-    private final Set<String> revokedTokens = ConcurrentHashMap.newKeySet();
+    private final TokenRevocationService revocations;
     private final JwtParser jwtParser;
 
     /**
@@ -27,9 +27,8 @@ public class JwtTokenValidatorImpl implements JwtTokenValidator {
      */
     @Override
     public void revokeToken(String token) {
-        if (!jwtParser.isTokenExpired(token)) {
-            revokedTokens.add(token);
-        }
+        Date expiration = jwtParser.extractExpiration(token);
+        revocations.revoke(token, expiration);
     }
 
     /**
@@ -37,7 +36,15 @@ public class JwtTokenValidatorImpl implements JwtTokenValidator {
      */
     @Override
     public boolean isTokenRevoked(String token) {
-        return revokedTokens.contains(token);
+        return revocations.isRevoked(token);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isTokenRevoked(TokenFingerprint key) {
+        return revocations.isRevoked(key);
     }
 
     /**
@@ -51,11 +58,10 @@ public class JwtTokenValidatorImpl implements JwtTokenValidator {
      * Логирует ошибки валидации.
      */
     @Override
-    public boolean isTokenValid(String token, User user) {
+    public boolean isTokenValid(String token, String username) {
         try {
-            final String username = jwtParser.extractUsername(token);
-            return username.equals(user.getEmail())
-                    && !revokedTokens.contains(token)
+            return jwtParser.extractUsername(token).equals(username)
+                    && !revocations.isRevoked(token)
                     && !jwtParser.isTokenExpired(token);
         } catch (Exception e) {
             log.error("Token validation failed", e);
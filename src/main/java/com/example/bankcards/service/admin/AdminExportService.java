@@ -0,0 +1,33 @@
+package com.example.bankcards.service.admin;
+
+import com.example.bankcards.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Потоковая выгрузка карт и пользователей для администратора.
+ * <p>
+ * Строки читаются из БД курсором и пишутся в выходной поток по мере чтения,
+ * поэтому расход памяти не зависит от размера выгрузки.
+ */
+public interface AdminExportService {
+
+    /**
+     * Выгружает все карты.
+     *
+     * @param format формат выгрузки
+     * @param out поток ответа
+     * @throws IOException если запись в поток не удалась
+     */
+    void exportCards(ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Выгружает всех пользователей.
+     *
+     * @param format формат выгрузки
+     * @param out поток ответа
+     * @throws IOException если запись в поток не удалась
+     */
+    void exportUsers(ExportFormat format, OutputStream out) throws IOException;
+}
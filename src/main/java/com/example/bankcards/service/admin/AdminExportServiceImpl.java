@@ -0,0 +1,141 @@
+package com.example.bankcards.service.admin;
+
+import com.example.bankcards.dto.ExportFormat;
+import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.users.UserDTO;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка читает DTO-проекции, которые не попадают в контекст персистентности,
+ * поэтому его очистка между порциями не требуется. Буфер сбрасывается клиенту
+ * каждые {@value CardRepository#EXPORT_FETCH_SIZE} строк.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AdminExportServiceImpl implements AdminExportService {
+    private static final int CHUNK_SIZE = CardRepository.EXPORT_FETCH_SIZE;
+
+    private static final List<String> CARD_COLUMNS =
+            List.of("cardNumber", "expiryDate", "cardHolder", "balance", "status");
+    private static final List<String> USER_COLUMNS =
+            List.of("id", "name", "surname", "patronymic", "birthday", "email", "createdAt");
+
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCards(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<CardDTO> cards = cardRepository.streamAllCardDTOs()) {
+            long rows = write(format, out, CardDTO.class, cards, CARD_COLUMNS, card -> new Object[]{
+                    card.getCardNumber(), card.getExpiryDate(), card.getCardHolder(),
+                    card.getBalance(), card.getStatus()
+            });
+            log.info("Exported {} cards as {}", rows, format);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<UserDTO> users = userRepository.streamAllUserDTOs()) {
+            long rows = write(format, out, UserDTO.class, users, USER_COLUMNS, user -> new Object[]{
+                    user.getId(), user.getName(), user.getSurname(), user.getPatronymic(),
+                    user.getBirthday(), user.getEmail(), user.getCreatedAt()
+            });
+            log.info("Exported {} users as {}", rows, format);
+        }
+    }
+
+    private <T> long write(ExportFormat format, OutputStream out, Class<T> type, Stream<T> rows,
+                           List<String> columns, Function<T, Object[]> values) throws IOException {
+        return switch (format) {
+            case NDJSON -> writeNdjson(out, type, rows.iterator());
+            case CSV -> writeCsv(out, rows.iterator(), columns, values);
+        };
+    }
+
+    private <T> long writeNdjson(OutputStream out, Class<T> type, Iterator<T> rows) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(type)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        long count = 0;
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (rows.hasNext()) {
+                writer.writeValue(generator, rows.next());
+                if (++count % CHUNK_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+
+    private <T> long writeCsv(OutputStream out, Iterator<T> rows, List<String> columns,
+                              Function<T, Object[]> values) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", columns));
+        writer.write("\r\n");
+        long count = 0;
+        while (rows.hasNext()) {
+            Object[] row = values.apply(rows.next());
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvField(writer, row[i]);
+            }
+            writer.write("\r\n");
+            if (++count % CHUNK_SIZE == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.bankcards.service.admin;
 
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.cards.AdminCardFilter;
 import com.example.bankcards.dto.cards.CardDTO;
 import com.example.bankcards.dto.users.UpdateUserRequest;
 import com.example.bankcards.dto.users.UserDTO;
@@ -38,7 +40,6 @@ public interface AdminService {
      * @param userId пользователя
      * @param cardNumber номер карты
      * @return DTO обновленной карты
-     * @throws UserNotFoundException если пользователь не найден
      * @throws CardNotFoundException если карта не найдена
      */
     CardDTO activateCard(Long userId, String cardNumber);
@@ -49,7 +50,6 @@ public interface AdminService {
      * @param userId идентификатор пользователя
      * @param cardNumber последние 4 цифры номера карты
      * @return DTO обновленной карты
-     * @throws UserNotFoundException если пользователь не найден
      * @throws CardNotFoundException если карта не найдена
      * @throws CardOperationException если карта уже заблокирована
      */
@@ -60,7 +60,6 @@ public interface AdminService {
      *
      * @param userId идентификатор пользователя
      * @param cardNumber последние 4 цифры номера карты
-     * @throws UserNotFoundException если пользователь не найден
      * @throws CardNotFoundException если карта не найдена
      */
     void deleteCard(Long userId, String cardNumber);
@@ -72,7 +71,6 @@ public interface AdminService {
      * @param cardNumber последние 4 цифры номера карты
      * @param balance новое значение баланса
      * @return DTO обновленной карты
-     * @throws UserNotFoundException если пользователь не найден
      * @throws CardNotFoundException если карта не найдена
      */
     CardDTO updateUserBalance(Long userId, String cardNumber, BigDecimal balance);
@@ -84,6 +82,27 @@ public interface AdminService {
      */
     List<CardDTO> getAllCards();
 
+    /**
+     * Ищет карты всех пользователей по подстроке имени держателя или последних 4 цифр номера.
+     *
+     * @param query поисковый запрос
+     * @param size максимальное число карт
+     * @return DTO найденных карт, от наиболее релевантных к наименее
+     */
+    List<CardDTO> searchCards(String query, int size);
+
+    /**
+     * Возвращает страницу карт всех пользователей, подходящих под фильтр,
+     * в порядке убывания срока действия.
+     *
+     * @param filter условия отбора
+     * @param cursor курсор следующей страницы; null или пустая строка - первая страница
+     * @param size размер страницы
+     * @return страница DTO карт с курсором следующей страницы
+     * @throws com.example.bankcards.exception.InvalidCursorException если курсор поврежден
+     */
+    CursorPage<CardDTO> findCards(AdminCardFilter filter, String cursor, int size);
+
     /**
      * Возвращает список карт указанного пользователя.
      *
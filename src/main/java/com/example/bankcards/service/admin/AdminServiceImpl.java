@@ -1,5 +1,7 @@
 package com.example.bankcards.service.admin;
 
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.cards.AdminCardFilter;
 import com.example.bankcards.dto.cards.CardDTO;
 import com.example.bankcards.dto.users.UpdateUserRequest;
 import com.example.bankcards.dto.users.UserDTO;
@@ -7,20 +9,32 @@ import com.example.bankcards.dto.users.UserRegisterRequest;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.TransactionType;
 import com.example.bankcards.entity.User;
-import com.example.bankcards.exception.cards.CardNotFoundException;
 import com.example.bankcards.exception.cards.CardOperationException;
 import com.example.bankcards.exception.users.EmailBusyException;
 import com.example.bankcards.exception.users.UserExistsException;
 import com.example.bankcards.exception.users.UserNotFoundException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardSpecifications;
+import com.example.bankcards.repository.CardTransactionEntry;
+import com.example.bankcards.repository.CardTransactionRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.principal.PrincipalCache;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.service.cards.CardResolver;
+import com.example.bankcards.service.retry.RetryOnConflict;
+import com.example.bankcards.util.LikePatterns;
 import com.example.bankcards.util.Mapper;
 import com.example.bankcards.util.generatorNumbers.CardNumberGenerator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -35,30 +49,41 @@ import java.util.stream.Collectors;
  * Особенности реализации:
  * <ul>
  *   <li>Автоматически генерирует номера карт через {@link CardNumberGenerator}</li>
- *   <li>Форматирует номера карт (**** **** **** XXXX) при поиске</li>
+ *   <li>Ищет карты по последним 4 цифрам номера через {@link CardResolver}</li>
  *   <li>Устанавливает срок действия карт на 5 лет вперед</li>
  * </ul>
  */
 @Service
 @RequiredArgsConstructor
 public class AdminServiceImpl implements AdminService {
+    /** Срок действия выпускаемой карты в годах */
+    static final int CARD_VALIDITY_YEARS = 5;
+
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final CardNumberGenerator cardNumberGenerator;
     private final Mapper mapper;
     private final PasswordEncoder passwordEncoder;
+    private final CardTransactionRepository cardTransactionRepository;
+    private final CardResolver cardResolver;
+    private final CardBalanceCache balanceCache;
+    private final PrincipalCache principalCache;
 
     /**
      * {@inheritDoc}
+     *
+     * <p>Строка пользователя блокируется до конца транзакции, поэтому карты одному
+     * пользователю выпускаются последовательно и последние 4 цифры номера не повторяются.
      */
     @Override
+    @Transactional
     public CardDTO createCard(Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findByIdForUpdate(userId)
                 .orElseThrow(UserNotFoundException::new);
         Card card = new Card();
         card.setCardHolder(user.getName() + " " + user.getSurname());
-        card.setCardNumber(cardNumberGenerator.generateNumber());
-        card.setExpiryDate(LocalDate.now().plusYears(5));
+        card.setCardNumber(cardNumberGenerator.generateNumber(cardRepository.findLast4ByUserId(userId)));
+        card.setExpiryDate(LocalDate.now().plusYears(CARD_VALIDITY_YEARS));
         card.setStatus(CardStatus.ACTIVE);
         card.setUser(user);
 
@@ -72,16 +97,12 @@ public class AdminServiceImpl implements AdminService {
     @Override
     @Transactional
     public CardDTO activateCard(Long userId, String cardNumber) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-        //чтобы вводить последние 4 цифры
-        String formatCardNumber = "**** **** **** " + cardNumber;
-        Card card = cardRepository.findByCardNumberAndUser(formatCardNumber, user)
-                .orElseThrow(() -> new CardNotFoundException(cardNumber, user.getEmail()));
+        Card card = cardResolver.resolve(userId, cardNumber);
 
         if (card.getStatus() != CardStatus.ACTIVE) {
             card.setStatus(CardStatus.ACTIVE);
             cardRepository.save(card);
+            balanceCache.evict(userId, card.getLast4());
             return mapper.toCardDTO(card);
         } else {
             throw new CardOperationException("Card is active!");
@@ -90,21 +111,22 @@ public class AdminServiceImpl implements AdminService {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Изменение проверяется по версии карты; при параллельном изменении
+     * операция повторяется, см. {@link RetryOnConflict}.
      */
     @Override
     @Transactional
+    @RetryOnConflict
     public CardDTO blockCard(Long userId, String cardNumber) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-        String formatCardNumber = "**** **** **** " + cardNumber;
-        Card card = cardRepository.findByCardNumberAndUser(formatCardNumber, user)
-                .orElseThrow(() -> new CardNotFoundException(cardNumber, user.getEmail()));
+        Card card = cardResolver.resolve(userId, cardNumber);
 
         if (card.getStatus() != CardStatus.ACTIVE) {
             throw new CardOperationException(
                     "Cannot deactivate card. Current status: " + card.getStatus());
         }
         card.setStatus(CardStatus.BLOCKED);
+        balanceCache.evict(userId, card.getLast4());
         return mapper.toCardDTO(card);
     }
 
@@ -114,46 +136,89 @@ public class AdminServiceImpl implements AdminService {
     @Override
     @Transactional
     public void deleteCard(Long userId, String cardNumber) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-
-        String formatCardNumber = "**** **** **** " + cardNumber;
-
-        Card card = cardRepository.findByCardNumberAndUser(formatCardNumber, user)
-                .orElseThrow(() -> new CardNotFoundException(cardNumber, user.getEmail()));
+        Card card = cardResolver.resolve(userId, cardNumber);
 
         cardRepository.delete(card);
+        balanceCache.evict(userId, card.getLast4());
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Изменение проверяется по версии карты; при параллельном изменении
+     * операция повторяется, см. {@link RetryOnConflict}.
+     * Разница с прежним балансом записывается в журнал движений как корректировка.
      */
     @Override
     @Transactional
+    @RetryOnConflict
     public CardDTO updateUserBalance(Long userId, String cardNumber, BigDecimal balance) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-        String formatCardNumber = "**** **** **** " + cardNumber;
-        Card card = cardRepository.findByCardNumberAndUser(formatCardNumber, user)
-                .orElseThrow(() -> new CardNotFoundException(cardNumber, user.getEmail()));
+        Card card = cardResolver.resolve(userId, cardNumber);
+        BigDecimal delta = balance.subtract(card.getBalance());
         card.setBalance(balance);
+        balanceCache.evict(userId, card.getLast4());
+        if (delta.signum() != 0) {
+            cardTransactionRepository.append(List.of(new CardTransactionEntry(
+                    card.getCardId(), null, TransactionType.ADJUSTMENT, delta, balance)));
+        }
         return mapper.toCardDTO(card);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Карты читаются сразу в DTO конструкторной проекцией, без загрузки сущностей.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<CardDTO> getAllCards() {
-        return cardRepository.findAll().stream()
+        return cardRepository.findAllCardDTOs();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Поиск использует trigram-индексы, поэтому не требует полного просмотра таблицы карт.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CardDTO> searchCards(String query, int size) {
+        String term = LikePatterns.normalize(query);
+        return cardRepository.search(term, LikePatterns.contains(term), size).stream()
                 .map(mapper::toCardDTO)
                 .collect(Collectors.toList());
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>Страница читается по ключу (expiry_date, card_id) без count-запроса: признак
+     * следующей страницы определяется выборкой на одну строку больше. Баланс не индексируется,
+     * так как индекс на часто обновляемом столбце лишил бы переводы HOT-обновлений;
+     * условия по балансу проверяются на строках, отобранных по остальным условиям.
      */
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CardDTO> findCards(AdminCardFilter filter, String cursor, int size) {
+        Specification<Card> spec = CardSpecifications.matching(filter);
+        if (StringUtils.hasLength(cursor)) {
+            spec = spec.and(CardSpecifications.after(cursor));
+        }
+
+        Slice<Card> slice = cardRepository.findBy(spec,
+                query -> query.slice(PageRequest.of(0, size, CardSpecifications.KEYSET_SORT)));
+        List<CardDTO> items = slice.map(mapper::toCardDTO).getContent();
+        if (!slice.hasNext()) {
+            return new CursorPage<>(items, null);
+        }
+        return new CursorPage<>(items, CardSpecifications.nextCursor(slice.getContent().getLast()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
     public List<CardDTO> getUserCards(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(UserNotFoundException::new);
@@ -166,6 +231,7 @@ public class AdminServiceImpl implements AdminService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(mapper::toDTO)
@@ -174,12 +240,14 @@ public class AdminServiceImpl implements AdminService {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Пользователь читается сразу в DTO конструкторной проекцией, без загрузки сущности.
      */
     @Override
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long userId) {
-        User user = userRepository.findById(userId)
+        return userRepository.findDTOById(userId)
                 .orElseThrow(UserNotFoundException::new);
-        return mapper.toDTO(user);
     }
 
     /**
@@ -221,6 +289,7 @@ public class AdminServiceImpl implements AdminService {
         User existedUser = userRepository.findById(userId)
                 .orElseThrow(UserNotFoundException::new);
 
+        String currentEmail = existedUser.getEmail();
         String currentRefreshToken = existedUser.getRefreshToken();
         LocalDateTime currentRefreshTokenExpiry = existedUser.getRefreshTokenExpiry();
 
@@ -247,6 +316,7 @@ public class AdminServiceImpl implements AdminService {
         existedUser.setRefreshTokenExpiry(currentRefreshTokenExpiry);
 
         userRepository.save(existedUser);
+        principalCache.evict(currentEmail);
         return mapper.toDTO(existedUser);
     }
 
@@ -259,5 +329,6 @@ public class AdminServiceImpl implements AdminService {
         User user = userRepository.findById(userId)
                 .orElseThrow(UserNotFoundException::new);
         userRepository.delete(user);
+        principalCache.evict(user.getEmail());
     }
 }
@@ -0,0 +1,88 @@
+package com.example.bankcards.service.admin;
+
+import com.example.bankcards.dto.cards.CardIssueResult;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumbers;
+import com.example.bankcards.util.generatorNumbers.CardNumberGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Выпускает по одной карте каждому пользователю пакета в одной транзакции.
+ * <p>
+ * Пользователи пакета блокируются одним запросом, занятые последние 4 цифры номеров
+ * читаются вторым, после чего все карты вставляются пакетами JDBC. Пользователь,
+ * указанный несколько раз, получает несколько карт.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardIssuanceBatch {
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final CardNumberGenerator cardNumberGenerator;
+
+    /**
+     * Выпускает карты пакета.
+     *
+     * @param userIds идентификаторы пользователей
+     * @return результаты в том же порядке, что и идентификаторы
+     */
+    @Transactional
+    public List<CardIssueResult> issue(List<Long> userIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(userIds);
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllByIdForUpdate(distinctIds)) {
+            users.put(user.getUserId(), user);
+        }
+        Map<Long, Set<Short>> usedLast4 = new HashMap<>();
+        for (CardKey key : cardRepository.findCardKeysByUserIds(users.keySet())) {
+            usedLast4.computeIfAbsent(key.userId(), id -> new HashSet<>()).add(key.last4());
+        }
+
+        LocalDate expiryDate = LocalDate.now().plusYears(AdminServiceImpl.CARD_VALIDITY_YEARS);
+        List<Card> cards = new ArrayList<>(userIds.size());
+        List<CardIssueResult> results = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            User user = users.get(userId);
+            if (user == null) {
+                results.add(new CardIssueResult(userId, false, null, "User not found"));
+                continue;
+            }
+            Set<Short> used = usedLast4.computeIfAbsent(userId, id -> new HashSet<>());
+            try {
+                String cardNumber = cardNumberGenerator.generateNumber(used);
+                used.add(CardNumbers.last4Of(cardNumber));
+                cards.add(Card.builder()
+                        .cardNumber(cardNumber)
+                        .cardHolder(user.getName() + " " + user.getSurname())
+                        .expiryDate(expiryDate)
+                        .balance(BigDecimal.ZERO)
+                        .status(CardStatus.ACTIVE)
+                        .user(user)
+                        .build());
+                results.add(new CardIssueResult(userId, true, cardNumber, null));
+            } catch (CardOperationException e) {
+                results.add(new CardIssueResult(userId, false, null, e.getMessage()));
+            }
+        }
+        cardRepository.saveAll(cards);
+        return results;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bankcards.service.admin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Массовый выпуск карт для администратора.
+ */
+public interface CardIssuanceService {
+
+    /**
+     * Выпускает по одной карте каждому пользователю и пишет результаты в поток
+     * в формате NDJSON по мере фиксации пакетов.
+     *
+     * @param userIds идентификаторы пользователей; повторяющийся идентификатор получает несколько карт
+     * @param out поток ответа
+     * @throws IOException если запись в поток не удалась
+     */
+    void issueCards(List<Long> userIds, OutputStream out) throws IOException;
+
+    /**
+     * Читает идентификаторы пользователей из CSV: первый столбец каждой строки.
+     * Пустые строки и заголовок в первой строке пропускаются.
+     *
+     * @param csv содержимое CSV в UTF-8
+     * @return идентификаторы в порядке следования
+     * @throws IOException если чтение не удалось
+     * @throws com.example.bankcards.exception.cards.CardOperationException
+     *         если строка не содержит идентификатора, идентификаторов нет или их больше допустимого
+     */
+    List<Long> readUserIds(InputStream csv) throws IOException;
+}
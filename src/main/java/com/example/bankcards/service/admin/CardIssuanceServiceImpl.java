@@ -0,0 +1,97 @@
+package com.example.bankcards.service.admin;
+
+import com.example.bankcards.dto.cards.CardIssueRequest;
+import com.example.bankcards.dto.cards.CardIssueResult;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Идентификаторы обрабатываются пакетами по {@value #CHUNK_SIZE}, каждый пакет - в своей
+ * транзакции через {@link CardIssuanceBatch}. Размер пакета совпадает с
+ * hibernate.jdbc.batch_size, а идентификаторы карт берутся из последовательности
+ * с шагом 50, поэтому вставка пакета выполняется несколькими запросами JDBC.
+ * Результаты пакета отправляются клиенту после его фиксации.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CardIssuanceServiceImpl implements CardIssuanceService {
+    static final int CHUNK_SIZE = 500;
+
+    private final CardIssuanceBatch cardIssuanceBatch;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void issueCards(List<Long> userIds, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(CardIssueResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        long issued = 0;
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (int from = 0; from < userIds.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = userIds.subList(from, Math.min(from + CHUNK_SIZE, userIds.size()));
+                for (CardIssueResult result : cardIssuanceBatch.issue(chunk)) {
+                    writer.writeValue(generator, result);
+                    if (result.isSuccess()) {
+                        issued++;
+                    }
+                }
+                generator.flush();
+            }
+            if (!userIds.isEmpty()) {
+                generator.writeRaw('\n');
+            }
+        }
+        log.info("Issued {} cards for {} requested users", issued, userIds.size());
+    }
+
+    @Override
+    public List<Long> readUserIds(InputStream csv) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        List<Long> userIds = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comma = line.indexOf(',');
+            String value = (comma < 0 ? line : line.substring(0, comma)).strip();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (value.isEmpty()) {
+                continue;
+            }
+            try {
+                userIds.add(Long.valueOf(value));
+            } catch (NumberFormatException e) {
+                if (lineNumber == 1) {
+                    continue;
+                }
+                throw new CardOperationException("Invalid user id at line " + lineNumber);
+            }
+            if (userIds.size() > CardIssueRequest.MAX_SIZE) {
+                throw new CardOperationException("Too many user ids, maximum is " + CardIssueRequest.MAX_SIZE);
+            }
+        }
+        if (userIds.isEmpty()) {
+            throw new CardOperationException("No user ids provided");
+        }
+        return userIds;
+    }
+}
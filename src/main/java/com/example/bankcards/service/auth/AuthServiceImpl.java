@@ -10,6 +10,7 @@ import com.example.bankcards.exception.users.UserExistsException;
 import com.example.bankcards.exception.users.UserNotFoundException;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.parser.JwtParser;
+import com.example.bankcards.security.principal.PrincipalCache;
 import com.example.bankcards.security.service.JwtService;
 import com.example.bankcards.security.validator.JwtTokenValidator;
 import com.example.bankcards.util.generatorNumbers.CardNumberGenerator;
@@ -30,6 +31,7 @@ public class AuthServiceImpl implements AuthService {
     private final JwtService jwtService;
     private final JwtParser jwtParser;
     private final JwtTokenValidator jwtTokenValidator;
+    private final PrincipalCache principalCache;
 
     /**
      * {@inheritDoc}
@@ -77,11 +79,15 @@ public class AuthServiceImpl implements AuthService {
                     if (accessToken != null) jwtTokenValidator.revokeToken(accessToken);
                     user.setRefreshToken(null);
                     userRepository.save(user);
+                    principalCache.evict(user.getEmail());
                 });
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Отзывает прежние refresh и access токены: в режиме jwt.stateless-principal
+     * access токен иначе принимался бы до истечения срока действия.
      */
     @Override
     public UserLoginResponse refreshToken(String refreshToken) {
@@ -102,7 +108,7 @@ public class AuthServiceImpl implements AuthService {
             throw new InvalidTokenException("Discrepancy of refresh token!");
         }
 
-        if (!jwtTokenValidator.isTokenValid(refreshToken, user)) {
+        if (!jwtTokenValidator.isTokenValid(refreshToken, user.getEmail())) {
             if (user.getRefreshTokenExpiry() != null &&
                     user.getRefreshTokenExpiry().isBefore(LocalDateTime.now())) {
                 throw new InvalidTokenException("The refresh token is expired!");
@@ -111,6 +117,8 @@ public class AuthServiceImpl implements AuthService {
         }
         UserLoginResponse tokens = jwtService.generateTokenPair(user);
         jwtTokenValidator.revokeToken(refreshToken);
+        String accessToken = jwtService.extractAccessTokenFromRequest();
+        if (accessToken != null) jwtTokenValidator.revokeToken(accessToken);
         return tokens;
     }
 }
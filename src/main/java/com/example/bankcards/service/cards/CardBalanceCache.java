@@ -0,0 +1,122 @@
+package com.example.bankcards.service.cards;
+
+import com.example.bankcards.config.BalanceCacheConfig;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.service.cluster.ClusterEvent;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Кэш балансов карт в памяти узла по ключу (userId, last4).
+ * <p>
+ * Все операции, изменяющие баланс, статус или состав карт, вызывают {@link #evict},
+ * а удаление из кэша выполняется после завершения их транзакции. Чтобы значение,
+ * прочитанное из БД до фиксации, не попало в кэш после удаления, каждый ключ
+ * относится к одной из полос со счетчиком поколений: удаление увеличивает счетчик,
+ * а прочитанное значение остается в кэше, только если счетчик не изменился
+ * за время чтения. Поэтому после фиксации изменения на этом узле старый баланс
+ * не возвращается.
+ * <p>
+ * Удаления рассылаются другим узлам через {@link ClusterEventPublisher}; если уведомление
+ * потеряно, изменения, выполненные другими узлами, становятся видны не позже чем через {@code ttl}.
+ */
+@Component
+public class CardBalanceCache {
+    private static final int STRIPES = 1024;
+
+    private final Cache<CardKey, BigDecimal> balances;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final ClusterEventPublisher publisher;
+
+    public CardBalanceCache(BalanceCacheConfig config, ClusterEventPublisher publisher, MeterRegistry meterRegistry) {
+        this.publisher = publisher;
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, balances, "card-balance");
+        Gauge.builder("bank.cards.balance-cache.hit-ratio", balances, cache -> cache.stats().hitRate())
+                .description("Доля запросов баланса, обслуженных из кэша")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает баланс карты из кэша или загружает его.
+     *
+     * @param key адрес карты
+     * @param loader чтение баланса из БД
+     * @return баланс карты
+     */
+    public BigDecimal get(CardKey key, Supplier<BigDecimal> loader) {
+        BigDecimal cached = balances.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(key);
+        long generation = generations.get(stripe);
+        BigDecimal balance = loader.get();
+        balances.put(key, balance);
+        if (generations.get(stripe) != generation) {
+            balances.invalidate(key);
+        }
+        return balance;
+    }
+
+    /**
+     * Удаляет баланс карты из кэша после завершения текущей транзакции
+     * или сразу, если транзакции нет, и рассылает удаление другим узлам.
+     *
+     * @param userId идентификатор владельца
+     * @param last4 последние 4 цифры номера карты
+     */
+    public void evict(Long userId, Short last4) {
+        CardKey key = new CardKey(userId, last4);
+        publisher.publish(new ClusterEvent.BalanceChanged(key));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(key);
+            }
+        });
+    }
+
+    /**
+     * Удаляет баланс карты из кэша только на этом узле.
+     *
+     * @param key адрес карты
+     */
+    public void invalidate(CardKey key) {
+        generations.incrementAndGet(stripe(key));
+        balances.invalidate(key);
+    }
+
+    /**
+     * Очищает кэш этого узла.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        balances.invalidateAll();
+    }
+
+    private static int stripe(CardKey key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bankcards.service.cards;
+
+import com.example.bankcards.config.CardExpiryConfig;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Переводит карты с истекшим сроком действия в статус EXPIRED.
+ * <p>
+ * Карты обновляются порциями по {@code chunk-size}; каждая порция - отдельный запрос
+ * в собственной транзакции, между порциями выдерживается пауза. Карты, заблокированные
+ * переводами или другим узлом, запрос пропускает, поэтому порция может оказаться неполной
+ * и при необработанных картах. Обход продолжается до первой пустой порции: пропущенные карты
+ * попадают в одну из следующих порций после снятия блокировки, а если они заблокированы
+ * и тогда - в следующий запуск. Запуск на нескольких узлах одновременно безопасен.
+ */
+@Component
+@Slf4j
+public class CardExpirySweeper {
+    private final CardRepository cardRepository;
+    private final CardBalanceCache balanceCache;
+    private final CardExpiryConfig config;
+    private final Counter expiredCards;
+    private final Counter chunks;
+    private final Timer runDuration;
+
+    public CardExpirySweeper(CardRepository cardRepository,
+                             CardBalanceCache balanceCache,
+                             CardExpiryConfig config,
+                             MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.balanceCache = balanceCache;
+        this.config = config;
+        this.expiredCards = Counter.builder("bank.cards.expiry.expired")
+                .description("Cards moved to EXPIRED status")
+                .register(meterRegistry);
+        this.chunks = Counter.builder("bank.cards.expiry.chunks")
+                .description("Update statements executed by the expiry sweeper")
+                .register(meterRegistry);
+        this.runDuration = Timer.builder("bank.cards.expiry.run.duration")
+                .description("Time to expire all overdue cards")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Переводит в статус EXPIRED все активные карты со сроком действия раньше текущей даты.
+     *
+     * @return число обновленных карт
+     */
+    @Scheduled(cron = "${bank.card-expiry.cron:0 5 0 * * *}")
+    public long expireOverdueCards() {
+        return runDuration.record(() -> expireBefore(LocalDate.now()));
+    }
+
+    private long expireBefore(LocalDate today) {
+        long total = 0;
+        while (true) {
+            List<CardKey> expired = cardRepository.expireBatch(today, config.getChunkSize());
+            chunks.increment();
+            expiredCards.increment(expired.size());
+            expired.forEach(key -> balanceCache.evict(key.userId(), key.last4()));
+            total += expired.size();
+            if (expired.isEmpty()) {
+                break;
+            }
+            log.debug("Expired {} cards so far", total);
+            if (!pause()) {
+                log.warn("Card expiry interrupted after {} cards", total);
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Expired {} cards with expiry date before {}", total, today);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        if (config.getPause().isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(config.getPause());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
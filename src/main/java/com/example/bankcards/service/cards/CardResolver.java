@@ -0,0 +1,106 @@
+package com.example.bankcards.service.cards;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.cards.CardNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumbers;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Поиск карт пользователя по последним 4 цифрам номера.
+ * <p>
+ * Карты ищутся по индексу (user_id, last4) одним запросом без загрузки пользователя.
+ * Несуществующий пользователь неотличим от отсутствующей у него карты.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardResolver {
+    private final CardRepository cardRepository;
+
+    /**
+     * Находит карту пользователя.
+     *
+     * @param userId идентификатор владельца
+     * @param last4 последние 4 цифры номера карты
+     * @return найденная карта
+     * @throws CardNotFoundException если карта не найдена у пользователя
+     */
+    public Card resolve(Long userId, String last4) {
+        Short key = CardNumbers.parseLast4(last4);
+        if (key == null) {
+            throw notFound(last4);
+        }
+        return cardRepository.findByUser_UserIdAndLast4(userId, key)
+                .orElseThrow(() -> notFound(last4));
+    }
+
+    /**
+     * Читает баланс карты пользователя без загрузки сущности.
+     *
+     * @param userId идентификатор владельца
+     * @param last4 последние 4 цифры номера карты
+     * @return баланс карты
+     * @throws CardNotFoundException если карта не найдена у пользователя
+     */
+    public BigDecimal resolveBalance(Long userId, String last4) {
+        Short key = CardNumbers.parseLast4(last4);
+        if (key == null) {
+            throw notFound(last4);
+        }
+        return cardRepository.findBalance(userId, key)
+                .orElseThrow(() -> notFound(last4));
+    }
+
+    /**
+     * Находит обе карты перевода одним запросом.
+     *
+     * @param userId идентификатор владельца
+     * @param fromLast4 последние 4 цифры карты списания
+     * @param toLast4 последние 4 цифры карты зачисления
+     * @return карты списания и зачисления
+     * @throws CardNotFoundException если одна из карт не найдена у пользователя
+     */
+    public CardPair resolvePair(Long userId, String fromLast4, String toLast4) {
+        Short fromKey = CardNumbers.parseLast4(fromLast4);
+        if (fromKey == null) {
+            throw notFound(fromLast4);
+        }
+        Short toKey = CardNumbers.parseLast4(toLast4);
+        if (toKey == null) {
+            throw notFound(toLast4);
+        }
+
+        Map<Short, Card> cards = new HashMap<>();
+        for (Card card : cardRepository.findByUser_UserIdAndLast4In(userId, List.of(fromKey, toKey))) {
+            cards.putIfAbsent(card.getLast4(), card);
+        }
+        Card from = cards.get(fromKey);
+        if (from == null) {
+            throw notFound(fromLast4);
+        }
+        Card to = cards.get(toKey);
+        if (to == null) {
+            throw notFound(toLast4);
+        }
+        return new CardPair(from, to);
+    }
+
+    private static CardNotFoundException notFound(String last4) {
+        return new CardNotFoundException(CardNumbers.mask(last4));
+    }
+
+    /**
+     * Карты списания и зачисления перевода.
+     *
+     * @param from карта списания
+     * @param to карта зачисления
+     */
+    public record CardPair(Card from, Card to) {
+    }
+}
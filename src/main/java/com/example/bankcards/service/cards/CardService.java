@@ -1,6 +1,9 @@
 package com.example.bankcards.service.cards;
 
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.cards.CardTransactionDTO;
+import com.example.bankcards.exception.InvalidCursorException;
 import com.example.bankcards.exception.cards.CardNotFoundException;
 import com.example.bankcards.exception.cards.CardOperationException;
 import com.example.bankcards.exception.users.UserNotFoundException;
@@ -8,6 +11,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Сервис для работы с банковскими картами пользователей.
@@ -17,6 +21,7 @@ import java.math.BigDecimal;
  *   <li>Получения списка карт с возможностью поиска и пагинации</li>
  *   <li>Блокировки карт</li>
  *   <li>Проверки баланса</li>
+ *   <li>Просмотра истории движений по карте</li>
  * </ul>
  */
 public interface CardService {
@@ -31,12 +36,36 @@ public interface CardService {
      */
     Page<CardDTO> getUserCards(Long userId, String search, Pageable pageable);
 
+    /**
+     * Возвращает карты пользователя с курсорной пагинацией от поздних сроков действия к ранним.
+     * <p>
+     * В отличие от {@link #getUserCards(Long, String, Pageable)} не выполняет подсчет
+     * общего числа карт, а время получения страницы не зависит от ее номера.
+     *
+     * @param userId идентификатор пользователя
+     * @param search поисковый запрос (по номеру или имени держателя карты), может быть null
+     * @param cursor курсор из предыдущей страницы; null или пустая строка для первой страницы
+     * @param size размер страницы
+     * @return страница DTO карт с курсором следующей страницы
+     * @throws InvalidCursorException если курсор поврежден
+     */
+    CursorPage<CardDTO> scrollUserCards(Long userId, String search, String cursor, int size);
+
+    /**
+     * Ищет карты пользователя по подстроке имени держателя или последних 4 цифр номера.
+     *
+     * @param userId идентификатор пользователя
+     * @param query поисковый запрос
+     * @param size максимальное число карт
+     * @return DTO найденных карт, от наиболее релевантных к наименее
+     */
+    List<CardDTO> searchUserCards(Long userId, String query, int size);
+
     /**
      * Блокирует карту пользователя.
      *
      * @param userId идентификатор пользователя
      * @param cardNumber последние 4 цифры номера карты
-     * @throws UserNotFoundException если пользователь не найден
      * @throws CardNotFoundException если карта не найдена
      * @throws CardOperationException если карта уже заблокирована
      */
@@ -48,9 +77,20 @@ public interface CardService {
      * @param userId идентификатор пользователя
      * @param cardNumber последние 4 цифры номера карты
      * @return текущий баланс карты
-     * @throws UserNotFoundException если пользователь не найден
      * @throws CardNotFoundException если карта не найдена
      */
     BigDecimal getCardBalance(Long userId, String cardNumber);
-}
 
+    /**
+     * Возвращает движения по карте пользователя от новых к старым.
+     *
+     * @param userId идентификатор пользователя
+     * @param cardNumber последние 4 цифры номера карты
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @param size размер страницы
+     * @return страница движений с курсором следующей страницы
+     * @throws CardNotFoundException если карта не найдена
+     * @throws InvalidCursorException если курсор поврежден
+     */
+    CursorPage<CardTransactionDTO> getCardTransactions(Long userId, String cardNumber, String cursor, int size);
+}
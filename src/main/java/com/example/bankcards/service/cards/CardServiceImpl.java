@@ -1,24 +1,35 @@
 package com.example.bankcards.service.cards;
 
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.cards.CardTransactionDTO;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
-import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.cards.CardNotFoundException;
 import com.example.bankcards.exception.cards.CardOperationException;
-import com.example.bankcards.exception.users.UserNotFoundException;
+import com.example.bankcards.exception.InvalidCursorException;
+import com.example.bankcards.repository.CardKey;
 import com.example.bankcards.repository.CardRepository;
-import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.CardSpecifications;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.util.CardNumbers;
+import com.example.bankcards.util.KeysetCursor;
+import com.example.bankcards.util.LikePatterns;
 import com.example.bankcards.util.Mapper;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,16 +40,63 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CardServiceImpl implements CardService {
     private final CardRepository cardRepository;
-    private final UserRepository userRepository;
+    private final CardResolver cardResolver;
     private final Mapper mapper;
+    private final CardTransactionRepository cardTransactionRepository;
+    private final CardBalanceCache balanceCache;
 
     /**
      * {@inheritDoc}
+     *
+     * <p>Карты читаются сразу в DTO конструкторной проекцией, без загрузки сущностей
+     * в контекст персистентности.
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<CardDTO> getUserCards(Long userId, String search, Pageable pageable) {
+        String pattern = StringUtils.hasText(search)
+                ? LikePatterns.contains(LikePatterns.normalize(search))
+                : null;
+        return cardRepository.findCardDTOsByUser(userId, pattern, pageable);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Страница выбирается условием по ключу сортировки (expiry_date, card_id) последней
+     * карты предыдущей страницы и читается по индексу (user_id, expiry_date DESC, card_id DESC).
+     * Признак следующей страницы определяется выборкой на одну строку больше, без count-запроса.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CardDTO> scrollUserCards(Long userId, String search, String cursor, int size) {
         Specification<Card> spec = createCardSpecification(userId, search);
-        return cardRepository.findAll(spec, pageable).map(mapper::toCardDTO);
+        if (StringUtils.hasLength(cursor)) {
+            spec = spec.and(CardSpecifications.after(cursor));
+        }
+
+        Slice<Card> slice = cardRepository.findBy(spec,
+                query -> query.slice(PageRequest.of(0, size, CardSpecifications.KEYSET_SORT)));
+        List<CardDTO> items = slice.map(mapper::toCardDTO).getContent();
+        if (!slice.hasNext()) {
+            return new CursorPage<>(items, null);
+        }
+        return new CursorPage<>(items, CardSpecifications.nextCursor(slice.getContent().getLast()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Поиск выполняется нативным запросом по trigram-индексам на lower(card_holder)
+     * и последних 4 цифрах номера; результаты ранжируются по word_similarity.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CardDTO> searchUserCards(Long userId, String query, int size) {
+        String term = LikePatterns.normalize(query);
+        return cardRepository.searchByUser(userId, term, LikePatterns.contains(term), size).stream()
+                .map(mapper::toCardDTO)
+                .toList();
     }
 
     /**
@@ -50,14 +108,56 @@ public class CardServiceImpl implements CardService {
         validateCardBlock(card);
         card.setStatus(CardStatus.BLOCKED);
         cardRepository.save(card);
+        balanceCache.evict(userId, card.getLast4());
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>Баланс читается через {@link CardBalanceCache}; при попадании в кэш
+     * транзакция не открывается и запрос к БД не выполняется.
      */
     @Override
     public BigDecimal getCardBalance(Long userId, String cardNumber) {
-        return findUserCard(userId, cardNumber).getBalance();
+        Short last4 = CardNumbers.parseLast4(cardNumber);
+        if (last4 == null) {
+            return cardResolver.resolveBalance(userId, cardNumber);
+        }
+        return balanceCache.get(new CardKey(userId, last4), () -> cardResolver.resolveBalance(userId, cardNumber));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Запрашивается на одну запись больше размера страницы, чтобы без COUNT-запроса
+     * определить, есть ли следующая страница.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CardTransactionDTO> getCardTransactions(Long userId, String cardNumber,
+                                                              String cursor, int size) {
+        Card card = findUserCard(userId, cardNumber);
+
+        LocalDateTime createdAt = null;
+        Long transactionId = null;
+        if (cursor != null) {
+            String[] values = KeysetCursor.decode(cursor, 2);
+            try {
+                createdAt = LocalDateTime.parse(values[0]);
+                transactionId = Long.valueOf(values[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new InvalidCursorException();
+            }
+        }
+
+        List<CardTransactionDTO> items = cardTransactionRepository.findByCard(
+                card.getCardId(), createdAt, transactionId, size + 1);
+        if (items.size() <= size) {
+            return new CursorPage<>(items, null);
+        }
+        items = items.subList(0, size);
+        CardTransactionDTO last = items.getLast();
+        return new CursorPage<>(items, KeysetCursor.encode(last.getCreatedAt(), last.getTransactionId()));
     }
 
     /**
@@ -68,23 +168,26 @@ public class CardServiceImpl implements CardService {
      *   <li>Фильтр по идентификатору пользователя</li>
      *   <li>Поиск по номеру карты или имени держателя (если search не пустой)</li>
      * </ul>
+     * Поисковый запрос нормализуется и экранируется так же, как в {@link #getUserCards}.
      *
      * @param userId идентификатор пользователя
      * @param search поисковый запрос (может быть null или пустым)
      * @return спецификация для JPA-запроса
      */
     private Specification<Card> createCardSpecification(Long userId, String search) {
+        String searchTerm = StringUtils.hasText(search)
+                ? LikePatterns.contains(LikePatterns.normalize(search))
+                : null;
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            predicates.add(criteriaBuilder.equal(root.get("user").get("id"), userId));
+            predicates.add(criteriaBuilder.equal(root.get("user").get("userId"), userId));
 
-            if (StringUtils.hasText(search)) {
-                String searchTerm = "%" + search.toLowerCase() + "%";
+            if (searchTerm != null) {
                 predicates.add(
                         criteriaBuilder.or(
-                                criteriaBuilder.like(criteriaBuilder.lower(root.get("cardNumber")), searchTerm),
-                                criteriaBuilder.like(criteriaBuilder.lower(root.get("cardHolder")), searchTerm)
+                                criteriaBuilder.like(criteriaBuilder.lower(root.get("cardNumber")), searchTerm, '\\'),
+                                criteriaBuilder.like(criteriaBuilder.lower(root.get("cardHolder")), searchTerm, '\\')
                         )
                 );
             }
@@ -99,18 +202,10 @@ public class CardServiceImpl implements CardService {
      * @param userId идентификатор пользователя
      * @param cardNumber последние 4 цифры номера карты
      * @return найденная карта
-     * @throws UserNotFoundException если пользователь не найден
      * @throws CardNotFoundException если карта не найдена
      */
     private Card findUserCard(Long userId, String cardNumber) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-
-        //чтобы вводить последние 4 цифры
-        String formatCardNumber = "**** **** **** " + cardNumber;
-
-        return cardRepository.findByCardNumberAndUser_UserId(formatCardNumber, userId)
-                .orElseThrow(() -> new CardNotFoundException(formatCardNumber, user.getEmail()));
+        return cardResolver.resolve(userId, cardNumber);
     }
 
     /**
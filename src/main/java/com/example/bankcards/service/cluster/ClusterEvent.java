@@ -0,0 +1,77 @@
+package com.example.bankcards.service.cluster;
+
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.util.TokenFingerprint;
+
+/**
+ * Событие, которое нужно применить на всех узлах.
+ * <p>
+ * Событие передается одной строкой: тип и поля через пробел.
+ */
+public sealed interface ClusterEvent {
+
+    /**
+     * Записывает событие в строку для уведомления.
+     *
+     * @return строка без перевода строки
+     */
+    String encode();
+
+    /**
+     * Разбирает строку, полученную из {@link #encode()}.
+     *
+     * @param line строка события
+     * @return событие
+     * @throws IllegalArgumentException если строка некорректна
+     */
+    static ClusterEvent decode(String line) {
+        String[] parts = line.split(" ", 3);
+        try {
+            return switch (parts[0]) {
+                case "T" -> new TokenRevoked(TokenFingerprint.fromHex(parts[1]), Long.parseLong(parts[2]));
+                case "P" -> new PrincipalChanged(line.substring(2));
+                case "B" -> new BalanceChanged(new CardKey(Long.parseLong(parts[1]), Short.parseShort(parts[2])));
+                default -> throw new IllegalArgumentException("Unknown cluster event: " + line);
+            };
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cluster event: " + line, e);
+        }
+    }
+
+    /**
+     * Токен отозван.
+     *
+     * @param key ключ токена
+     * @param expiresAtMillis время истечения токена
+     */
+    record TokenRevoked(TokenFingerprint key, long expiresAtMillis) implements ClusterEvent {
+        @Override
+        public String encode() {
+            return "T " + key.toHex() + " " + expiresAtMillis;
+        }
+    }
+
+    /**
+     * Изменены данные пользователя, хранящиеся в кэше аутентифицированных пользователей.
+     *
+     * @param email email пользователя
+     */
+    record PrincipalChanged(String email) implements ClusterEvent {
+        @Override
+        public String encode() {
+            return "P " + email;
+        }
+    }
+
+    /**
+     * Изменен баланс, статус или состав карт.
+     *
+     * @param key адрес карты
+     */
+    record BalanceChanged(CardKey key) implements ClusterEvent {
+        @Override
+        public String encode() {
+            return "B " + key.userId() + " " + key.last4();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.bankcards.service.cluster;
+
+import com.example.bankcards.config.ClusterConfig;
+import com.example.bankcards.security.principal.PrincipalCache;
+import com.example.bankcards.security.revocation.TokenRevocationService;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Принимает события других узлов через PostgreSQL LISTEN.
+ * <p>
+ * Слушает канал на отдельном соединении вне пула. После каждого подключения, в том числе
+ * повторного после обрыва, узел очищает свои кэши пользователей и балансов и дочитывает
+ * отзывы токенов из таблицы, так как уведомления, отправленные без соединения, потеряны.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.cluster", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ClusterEventListener {
+    private final DataSourceProperties dataSourceProperties;
+    private final ClusterConfig config;
+    private final ClusterEventPublisher publisher;
+    private final TokenRevocationService revocations;
+    private final PrincipalCache principalCache;
+    private final CardBalanceCache balanceCache;
+    private final Counter received;
+    private final Counter reconnects;
+    private volatile Thread listener;
+
+    public ClusterEventListener(DataSourceProperties dataSourceProperties,
+                                ClusterConfig config,
+                                ClusterEventPublisher publisher,
+                                TokenRevocationService revocations,
+                                PrincipalCache principalCache,
+                                CardBalanceCache balanceCache,
+                                MeterRegistry meterRegistry) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.config = config;
+        this.publisher = publisher;
+        this.revocations = revocations;
+        this.principalCache = principalCache;
+        this.balanceCache = balanceCache;
+        this.received = Counter.builder("bank.cluster.events.received")
+                .description("Events received from other nodes")
+                .register(meterRegistry);
+        this.reconnects = Counter.builder("bank.cluster.listener.connects")
+                .description("LISTEN connections opened, including reconnects")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает прием событий после старта приложения, когда миграции уже применены.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::run, "cluster-event-listener");
+        thread.setDaemon(true);
+        listener = thread;
+        thread.start();
+    }
+
+    /**
+     * Останавливает прием событий.
+     */
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = listener;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Применяет события из одного уведомления. События этого же узла пропускаются:
+     * они уже применены при публикации.
+     *
+     * @param payload уведомление: идентификатор узла и события по одному в строке
+     * @return число примененных событий
+     */
+    public int handle(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines[0].equals(publisher.getNodeId())) {
+            return 0;
+        }
+        int applied = 0;
+        for (int i = 1; i < lines.length; i++) {
+            ClusterEvent event;
+            try {
+                event = ClusterEvent.decode(lines[i]);
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping cluster event: {}", e.getMessage());
+                continue;
+            }
+            switch (event) {
+                case ClusterEvent.TokenRevoked revoked -> revocations.apply(revoked.key(), revoked.expiresAtMillis());
+                case ClusterEvent.PrincipalChanged changed -> principalCache.invalidate(changed.email());
+                case ClusterEvent.BalanceChanged changed -> balanceCache.invalidate(changed.key());
+            }
+            applied++;
+        }
+        received.increment(applied);
+        return applied;
+    }
+
+    /**
+     * Очищает локальные кэши и дочитывает отзывы после (пере)подключения.
+     */
+    public void resynchronize() {
+        principalCache.invalidateAll();
+        balanceCache.invalidateAll();
+        revocations.catchUp();
+    }
+
+    private void run() {
+        int pollTimeout = (int) config.getPollTimeout().toMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + config.getChannel());
+                }
+                reconnects.increment();
+                log.info("Listening for cluster events on channel {}", config.getChannel());
+                resynchronize();
+
+                while (!Thread.currentThread().isInterrupted()) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeout);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Cluster event listener disconnected, reconnecting in {}", config.getReconnectDelay(), e);
+                try {
+                    Thread.sleep(config.getReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
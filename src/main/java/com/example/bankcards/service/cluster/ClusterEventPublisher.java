@@ -0,0 +1,169 @@
+package com.example.bankcards.service.cluster;
+
+import com.example.bankcards.config.ClusterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рассылает события другим узлам через PostgreSQL NOTIFY.
+ * <p>
+ * Событие ставится в очередь после фиксации текущей транзакции (или сразу, если
+ * транзакции нет). Отдельный поток раз в {@code flush-interval} собирает накопленные
+ * события без повторов в уведомления до {@link #MAX_PAYLOAD_LENGTH} символов и отправляет
+ * их вне бизнес-транзакций: NOTIFY берет общую блокировку очереди уведомлений при COMMIT,
+ * и отправка из каждой транзакции перевода выстроила бы фиксации в одну очередь.
+ * <p>
+ * Первая строка уведомления - идентификатор узла, чтобы узел пропускал свои события.
+ * Потерянные уведомления восполняются дочитыванием таблицы отзывов, а кэши
+ * ограничены своим {@code ttl}.
+ */
+@Component
+@Slf4j
+public class ClusterEventPublisher {
+    /** Предел полезной нагрузки NOTIFY - 8000 байт; остается запас на многобайтовые символы */
+    static final int MAX_PAYLOAD_LENGTH = 4000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClusterConfig config;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Queue<ClusterEvent> pending = new ConcurrentLinkedQueue<>();
+    private final Counter sent;
+    private final Counter failed;
+    private final Thread flusher;
+
+    public ClusterEventPublisher(JdbcTemplate jdbcTemplate, ClusterConfig config, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.sent = Counter.builder("bank.cluster.events.sent")
+                .description("Events sent to other nodes")
+                .register(meterRegistry);
+        this.failed = Counter.builder("bank.cluster.events.failed")
+                .description("Events dropped because NOTIFY failed")
+                .register(meterRegistry);
+        if (config.isEnabled()) {
+            this.flusher = new Thread(this::run, "cluster-event-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Идентификатор этого узла в уведомлениях.
+     *
+     * @return идентификатор узла
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Ставит событие в очередь рассылки после фиксации текущей транзакции
+     * или сразу, если транзакции нет. При откате транзакции событие не отправляется.
+     *
+     * @param event событие
+     */
+    public void publish(ClusterEvent event) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.add(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.add(event);
+            }
+        });
+    }
+
+    /**
+     * Отправляет накопленные события.
+     *
+     * @return число отправленных уведомлений
+     */
+    public int flush() {
+        Set<String> lines = new LinkedHashSet<>();
+        ClusterEvent event;
+        while ((event = pending.poll()) != null) {
+            lines.add(event.encode());
+        }
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (String line : lines) {
+            if (payload.length() + 1 + line.length() > MAX_PAYLOAD_LENGTH && payload.length() > nodeId.length()) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(nodeId);
+            }
+            payload.append('\n').append(line);
+        }
+        payloads.add(payload.toString());
+
+        try {
+            for (String notification : payloads) {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+                }, config.getChannel(), notification);
+            }
+            sent.increment(lines.size());
+        } catch (DataAccessException e) {
+            failed.increment(lines.size());
+            log.warn("Failed to notify other nodes about {} events", lines.size(), e);
+        }
+        return payloads.size();
+    }
+
+    /**
+     * Останавливает поток рассылки, отправив оставшиеся события.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void run() {
+        long intervalMillis = Math.max(1, config.getFlushInterval().toMillis());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Cluster event flush failed", e);
+            }
+        }
+    }
+}
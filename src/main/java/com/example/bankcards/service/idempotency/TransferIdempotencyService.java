@@ -0,0 +1,34 @@
+package com.example.bankcards.service.idempotency;
+
+import com.example.bankcards.dto.cards.TransferRequest;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.exception.transfers.IdempotencyKeyInUseException;
+import com.example.bankcards.exception.transfers.IdempotencyKeyMismatchException;
+import com.example.bankcards.service.transfers.TransferCompletion;
+
+import java.util.function.Function;
+
+/**
+ * Сервис идемпотентного выполнения переводов по заголовку Idempotency-Key.
+ */
+public interface TransferIdempotencyService {
+    /**
+     * Выполняет перевод не более одного раза для пары (пользователь, ключ).
+     * <p>
+     * Повторный запрос с тем же ключом получает сохраненный результат без обращения к картам.
+     * Параллельный дубликат ожидает завершения исходного запроса.
+     * <p>
+     * Результат сохраняется действием {@link TransferCompletion}, которое {@code transfer}
+     * должен выполнить в транзакции перевода: перевод и результат фиксируются вместе.
+     *
+     * @param userId идентификатор пользователя
+     * @param idempotencyKey значение заголовка Idempotency-Key
+     * @param request параметры перевода
+     * @param transfer выполнение перевода с действием, сохраняющим результат
+     * @return результат перевода (исходный или сохраненный)
+     * @throws IdempotencyKeyMismatchException если ключ уже использован с другими параметрами
+     * @throws IdempotencyKeyInUseException если исходный запрос не завершился за время ожидания
+     */
+    TransferResponse execute(Long userId, String idempotencyKey, TransferRequest request,
+                             Function<TransferCompletion, TransferResponse> transfer);
+}
@@ -0,0 +1,253 @@
+package com.example.bankcards.service.idempotency;
+
+import com.example.bankcards.config.IdempotencyConfig;
+import com.example.bankcards.dto.cards.TransferRequest;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.entity.IdempotencyRecord;
+import com.example.bankcards.exception.transfers.IdempotencyKeyInUseException;
+import com.example.bankcards.exception.transfers.IdempotencyKeyMismatchException;
+import com.example.bankcards.repository.IdempotencyRecordRepository;
+import com.example.bankcards.service.transfers.TransferCompletion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Реализация {@link TransferIdempotencyService}.
+ * <p>
+ * Уровни защиты от повторного выполнения:
+ * <ul>
+ *   <li>Ограниченный кэш завершенных результатов в памяти - повтор не обращается к БД</li>
+ *   <li>Карта выполняющихся запросов - параллельный дубликат на этом узле ждет исходный запрос</li>
+ *   <li>Таблица transfer_idempotency_keys - ключ занимается до выполнения перевода,
+ *       поэтому дубликат на другом узле не выполнит перевод второй раз</li>
+ * </ul>
+ * Ключ занимается на короткий срок {@code lease-timeout}. Результат записывается в транзакции
+ * перевода, и только тогда срок хранения продлевается до {@code ttl}. Если запрос упал
+ * после занятия ключа, ключ освобождается по истечении срока, а не через {@code ttl}.
+ * Если срок истек и ключ занял другой запрос, сохранение результата не проходит
+ * и перевод откатывается.
+ * <p>
+ * Результат сохраняется только для успешных переводов: после ошибки ключ освобождается
+ * и запрос можно повторить.
+ */
+@Service
+@Slf4j
+public class TransferIdempotencyServiceImpl implements TransferIdempotencyService {
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyConfig config;
+    private final Cache<IdempotencyRecord.Key, StoredResponse> completed;
+    private final ConcurrentMap<IdempotencyRecord.Key, CompletableFuture<StoredResponse>> inFlight =
+            new ConcurrentHashMap<>();
+
+    public TransferIdempotencyServiceImpl(IdempotencyRecordRepository repository,
+                                          ObjectMapper objectMapper,
+                                          IdempotencyConfig config) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(config.getCacheSize())
+                .expireAfterWrite(config.getTtl())
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TransferResponse execute(Long userId, String idempotencyKey, TransferRequest request,
+                                    Function<TransferCompletion, TransferResponse> transfer) {
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(userId, idempotencyKey);
+        String requestHash = hash(request);
+
+        StoredResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return replay(cached, requestHash, idempotencyKey);
+        }
+
+        CompletableFuture<StoredResponse> own = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            return replay(await(existing, idempotencyKey), requestHash, idempotencyKey);
+        }
+
+        try {
+            StoredResponse result = executeOnce(key, requestHash, transfer);
+            own.complete(result);
+            return replay(result, requestHash, idempotencyKey);
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Удаляет истекшие записи из таблицы ключей.
+     */
+    @Scheduled(fixedDelayString = "${bank.idempotency.cleanup-interval-ms:60000}")
+    public void deleteExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    /**
+     * Занимает ключ и выполняет перевод. Если ключ занят другим запросом,
+     * ожидает его результат, опрашивая таблицу ключей.
+     *
+     * @param key ключ идемпотентности
+     * @param requestHash хэш параметров перевода
+     * @param transfer выполнение перевода
+     * @return сохраненный результат
+     */
+    private StoredResponse executeOnce(IdempotencyRecord.Key key, String requestHash,
+                                       Function<TransferCompletion, TransferResponse> transfer) {
+        long deadline = System.nanoTime() + config.getWaitTimeout().toNanos();
+        while (true) {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            if (repository.claim(key.getUserId(), key.getIdempotencyKey(), requestHash,
+                    now, now.plus(config.getLeaseTimeout())) > 0) {
+                return executeClaimed(key, requestHash, now, transfer);
+            }
+
+            Optional<IdempotencyRecord> record = repository.findById(key);
+            if (record.isPresent()) {
+                if (!record.get().getRequestHash().equals(requestHash)) {
+                    throw new IdempotencyKeyMismatchException(key.getIdempotencyKey());
+                }
+                if (record.get().getResponse() != null) {
+                    StoredResponse stored = new StoredResponse(requestHash, read(record.get().getResponse()));
+                    completed.put(key, stored);
+                    return stored;
+                }
+            }
+
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyKeyInUseException(key.getIdempotencyKey());
+            }
+            sleep(key.getIdempotencyKey());
+        }
+    }
+
+    /**
+     * Выполняет перевод по занятому ключу. Результат сохраняется в транзакции перевода.
+     *
+     * @param key ключ идемпотентности
+     * @param requestHash хэш параметров перевода
+     * @param claimedAt момент занятия ключа
+     * @param transfer выполнение перевода
+     * @return сохраненный результат
+     */
+    private StoredResponse executeClaimed(IdempotencyRecord.Key key, String requestHash, LocalDateTime claimedAt,
+                                          Function<TransferCompletion, TransferResponse> transfer) {
+        TransferResponse response;
+        try {
+            response = transfer.apply(result -> complete(key, claimedAt, result));
+        } catch (RuntimeException e) {
+            repository.release(key.getUserId(), key.getIdempotencyKey(), claimedAt);
+            throw e;
+        }
+        StoredResponse stored = new StoredResponse(requestHash, response);
+        completed.put(key, stored);
+        return stored;
+    }
+
+    private void complete(IdempotencyRecord.Key key, LocalDateTime claimedAt, TransferResponse response) {
+        int updated = repository.complete(key.getUserId(), key.getIdempotencyKey(), claimedAt,
+                write(response), LocalDateTime.now().plus(config.getTtl()));
+        if (updated == 0) {
+            throw new IdempotencyKeyInUseException(key.getIdempotencyKey());
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> future, String idempotencyKey) {
+        try {
+            return future.get(config.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInUseException(idempotencyKey);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException(idempotencyKey);
+        }
+    }
+
+    private TransferResponse replay(StoredResponse stored, String requestHash, String idempotencyKey) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(idempotencyKey);
+        }
+        return stored.response();
+    }
+
+    private void sleep(String idempotencyKey) {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException(idempotencyKey);
+        }
+    }
+
+    private String hash(TransferRequest request) {
+        String canonical = request.getFromCardNumber() + "|" + request.getToCardNumber() + "|"
+                + request.getAmount().stripTrailingZeros().toPlainString();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String write(TransferResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize transfer response", e);
+        }
+    }
+
+    private TransferResponse read(String response) {
+        try {
+            return objectMapper.readValue(response, TransferResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize transfer response", e);
+        }
+    }
+
+    /**
+     * Результат перевода вместе с хэшем параметров, для которых он получен.
+     */
+    private record StoredResponse(String requestHash, TransferResponse response) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.bankcards.service.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Слушатель повторов {@link RetryOnConflict}, публикующий метрики конкуренции за карты.
+ * <p>
+ * Счетчики с тегом {@code operation}:
+ * <ul>
+ *   <li>{@code bank.cards.contention.conflicts} - попытки, завершившиеся конфликтом</li>
+ *   <li>{@code bank.cards.contention.retries} - повторные попытки после конфликта</li>
+ *   <li>{@code bank.cards.contention.give-ups} - операции, исчерпавшие число попыток</li>
+ * </ul>
+ * Карта не попадает в теги, чтобы число временных рядов не росло вместе с числом карт.
+ * "Горячие" счета определяются по предупреждению в журнале, которое пишется при отказе
+ * с ключом карты (userId:последние 4 цифры).
+ */
+@Component(CardContentionRetryListener.BEAN_NAME)
+@RequiredArgsConstructor
+@Slf4j
+public class CardContentionRetryListener implements RetryListener {
+    public static final String BEAN_NAME = "cardContentionRetryListener";
+
+    private static final String CONFLICTS_ATTRIBUTE = "bank.cards.contention.conflicts";
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Учитывает попытку, завершившуюся конфликтом параллельных изменений.
+     */
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                 Throwable throwable) {
+        if (!(throwable instanceof ConcurrencyFailureException)) {
+            return;
+        }
+        Integer conflicts = (Integer) context.getAttribute(CONFLICTS_ATTRIBUTE);
+        context.setAttribute(CONFLICTS_ATTRIBUTE, conflicts == null ? 1 : conflicts + 1);
+        increment("bank.cards.contention.conflicts", callback, 1);
+    }
+
+    /**
+     * Подводит итог операции: число повторов и отказ после исчерпания попыток.
+     */
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                               Throwable throwable) {
+        Integer conflicts = (Integer) context.getAttribute(CONFLICTS_ATTRIBUTE);
+        if (conflicts == null) {
+            return;
+        }
+        boolean gaveUp = throwable instanceof ConcurrencyFailureException;
+        increment("bank.cards.contention.retries", callback, gaveUp ? conflicts - 1 : conflicts);
+        if (gaveUp) {
+            log.warn("Giving up {} on card {} after {} conflicts",
+                    operation(callback), card(callback), conflicts);
+            increment("bank.cards.contention.give-ups", callback, 1);
+        }
+    }
+
+    private <T, E extends Throwable> void increment(String name, RetryCallback<T, E> callback, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter(name, "operation", operation(callback)).increment(amount);
+        }
+    }
+
+    private <T, E extends Throwable> String operation(RetryCallback<T, E> callback) {
+        if (callback instanceof MethodInvocationRetryCallback<?, ?> invocationCallback) {
+            return invocationCallback.getInvocation().getMethod().getName();
+        }
+        return UNKNOWN;
+    }
+
+    private <T, E extends Throwable> String card(RetryCallback<T, E> callback) {
+        if (callback instanceof MethodInvocationRetryCallback<?, ?> invocationCallback) {
+            Object[] args = invocationCallback.getInvocation().getArguments();
+            if (args.length >= 2) {
+                return args[0] + ":" + args[1];
+            }
+        }
+        return UNKNOWN;
+    }
+}
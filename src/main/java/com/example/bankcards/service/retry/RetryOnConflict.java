@@ -0,0 +1,39 @@
+package com.example.bankcards.service.retry;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повторяет операцию с картой при конфликте параллельных изменений.
+ * <p>
+ * Повтор выполняется снаружи транзакции метода, поэтому каждая попытка
+ * перечитывает карту в новой транзакции. Задержка между попытками растет
+ * экспоненциально со случайным разбросом, число попыток и задержки
+ * настраиваются свойствами {@code bank.retry.*}.
+ * <p>
+ * Первые два аргумента аннотированного метода должны быть идентификатором
+ * пользователя и последними 4 цифрами номера карты - по ним
+ * {@link CardContentionRetryListener} учитывает конфликты по картам.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${bank.retry.max-attempts:3}",
+        backoff = @Backoff(
+                delayExpression = "${bank.retry.initial-delay-ms:20}",
+                maxDelayExpression = "${bank.retry.max-delay-ms:500}",
+                multiplierExpression = "${bank.retry.multiplier:2}",
+                random = true),
+        listeners = CardContentionRetryListener.BEAN_NAME
+)
+public @interface RetryOnConflict {
+}
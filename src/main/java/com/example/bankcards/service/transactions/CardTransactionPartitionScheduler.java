@@ -0,0 +1,42 @@
+package com.example.bankcards.service.transactions;
+
+import com.example.bankcards.repository.CardTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Заранее создает месячные секции журнала card_transactions.
+ * <p>
+ * Секции текущего и следующего месяца создаются при старте и ежедневно, поэтому записи
+ * не попадают в секцию по умолчанию. Если секция по умолчанию уже содержит строки
+ * за этот месяц, PostgreSQL не даст создать секцию - ошибка пишется в лог.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CardTransactionPartitionScheduler {
+    private static final int MONTHS_AHEAD = 1;
+
+    private final CardTransactionRepository cardTransactionRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${bank.transactions.partition-cron:0 0 3 * * *}")
+    public void createPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= MONTHS_AHEAD; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                cardTransactionRepository.createPartition(month);
+            } catch (DataAccessException e) {
+                log.error("Cannot create card_transactions partition for {}", month, e);
+            }
+        }
+    }
+}
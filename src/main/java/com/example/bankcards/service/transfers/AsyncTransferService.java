@@ -0,0 +1,35 @@
+package com.example.bankcards.service.transfers;
+
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.dto.cards.TransferStatusDTO;
+import com.example.bankcards.exception.transfers.TransferNotFoundException;
+import com.example.bankcards.exception.transfers.TransferQueueFullException;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Асинхронное выполнение переводов: запрос принимается сразу,
+ * а результат запрашивается по идентификатору перевода.
+ */
+public interface AsyncTransferService {
+    /**
+     * Принимает перевод к выполнению.
+     *
+     * @param userId идентификатор пользователя, выполняющего перевод
+     * @param transfer выполнение перевода
+     * @return статус принятого перевода
+     * @throws TransferQueueFullException если принято слишком много невыполненных переводов
+     */
+    TransferStatusDTO submit(Long userId, Supplier<TransferResponse> transfer);
+
+    /**
+     * Возвращает статус перевода.
+     *
+     * @param userId идентификатор пользователя
+     * @param transferId идентификатор перевода
+     * @return статус перевода
+     * @throws TransferNotFoundException если перевод не найден у пользователя или статус уже удален
+     */
+    TransferStatusDTO getStatus(Long userId, UUID transferId);
+}
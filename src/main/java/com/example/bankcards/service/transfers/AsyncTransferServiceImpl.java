@@ -0,0 +1,136 @@
+package com.example.bankcards.service.transfers;
+
+import com.example.bankcards.config.TransferEngineConfig;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.dto.cards.TransferStatus;
+import com.example.bankcards.dto.cards.TransferStatusDTO;
+import com.example.bankcards.exception.transfers.TransferNotFoundException;
+import com.example.bankcards.exception.transfers.TransferQueueFullException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Реализация {@link AsyncTransferService} на виртуальных потоках.
+ * <p>
+ * Каждый принятый перевод выполняется в отдельном виртуальном потоке, поэтому поток
+ * Tomcat освобождается сразу после ответа 202. Число принятых, но не выполненных переводов
+ * ограничено семафором: при переполнении новый перевод отклоняется, а не ставится в очередь
+ * без ограничений. Параллельность работы с БД дополнительно ограничена пулом соединений.
+ * <p>
+ * Статусы хранятся в памяти узла, принявшего перевод. Невыполненные переводы находятся
+ * в отдельной карте, размер которой ограничен тем же семафором, поэтому их статус
+ * не вытесняется. Результат переносится в ограниченный кэш и удаляется
+ * через {@code statusTtl} или при вытеснении. Для защиты от повторного выполнения при переотправке
+ * следует использовать заголовок Idempotency-Key.
+ */
+@Service
+@Slf4j
+public class AsyncTransferServiceImpl implements AsyncTransferService {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore admission;
+    private final ConcurrentMap<UUID, AsyncTransfer> pending = new ConcurrentHashMap<>();
+    private final Cache<UUID, AsyncTransfer> transfers;
+
+    public AsyncTransferServiceImpl(TransferEngineConfig engineConfig) {
+        TransferEngineConfig.Async config = engineConfig.getAsync();
+        this.admission = new Semaphore(config.getMaxInFlight());
+        this.transfers = Caffeine.newBuilder()
+                .maximumSize(config.getStatusCacheSize())
+                .expireAfterWrite(config.getStatusTtl())
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TransferStatusDTO submit(Long userId, Supplier<TransferResponse> transfer) {
+        if (!admission.tryAcquire()) {
+            throw new TransferQueueFullException();
+        }
+        UUID transferId = UUID.randomUUID();
+        AsyncTransfer accepted = new AsyncTransfer(userId, TransferStatus.PENDING, null, null);
+        pending.put(transferId, accepted);
+        try {
+            executor.execute(() -> run(transferId, userId, transfer));
+        } catch (RuntimeException e) {
+            pending.remove(transferId);
+            admission.release();
+            throw new TransferQueueFullException();
+        }
+        return accepted.toDTO(transferId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TransferStatusDTO getStatus(Long userId, UUID transferId) {
+        AsyncTransfer transfer = pending.get(transferId);
+        if (transfer == null) {
+            transfer = transfers.getIfPresent(transferId);
+        }
+        if (transfer == null || !transfer.userId().equals(userId)) {
+            throw new TransferNotFoundException(transferId);
+        }
+        return transfer.toDTO(transferId);
+    }
+
+    /**
+     * Останавливает прием переводов и ждет завершения уже принятых.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+
+    private void run(UUID transferId, Long userId, Supplier<TransferResponse> transfer) {
+        AsyncTransfer finished = new AsyncTransfer(userId, TransferStatus.FAILED, null, "An unexpected error occurred");
+        try {
+            TransferResponse response = transfer.get();
+            finished = new AsyncTransfer(userId, TransferStatus.COMPLETED, response, null);
+        } catch (RuntimeException e) {
+            if (isRejection(e)) {
+                finished = new AsyncTransfer(userId, TransferStatus.REJECTED, null, e.getMessage());
+            } else {
+                log.error("Async transfer {} failed", transferId, e);
+            }
+        } finally {
+            // Статус попадает в кэш до удаления из карты, чтобы getStatus не увидел промежуток без записи
+            transfers.put(transferId, finished);
+            pending.remove(transferId);
+            admission.release();
+        }
+    }
+
+    /**
+     * Отказ по вине запроса (ошибка 4xx) сообщается клиенту как есть,
+     * остальные ошибки скрываются так же, как в синхронном API.
+     */
+    private boolean isRejection(RuntimeException e) {
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return status != null && status.code().is4xxClientError();
+    }
+
+    /**
+     * Состояние перевода в хранилище статусов.
+     */
+    private record AsyncTransfer(Long userId, TransferStatus status, TransferResponse response, String error) {
+        TransferStatusDTO toDTO(UUID transferId) {
+            return new TransferStatusDTO(transferId, status, response, error);
+        }
+    }
+}
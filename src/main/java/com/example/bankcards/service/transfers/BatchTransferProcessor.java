@@ -0,0 +1,158 @@
+package com.example.bankcards.service.transfers;
+
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.exception.cards.CardNotFoundException;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardState;
+import com.example.bankcards.repository.CardTransactionEntry;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.util.CardNumbers;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Выполняет пакет переводов в одной транзакции.
+ * <p>
+ * Алгоритм:
+ * <ol>
+ *   <li>Все карты пакета блокируются одним запросом в порядке возрастания card_id</li>
+ *   <li>Команды проверяются по очереди на заблокированных снимках с учетом уже
+ *       примененных команд пакета - правила те же, что и у одиночного перевода</li>
+ *   <li>Итоговые изменения балансов и записи журнала движений записываются пакетами JDBC</li>
+ *   <li>Для выполненных команд вызываются их {@link TransferCommand#completion() действия};
+ *       исключение в действии откатывает весь пакет</li>
+ * </ol>
+ * Отклоненная команда не влияет на остальные: для нее возвращается причина отказа.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchTransferProcessor {
+    private final CardRepository cardRepository;
+    private final CardTransactionRepository cardTransactionRepository;
+    private final CardBalanceCache balanceCache;
+
+    /**
+     * Выполняет пакет переводов.
+     *
+     * @param commands команды в порядке выполнения
+     * @return результаты в том же порядке, что и команды
+     */
+    @Transactional
+    public List<TransferOutcome> process(List<TransferCommand> commands) {
+        Set<CardKey> keys = new LinkedHashSet<>();
+        for (TransferCommand command : commands) {
+            addKey(keys, command.userId(), command.fromCardNumber());
+            addKey(keys, command.userId(), command.toCardNumber());
+        }
+
+        Map<CardKey, CardState> cards = new HashMap<>();
+        for (CardState card : cardRepository.lockCards(keys)) {
+            cards.put(new CardKey(card.userId(), card.last4()), card);
+        }
+
+        Batch batch = new Batch(cards);
+        List<TransferOutcome> outcomes = new ArrayList<>(commands.size());
+        for (TransferCommand command : commands) {
+            try {
+                outcomes.add(TransferOutcome.completed(batch.apply(command)));
+            } catch (CardOperationException | CardNotFoundException e) {
+                outcomes.add(TransferOutcome.rejected(e));
+            }
+        }
+
+        batch.deltas.values().removeIf(delta -> delta.signum() == 0);
+        cardRepository.applyBalanceDeltas(batch.deltas);
+        for (CardState card : cards.values()) {
+            if (batch.deltas.containsKey(card.cardId())) {
+                balanceCache.evict(card.userId(), card.last4());
+            }
+        }
+        cardTransactionRepository.append(batch.entries);
+        for (int i = 0; i < commands.size(); i++) {
+            if (outcomes.get(i).isCompleted()) {
+                commands.get(i).completion().inTransaction(outcomes.get(i).response());
+            }
+        }
+        return outcomes;
+    }
+
+    private static void addKey(Set<CardKey> keys, Long userId, String cardNumber) {
+        Short last4 = CardNumbers.parseLast4(cardNumber);
+        if (last4 != null) {
+            keys.add(new CardKey(userId, last4));
+        }
+    }
+
+    /**
+     * Состояние пакета: текущие балансы заблокированных карт и накопленные изменения.
+     */
+    private class Batch {
+        private final Map<CardKey, CardState> cards;
+        private final Map<Long, BigDecimal> balances = new HashMap<>();
+        private final Map<Long, BigDecimal> deltas = new HashMap<>();
+        private final List<CardTransactionEntry> entries = new ArrayList<>();
+
+        Batch(Map<CardKey, CardState> cards) {
+            this.cards = cards;
+            cards.values().forEach(card -> balances.put(card.cardId(), card.balance()));
+        }
+
+        /**
+         * Применяет команду к текущим балансам пакета.
+         *
+         * @param command команда перевода
+         * @return состояние карт после перевода
+         * @throws CardOperationException если сумма некорректна, карта неактивна или недостаточно средств
+         * @throws CardNotFoundException если карта не найдена у пользователя
+         */
+        TransferResponse apply(TransferCommand command) {
+            if (command.amount() == null || command.amount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new CardOperationException("Amount must be positive");
+            }
+            CardState from = find(command.userId(), command.fromCardNumber());
+            CardState to = find(command.userId(), command.toCardNumber());
+
+            if (from.status() != CardStatus.ACTIVE || to.status() != CardStatus.ACTIVE) {
+                throw new CardOperationException("One of the cards is not active");
+            }
+            if (balances.get(from.cardId()).compareTo(command.amount()) < 0) {
+                throw new CardOperationException("Insufficient funds");
+            }
+
+            move(from.cardId(), command.amount().negate());
+            move(to.cardId(), command.amount());
+            entries.addAll(CardTransactionEntry.transfer(from.cardId(), balances.get(from.cardId()),
+                    to.cardId(), balances.get(to.cardId()), command.amount()));
+            return new TransferResponse(
+                    from.toDTO(balances.get(from.cardId())),
+                    to.toDTO(balances.get(to.cardId()))
+            );
+        }
+
+        private void move(Long cardId, BigDecimal amount) {
+            balances.merge(cardId, amount, BigDecimal::add);
+            deltas.merge(cardId, amount, BigDecimal::add);
+        }
+
+        private CardState find(Long userId, String cardNumber) {
+            CardState card = cards.get(new CardKey(userId, CardNumbers.parseLast4(cardNumber)));
+            if (card == null) {
+                throw new CardNotFoundException(CardNumbers.mask(cardNumber));
+            }
+            return card;
+        }
+    }
+}
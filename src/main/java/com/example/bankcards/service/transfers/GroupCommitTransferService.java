@@ -0,0 +1,208 @@
+package com.example.bankcards.service.transfers;
+
+import com.example.bankcards.config.TransferEngineConfig;
+import com.example.bankcards.dto.cards.BatchTransferResponse;
+import com.example.bankcards.dto.cards.P2PTransferResponse;
+import com.example.bankcards.dto.cards.TransferRequest;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.exception.transfers.TransferQueueFullException;
+import com.example.bankcards.exception.transfers.TransferTimeoutException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Групповая фиксация одиночных переводов.
+ * <p>
+ * Включается настройкой {@code bank.transfers.engine=group-commit}. Переводы, поступившие
+ * в течение короткого окна (или до заполнения пакета), выполняются одной транзакцией
+ * через {@link BatchTransferProcessor}: один COMMIT и одна запись WAL на пакет вместо
+ * одной на перевод. Карты пакета блокируются в порядке card_id, поэтому параллельные
+ * пакеты не блокируют друг друга взаимно. Каждый вызывающий получает результат своего перевода.
+ * <p>
+ * Метрики:
+ * <ul>
+ *   <li>{@code bank.transfers.group-commit.batch.size} - число переводов в транзакции</li>
+ *   <li>{@code bank.transfers.group-commit.queue.delay} - время от постановки в очередь до начала транзакции</li>
+ *   <li>{@code bank.transfers.group-commit.batch.duration} - время выполнения транзакции</li>
+ * </ul>
+ * Пакетные переводы и переводы другим пользователям выполняются напрямую
+ * через {@link TransferServiceImpl}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "bank.transfers", name = "engine", havingValue = "group-commit")
+@Slf4j
+public class GroupCommitTransferService implements TransferService {
+    private final TransferServiceImpl delegate;
+    private final BatchTransferProcessor processor;
+    private final TransferEngineConfig.GroupCommit config;
+    private final BlockingQueue<PendingTransfer> queue;
+    private final List<Thread> workers;
+    private final DistributionSummary batchSize;
+    private final Timer queueDelay;
+    private final Timer batchDuration;
+
+    public GroupCommitTransferService(TransferServiceImpl delegate,
+                                      BatchTransferProcessor processor,
+                                      TransferEngineConfig engineConfig,
+                                      MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.processor = processor;
+        this.config = engineConfig.getGroupCommit();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.batchSize = DistributionSummary.builder("bank.transfers.group-commit.batch.size")
+                .description("Transfers committed in one transaction")
+                .register(meterRegistry);
+        this.queueDelay = Timer.builder("bank.transfers.group-commit.queue.delay")
+                .description("Time a transfer waits before its transaction starts")
+                .register(meterRegistry);
+        this.batchDuration = Timer.builder("bank.transfers.group-commit.batch.duration")
+                .description("Time to execute and commit one batch")
+                .register(meterRegistry);
+
+        this.workers = new ArrayList<>(config.getWorkers());
+        for (int i = 0; i < config.getWorkers(); i++) {
+            Thread worker = new Thread(this::run, "transfer-group-commit-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("Started {} group commit workers", config.getWorkers());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Перевод ставится в общую очередь; вызывающий поток ждет результат своего перевода
+     * не дольше {@code result-timeout}.
+     *
+     * @throws TransferQueueFullException если очередь переполнена
+     * @throws TransferTimeoutException если результат не получен за {@code result-timeout}
+     */
+    @Override
+    public TransferResponse transferBetweenUserCards(Long userId, String fromCardNumber,
+                                                     String toCardNumber, BigDecimal amount) {
+        return transferBetweenUserCards(userId, fromCardNumber, toCardNumber, amount, TransferCompletion.NONE);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Действие выполняется в транзакции пакета, в который попал перевод.
+     */
+    @Override
+    public TransferResponse transferBetweenUserCards(Long userId, String fromCardNumber, String toCardNumber,
+                                                     BigDecimal amount, TransferCompletion completion) {
+        PendingTransfer pending = new PendingTransfer(
+                new TransferCommand(userId, fromCardNumber, toCardNumber, amount, completion));
+        try {
+            if (!queue.offer(pending, config.getSubmitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new TransferQueueFullException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferQueueFullException();
+        }
+        return pending.await(config.getResultTimeout());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BatchTransferResponse transferBatch(Long userId, List<TransferRequest> transfers) {
+        return delegate.transferBatch(userId, transfers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public P2PTransferResponse transferToUser(Long userId, String fromCardNumber, Long recipientId,
+                                              String toCardNumber, BigDecimal amount) {
+        return delegate.transferToUser(userId, fromCardNumber, recipientId, toCardNumber, amount);
+    }
+
+    /**
+     * Останавливает обработчики. Переводы, оставшиеся в очереди, завершаются ошибкой.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        List<PendingTransfer> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(pending -> pending.fail(new TransferQueueFullException()));
+    }
+
+    private void run() {
+        List<PendingTransfer> batch = new ArrayList<>(config.getMaxBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.fail(new TransferQueueFullException()));
+                break;
+            }
+            try {
+                execute(batch);
+            } catch (Throwable e) {
+                // Обработчик должен пережить любую ошибку, иначе очередь разбирают меньше потоков
+                log.error("Group commit worker failed on a batch of {}", batch.size(), e);
+                PendingTransfer.failAll(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Собирает пакет: ждет первый перевод, затем добирает переводы до конца окна
+     * или до заполнения пакета.
+     */
+    private void collect(List<PendingTransfer> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + config.getWindow().toNanos();
+        while (batch.size() < config.getMaxBatchSize()) {
+            queue.drainTo(batch, config.getMaxBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= config.getMaxBatchSize() || remaining <= 0) {
+                break;
+            }
+            PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void execute(List<PendingTransfer> batch) {
+        long startedAt = System.nanoTime();
+        batch.forEach(pending -> queueDelay.record(startedAt - pending.enqueuedAt(), TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+        PendingTransfer.process(processor, batch);
+        batchDuration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+}
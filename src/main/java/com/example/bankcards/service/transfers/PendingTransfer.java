@@ -0,0 +1,128 @@
+package com.example.bankcards.service.transfers;
+
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.exception.transfers.TransferTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Перевод, ожидающий выполнения в очереди, вместе с результатом для вызывающего потока.
+ */
+@Slf4j
+final class PendingTransfer {
+    private final TransferCommand command;
+    private final CompletableFuture<TransferOutcome> result = new CompletableFuture<>();
+    private final long enqueuedAt = System.nanoTime();
+
+    PendingTransfer(TransferCommand command) {
+        this.command = command;
+    }
+
+    TransferCommand command() {
+        return command;
+    }
+
+    long enqueuedAt() {
+        return enqueuedAt;
+    }
+
+    void fail(Throwable error) {
+        result.completeExceptionally(error);
+    }
+
+    /**
+     * Ожидает выполнения перевода не дольше {@code timeout}.
+     * <p>
+     * По истечении времени перевод, который еще не начал выполняться, отменяется.
+     * Перевод, уже попавший в выполняемый пакет, может завершиться после ответа.
+     *
+     * @param timeout время ожидания
+     * @return состояние карт после перевода
+     * @throws TransferTimeoutException если результат не получен за {@code timeout}
+     * @throws RuntimeException причина отказа или ошибка выполнения пакета
+     */
+    TransferResponse await(Duration timeout) {
+        try {
+            result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.completeExceptionally(new TransferTimeoutException());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(new TransferTimeoutException());
+        } catch (ExecutionException e) {
+            // ошибка разбирается в outcome()
+        }
+        return outcome();
+    }
+
+    private TransferResponse outcome() {
+        TransferOutcome outcome;
+        try {
+            outcome = result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (!outcome.isCompleted()) {
+            throw outcome.error();
+        }
+        return outcome.response();
+    }
+
+    /**
+     * Выполняет переводы одной транзакцией и сообщает каждому вызывающему его результат.
+     * <p>
+     * Переводы, которые вызывающий уже перестал ждать, пропускаются. Отклоненный перевод
+     * не влияет на остальные. Если падает вся транзакция (например, из-за ошибки БД),
+     * переводы выполняются по одному, чтобы ошибка одного перевода не отменяла остальные.
+     *
+     * @param processor исполнитель пакета
+     * @param batch переводы
+     */
+    static void process(BatchTransferProcessor processor, List<PendingTransfer> batch) {
+        List<PendingTransfer> waiting = batch.stream().filter(pending -> !pending.result.isDone()).toList();
+        if (waiting.isEmpty()) {
+            return;
+        }
+        List<TransferOutcome> outcomes;
+        try {
+            outcomes = processor.process(waiting.stream().map(PendingTransfer::command).toList());
+        } catch (RuntimeException e) {
+            if (waiting.size() == 1) {
+                waiting.getFirst().fail(e);
+                return;
+            }
+            log.warn("Transfer batch of {} failed, retrying transfers one by one", waiting.size(), e);
+            waiting.forEach(pending -> process(processor, List.of(pending)));
+            return;
+        }
+        // Транзакция уже зафиксирована: повторять переводы нельзя, можно только сообщить об ошибке
+        if (outcomes.size() != waiting.size()) {
+            failAll(waiting, new IllegalStateException(
+                    "Expected " + waiting.size() + " transfer outcomes, got " + outcomes.size()));
+            return;
+        }
+        for (int i = 0; i < waiting.size(); i++) {
+            waiting.get(i).result.complete(outcomes.get(i));
+        }
+    }
+
+    /**
+     * Завершает ошибкой все переводы пакета, еще не получившие результат.
+     *
+     * @param batch переводы
+     * @param error ошибка
+     */
+    static void failAll(List<PendingTransfer> batch, Throwable error) {
+        batch.forEach(pending -> pending.fail(error));
+    }
+}
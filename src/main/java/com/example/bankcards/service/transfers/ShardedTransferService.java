@@ -0,0 +1,177 @@
+package com.example.bankcards.service.transfers;
+
+import com.example.bankcards.config.TransferEngineConfig;
+import com.example.bankcards.dto.cards.BatchTransferResponse;
+import com.example.bankcards.dto.cards.P2PTransferResponse;
+import com.example.bankcards.dto.cards.TransferRequest;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.exception.transfers.TransferQueueFullException;
+import com.example.bankcards.exception.transfers.TransferTimeoutException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выполнение одиночных переводов через однопоточные шарды.
+ * <p>
+ * Включается настройкой {@code bank.transfers.engine=sharded}. Переводы распределяются
+ * по шардам по userId, поэтому все переводы одного пользователя выполняет один поток
+ * в порядке поступления и не конкурируют друг с другом за блокировки строк карт.
+ * Шард забирает из очереди все накопившиеся переводы (не больше maxBatchSize) и выполняет
+ * их одной транзакцией через {@link BatchTransferProcessor}.
+ * <p>
+ * Балансы по-прежнему хранятся только в БД: блокировки строк остаются и защищают
+ * от параллельных операций администратора и других узлов.
+ * Пакетные переводы и переводы другим пользователям выполняются напрямую
+ * через {@link TransferServiceImpl}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "bank.transfers", name = "engine", havingValue = "sharded")
+@Slf4j
+public class ShardedTransferService implements TransferService {
+    private final TransferServiceImpl delegate;
+    private final BatchTransferProcessor processor;
+    private final TransferEngineConfig.Sharded config;
+    private final List<Shard> shards;
+
+    public ShardedTransferService(TransferServiceImpl delegate,
+                                  BatchTransferProcessor processor,
+                                  TransferEngineConfig engineConfig) {
+        this.delegate = delegate;
+        this.processor = processor;
+        this.config = engineConfig.getSharded();
+        this.shards = new ArrayList<>(config.getShards());
+        for (int i = 0; i < config.getShards(); i++) {
+            Shard shard = new Shard(i);
+            shards.add(shard);
+            shard.thread.start();
+        }
+        log.info("Started {} transfer shards", config.getShards());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Перевод ставится в очередь шарда пользователя; вызывающий поток ждет его результат
+     * не дольше {@code result-timeout}.
+     *
+     * @throws TransferQueueFullException если очередь шарда переполнена
+     * @throws TransferTimeoutException если результат не получен за {@code result-timeout}
+     */
+    @Override
+    public TransferResponse transferBetweenUserCards(Long userId, String fromCardNumber,
+                                                     String toCardNumber, BigDecimal amount) {
+        return transferBetweenUserCards(userId, fromCardNumber, toCardNumber, amount, TransferCompletion.NONE);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Действие выполняется в транзакции пакета, в который попал перевод.
+     */
+    @Override
+    public TransferResponse transferBetweenUserCards(Long userId, String fromCardNumber, String toCardNumber,
+                                                     BigDecimal amount, TransferCompletion completion) {
+        PendingTransfer pending = new PendingTransfer(
+                new TransferCommand(userId, fromCardNumber, toCardNumber, amount, completion));
+        shardOf(userId).submit(pending);
+        return pending.await(config.getResultTimeout());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BatchTransferResponse transferBatch(Long userId, List<TransferRequest> transfers) {
+        return delegate.transferBatch(userId, transfers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public P2PTransferResponse transferToUser(Long userId, String fromCardNumber, Long recipientId,
+                                              String toCardNumber, BigDecimal amount) {
+        return delegate.transferToUser(userId, fromCardNumber, recipientId, toCardNumber, amount);
+    }
+
+    /**
+     * Останавливает шарды. Переводы, оставшиеся в очередях, завершаются ошибкой.
+     */
+    @PreDestroy
+    public void shutdown() {
+        shards.forEach(shard -> shard.thread.interrupt());
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            List<PendingTransfer> rest = new ArrayList<>();
+            shard.queue.drainTo(rest);
+            rest.forEach(pending -> pending.fail(new TransferQueueFullException()));
+        }
+    }
+
+    private Shard shardOf(Long userId) {
+        return shards.get(Math.floorMod(userId.hashCode(), shards.size()));
+    }
+
+    /**
+     * Однопоточный исполнитель переводов своей части пользователей.
+     */
+    private class Shard {
+        private final BlockingQueue<PendingTransfer> queue;
+        private final Thread thread;
+
+        Shard(int index) {
+            this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            this.thread = new Thread(this::run, "transfer-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void submit(PendingTransfer pending) {
+            try {
+                if (!queue.offer(pending, config.getSubmitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new TransferQueueFullException();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransferQueueFullException();
+            }
+        }
+
+        private void run() {
+            List<PendingTransfer> batch = new ArrayList<>(config.getMaxBatchSize());
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                queue.drainTo(batch, config.getMaxBatchSize() - 1);
+                try {
+                    PendingTransfer.process(processor, batch);
+                } catch (Throwable e) {
+                    // Поток шарда должен пережить любую ошибку, иначе его очередь больше не разбирается
+                    log.error("Transfer shard {} failed on a batch of {}", thread.getName(), batch.size(), e);
+                    PendingTransfer.failAll(batch, e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
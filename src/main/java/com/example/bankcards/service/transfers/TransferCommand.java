@@ -0,0 +1,20 @@
+package com.example.bankcards.service.transfers;
+
+import java.math.BigDecimal;
+
+/**
+ * Команда перевода между картами одного пользователя.
+ *
+ * @param userId идентификатор пользователя
+ * @param fromCardNumber последние 4 цифры карты списания
+ * @param toCardNumber последние 4 цифры карты зачисления
+ * @param amount сумма перевода
+ * @param completion действие в транзакции перевода после его выполнения
+ */
+public record TransferCommand(Long userId, String fromCardNumber, String toCardNumber, BigDecimal amount,
+                              TransferCompletion completion) {
+
+    public TransferCommand(Long userId, String fromCardNumber, String toCardNumber, BigDecimal amount) {
+        this(userId, fromCardNumber, toCardNumber, amount, TransferCompletion.NONE);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.service.transfers;
+
+import com.example.bankcards.dto.cards.TransferResponse;
+
+/**
+ * Действие, выполняемое в транзакции перевода после изменения балансов.
+ * <p>
+ * Позволяет сохранить данные, связанные с переводом, атомарно с ним: если действие
+ * завершается исключением, перевод откатывается.
+ */
+@FunctionalInterface
+public interface TransferCompletion {
+    /** Пустое действие */
+    TransferCompletion NONE = response -> {
+    };
+
+    /**
+     * Выполняется в транзакции перевода.
+     *
+     * @param response результат перевода
+     */
+    void inTransaction(TransferResponse response);
+}
@@ -0,0 +1,24 @@
+package com.example.bankcards.service.transfers;
+
+import com.example.bankcards.dto.cards.TransferResponse;
+
+/**
+ * Результат одной команды из пакета переводов.
+ *
+ * @param response состояние карт после перевода, если перевод выполнен
+ * @param error причина отказа, если перевод отклонен
+ */
+public record TransferOutcome(TransferResponse response, RuntimeException error) {
+
+    public static TransferOutcome completed(TransferResponse response) {
+        return new TransferOutcome(response, null);
+    }
+
+    public static TransferOutcome rejected(RuntimeException error) {
+        return new TransferOutcome(null, error);
+    }
+
+    public boolean isCompleted() {
+        return error == null;
+    }
+}
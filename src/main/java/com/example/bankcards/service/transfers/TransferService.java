@@ -1,14 +1,17 @@
 package com.example.bankcards.service.transfers;
 
+import com.example.bankcards.dto.cards.BatchTransferResponse;
+import com.example.bankcards.dto.cards.P2PTransferResponse;
+import com.example.bankcards.dto.cards.TransferRequest;
 import com.example.bankcards.dto.cards.TransferResponse;
 import com.example.bankcards.exception.cards.CardNotFoundException;
 import com.example.bankcards.exception.cards.CardOperationException;
-import com.example.bankcards.exception.users.UserNotFoundException;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
- * Сервис для выполнения операций перевода средств между картами пользователя.
+ * Сервис для выполнения операций перевода средств между картами пользователей.
  */
 public interface TransferService {
     /**
@@ -21,9 +24,53 @@ public interface TransferService {
      * @return объект {@link TransferResponse} с информацией о картах после перевода
      * @throws CardOperationException если сумма перевода некорректна, одна из карт неактивна
      *                               или недостаточно средств на карте списания
-     * @throws UserNotFoundException если пользователь с указанным ID не найден
      * @throws CardNotFoundException если одна из карт не найдена у указанного пользователя
      */
     TransferResponse transferBetweenUserCards(Long userId, String fromCardNumber,
                                               String toCardNumber, BigDecimal amount);
+
+    /**
+     * Выполняет перевод средств между картами одного пользователя и действие
+     * {@code completion} в той же транзакции.
+     *
+     * @param userId идентификатор пользователя, выполняющего перевод
+     * @param fromCardNumber номер карты списания (последние 4 цифры)
+     * @param toCardNumber номер карты зачисления (последние 4 цифры)
+     * @param amount сумма перевода
+     * @param completion действие, фиксируемое вместе с переводом
+     * @return объект {@link TransferResponse} с информацией о картах после перевода
+     * @throws CardOperationException если сумма перевода некорректна, одна из карт неактивна
+     *                               или недостаточно средств на карте списания
+     * @throws CardNotFoundException если одна из карт не найдена у указанного пользователя
+     */
+    TransferResponse transferBetweenUserCards(Long userId, String fromCardNumber, String toCardNumber,
+                                              BigDecimal amount, TransferCompletion completion);
+
+    /**
+     * Выполняет пакет переводов между картами одного пользователя в одной транзакции.
+     * <p>
+     * Каждый перевод проверяется по тем же правилам, что и одиночный, с учетом
+     * балансов после предыдущих переводов пакета. Отклоненный перевод не отменяет остальные.
+     *
+     * @param userId идентификатор пользователя, выполняющего переводы
+     * @param transfers переводы в порядке выполнения
+     * @return результат по каждому переводу в порядке запроса
+     */
+    BatchTransferResponse transferBatch(Long userId, List<TransferRequest> transfers);
+
+    /**
+     * Выполняет перевод с карты пользователя на карту другого пользователя.
+     *
+     * @param userId идентификатор отправителя
+     * @param fromCardNumber номер карты отправителя (последние 4 цифры)
+     * @param recipientId идентификатор получателя
+     * @param toCardNumber номер карты получателя (последние 4 цифры)
+     * @param amount сумма перевода
+     * @return состояние карты отправителя после перевода
+     * @throws CardOperationException если сумма перевода некорректна, одна из карт неактивна
+     *                               или недостаточно средств на карте списания
+     * @throws CardNotFoundException если карта не найдена у отправителя или получателя
+     */
+    P2PTransferResponse transferToUser(Long userId, String fromCardNumber, Long recipientId,
+                                       String toCardNumber, BigDecimal amount);
 }
@@ -1,20 +1,26 @@
 package com.example.bankcards.service.transfers;
 
+import com.example.bankcards.dto.cards.BatchTransferItemResult;
+import com.example.bankcards.dto.cards.BatchTransferResponse;
+import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.cards.P2PTransferResponse;
+import com.example.bankcards.dto.cards.TransferRequest;
 import com.example.bankcards.dto.cards.TransferResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
-import com.example.bankcards.entity.User;
-import com.example.bankcards.exception.cards.CardNotFoundException;
 import com.example.bankcards.exception.cards.CardOperationException;
-import com.example.bankcards.exception.users.UserNotFoundException;
 import com.example.bankcards.repository.CardRepository;
-import com.example.bankcards.repository.UserRepository;
-import com.example.bankcards.util.Mapper;
+import com.example.bankcards.repository.CardTransactionEntry;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.service.cards.CardResolver;
+import com.example.bankcards.service.retry.RetryOnConflict;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,10 +29,12 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Transactional
-public class TransferServiceImpl implements  TransferService {
+public class TransferServiceImpl implements TransferService {
     private final CardRepository cardRepository;
-    private final UserRepository userRepository;
-    private final Mapper mapper;
+    private final CardResolver cardResolver;
+    private final CardBalanceCache balanceCache;
+    private final BatchTransferProcessor batchTransferProcessor;
+    private final CardTransactionRepository cardTransactionRepository;
 
     /**
      * {@inheritDoc}
@@ -38,28 +46,104 @@ public class TransferServiceImpl implements  TransferService {
      *   <li>На карте списания должно быть достаточно средств</li>
      * </ul>
      *
-     * <p>Номера карт указываются последними 4 цифрами, полный номер формируется автоматически.
+     * <p>Номера карт указываются последними 4 цифрами; обе карты загружаются одним запросом
+     * по индексу (user_id, last4), см. {@link CardResolver}.
+     *
+     * <p>Проверки по загруженным картам отсекают заведомо невозможные переводы без блокировок.
+     * Сами списание и зачисление выполняются условными UPDATE-запросами, которые повторно
+     * проверяют статус и баланс под блокировкой строки.
+     *
+     * <p>При конфликте блокировок перевод повторяется в новой транзакции, см. {@link RetryOnConflict}.
      */
     @Override
+    @RetryOnConflict
     public TransferResponse transferBetweenUserCards(Long userId, String fromCardNumber,
                                                      String toCardNumber, BigDecimal amount) {
+        return transfer(userId, fromCardNumber, toCardNumber, amount, TransferCompletion.NONE);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Проверки и повтор при конфликте те же, что и у перевода без действия;
+     * действие повторяется вместе с переводом в каждой попытке.
+     */
+    @Override
+    @RetryOnConflict
+    public TransferResponse transferBetweenUserCards(Long userId, String fromCardNumber, String toCardNumber,
+                                                     BigDecimal amount, TransferCompletion completion) {
+        return transfer(userId, fromCardNumber, toCardNumber, amount, completion);
+    }
+
+    private TransferResponse transfer(Long userId, String fromCardNumber, String toCardNumber,
+                                      BigDecimal amount, TransferCompletion completion) {
         validateAmount(amount);
 
-        //чтобы вводить последние 4 цифры
-        String formatFrom = "**** **** **** " + fromCardNumber;
-        String formatTo = "**** **** **** " + toCardNumber;
+        CardResolver.CardPair cards = cardResolver.resolvePair(userId, fromCardNumber, toCardNumber);
 
-        Card fromCard = findUserCard(userId, formatFrom);
-        Card toCard = findUserCard(userId, formatTo);
+        validateTransfer(cards.from(), cards.to(), amount);
 
-        validateTransfer(fromCard, toCard, amount);
+        TransferResponse response = performTransfer(cards.from().getCardId(), cards.to().getCardId(), amount);
+        balanceCache.evict(userId, cards.from().getLast4());
+        balanceCache.evict(userId, cards.to().getLast4());
+        completion.inTransaction(response);
+        return response;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Выполняется через {@link BatchTransferProcessor}: карты пакета блокируются одним
+     * запросом в порядке card_id, а изменения балансов записываются одним пакетом JDBC.
+     */
+    @Override
+    public BatchTransferResponse transferBatch(Long userId, List<TransferRequest> transfers) {
+        List<TransferCommand> commands = transfers.stream()
+                .map(request -> new TransferCommand(userId, request.getFromCardNumber(),
+                        request.getToCardNumber(), request.getAmount()))
+                .toList();
+        List<TransferOutcome> outcomes = batchTransferProcessor.process(commands);
+
+        List<BatchTransferItemResult> results = new ArrayList<>(outcomes.size());
+        int completed = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            TransferOutcome outcome = outcomes.get(i);
+            if (outcome.isCompleted()) {
+                completed++;
+                results.add(new BatchTransferItemResult(i, true, outcome.response(), null));
+            } else {
+                results.add(new BatchTransferItemResult(i, false, null, outcome.error().getMessage()));
+            }
+        }
+        return new BatchTransferResponse(completed, outcomes.size() - completed, results);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Проверки те же, что и у перевода между своими картами. Карта получателя ищется
+     * по идентификатору получателя без загрузки его профиля, а сообщение об ошибке
+     * не раскрывает данные получателя.
+     *
+     * <p>Строки карт блокируются в порядке возрастания card_id независимо от направления
+     * перевода, поэтому встречные переводы и множество переводов на одну карту
+     * (например, карту продавца) не приводят к взаимной блокировке.
+     */
+    @Override
+    @RetryOnConflict
+    public P2PTransferResponse transferToUser(Long userId, String fromCardNumber, Long recipientId,
+                                              String toCardNumber, BigDecimal amount) {
+        validateAmount(amount);
+
+        Card fromCard = cardResolver.resolve(userId, fromCardNumber);
+        Card toCard = cardResolver.resolve(recipientId, toCardNumber);
 
-        performTransfer(fromCard, toCard, amount);
+        validateTransfer(fromCard, toCard, amount);
 
-        return new TransferResponse(
-                mapper.toCardDTO(fromCard),
-                mapper.toCardDTO(toCard)
-        );
+        TransferResponse response = performTransfer(fromCard.getCardId(), toCard.getCardId(), amount);
+        balanceCache.evict(userId, fromCard.getLast4());
+        balanceCache.evict(recipientId, toCard.getLast4());
+        return new P2PTransferResponse(response.getFromCard(), recipientId, toCard.getCardNumber(), amount);
     }
 
     /**
@@ -93,31 +177,70 @@ public class TransferServiceImpl implements  TransferService {
 
     /**
      * Выполняет перевод средств между картами.
+     * <p>
+     * Строки карт блокируются в порядке возрастания card_id, чтобы встречные
+     * переводы между одними и теми же картами не приводили к взаимной блокировке.
+     * Перевод записывается в журнал движений в той же транзакции.
      *
-     * @param fromCard карта списания
-     * @param toCard карта зачисления
+     * @param fromCardId идентификатор карты списания
+     * @param toCardId идентификатор карты зачисления
      * @param amount сумма перевода
+     * @return состояние обеих карт после перевода
+     * @throws CardOperationException если карта изменилась после проверки и перевод невозможен
      */
-    private void performTransfer(Card fromCard, Card toCard, BigDecimal amount) {
-        fromCard.setBalance(fromCard.getBalance().subtract(amount));
-        toCard.setBalance(toCard.getBalance().add(amount));
-        cardRepository.saveAll(List.of(fromCard, toCard));
+    private TransferResponse performTransfer(Long fromCardId, Long toCardId, BigDecimal amount) {
+        CardDTO from;
+        CardDTO to;
+        if (fromCardId <= toCardId) {
+            from = debit(fromCardId, amount);
+            to = credit(toCardId, amount);
+        } else {
+            to = credit(toCardId, amount);
+            from = debit(fromCardId, amount);
+        }
+        cardTransactionRepository.append(CardTransactionEntry.transfer(
+                fromCardId, from.getBalance(), toCardId, to.getBalance(), amount));
+        return new TransferResponse(from, to);
     }
 
     /**
-     * Находит карту пользователя по номеру.
+     * Списывает сумму с карты одним условным UPDATE.
      *
-     * @param userId идентификатор пользователя
-     * @param cardNumber номер карты (полный формат)
-     * @return найденная карта
-     * @throws UserNotFoundException если пользователь не найден
-     * @throws CardNotFoundException если карта не найдена у пользователя
+     * @param cardId идентификатор карты списания
+     * @param amount сумма списания
+     * @return состояние карты после списания
+     * @throws CardOperationException если карта неактивна или средств недостаточно
      */
-    private Card findUserCard(Long userId, String cardNumber) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-        return cardRepository.findByCardNumberAndUser(cardNumber, user)
-                .orElseThrow(() -> new CardNotFoundException(cardNumber, user.getEmail()));
+    private CardDTO debit(Long cardId, BigDecimal amount) {
+        return cardRepository.debit(cardId, amount)
+                .orElseThrow(() -> rejectedOperation(cardId, "Insufficient funds"));
+    }
+
+    /**
+     * Зачисляет сумму на карту одним условным UPDATE.
+     *
+     * @param cardId идентификатор карты зачисления
+     * @param amount сумма зачисления
+     * @return состояние карты после зачисления
+     * @throws CardOperationException если карта неактивна
+     */
+    private CardDTO credit(Long cardId, BigDecimal amount) {
+        return cardRepository.credit(cardId, amount)
+                .orElseThrow(() -> rejectedOperation(cardId, "One of the cards is not active"));
     }
-}
 
+    /**
+     * Формирует ошибку для операции, отклоненной условным UPDATE.
+     * Статус перечитывается из БД только на этом пути, чтобы сообщить точную причину.
+     *
+     * @param cardId идентификатор карты
+     * @param defaultMessage сообщение для активной карты
+     * @return исключение с причиной отказа
+     */
+    private CardOperationException rejectedOperation(Long cardId, String defaultMessage) {
+        boolean active = cardRepository.findStatus(cardId)
+                .map(status -> status == CardStatus.ACTIVE)
+                .orElse(false);
+        return new CardOperationException(active ? defaultMessage : "One of the cards is not active");
+    }
+}
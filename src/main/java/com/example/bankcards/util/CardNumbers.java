@@ -0,0 +1,72 @@
+package com.example.bankcards.util;
+
+/**
+ * Работа с замаскированными номерами карт.
+ * <p>
+ * Клиенты указывают карту последними 4 цифрами номера; в БД они хранятся
+ * отдельно в индексируемой колонке last4.
+ */
+public final class CardNumbers {
+    private static final String MASK = "**** **** **** ";
+
+    private CardNumbers() {
+    }
+
+    /**
+     * Формирует замаскированный номер карты.
+     *
+     * @param last4 последние 4 цифры номера
+     * @return номер в формате **** **** **** XXXX
+     */
+    public static String mask(String last4) {
+        return MASK + last4;
+    }
+
+    /**
+     * Формирует замаскированный номер карты по значению колонки last4.
+     *
+     * @param last4 последние 4 цифры номера (0-9999)
+     * @return номер в формате **** **** **** XXXX с ведущими нулями
+     */
+    public static String mask(short last4) {
+        char[] digits = {'0', '0', '0', '0'};
+        for (int i = 3, value = last4; i >= 0 && value > 0; i--, value /= 10) {
+            digits[i] = (char) ('0' + value % 10);
+        }
+        return MASK + new String(digits);
+    }
+
+    /**
+     * Разбирает последние 4 цифры номера, введенные клиентом.
+     *
+     * @param last4 последние 4 цифры номера
+     * @return значение для колонки last4 или null, если строка не состоит ровно из 4 цифр
+     */
+    public static Short parseLast4(String last4) {
+        if (last4 == null || last4.length() != 4) {
+            return null;
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = last4.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return (short) value;
+    }
+
+    /**
+     * Извлекает последние 4 цифры из номера карты.
+     *
+     * @param cardNumber полный или замаскированный номер карты
+     * @return значение для колонки last4 или null, если номер не оканчивается 4 цифрами
+     */
+    public static Short last4Of(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 4) {
+            return null;
+        }
+        return parseLast4(cardNumber.substring(cardNumber.length() - 4));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.StringJoiner;
+
+/**
+ * Кодирование курсоров keyset-пагинации.
+ * <p>
+ * Курсор - значения ключа сортировки последней строки страницы, закодированные в Base64 URL.
+ * Клиент передает его без изменений, поэтому формат можно менять вместе с запросом.
+ */
+public final class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Кодирует значения ключа сортировки.
+     *
+     * @param values значения в порядке сортировки; не должны содержать символ '|'
+     * @return курсор
+     */
+    public static String encode(Object... values) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        for (Object value : values) {
+            joiner.add(String.valueOf(value));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует курсор.
+     *
+     * @param cursor курсор
+     * @param size ожидаемое число значений
+     * @return значения ключа сортировки
+     * @throws InvalidCursorException если курсор поврежден
+     */
+    public static String[] decode(String cursor, int size) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = decoded.split("\\" + SEPARATOR, -1);
+            if (values.length != size) {
+                throw new InvalidCursorException();
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bankcards.util;
+
+import java.util.Locale;
+
+/**
+ * Построение шаблонов LIKE для поиска по подстроке.
+ * <p>
+ * Шаблоны используются с {@code ESCAPE '\'}: символы '%', '_' и '\' из поискового
+ * запроса экранируются и сравниваются буквально.
+ */
+public final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Приводит поисковый запрос к виду, в котором хранятся индексируемые значения.
+     *
+     * @param term поисковый запрос
+     * @return запрос без пробелов по краям в нижнем регистре
+     */
+    public static String normalize(String term) {
+        return term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Формирует шаблон поиска подстроки.
+     *
+     * @param term нормализованный поисковый запрос
+     * @return шаблон вида %term%
+     */
+    public static String contains(String term) {
+        return escape(new StringBuilder(term.length() + 2).append('%'), term).append('%').toString();
+    }
+
+    /**
+     * Формирует шаблон поиска по префиксу.
+     *
+     * @param term нормализованный поисковый запрос
+     * @return шаблон вида term%
+     */
+    public static String startsWith(String term) {
+        return escape(new StringBuilder(term.length() + 1), term).append('%').toString();
+    }
+
+    private static StringBuilder escape(StringBuilder pattern, String term) {
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bankcards.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Хэши токенов для хранения и сравнения без исходного значения токена.
+ */
+public final class TokenDigests {
+
+    private TokenDigests() {
+    }
+
+    /**
+     * Вычисляет SHA-256 токена.
+     *
+     * @param token токен
+     * @return 32 байта хэша
+     */
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Сравнивает токен с сохраненным хэшем за время, не зависящее от совпадающего префикса.
+     *
+     * @param token токен; может быть null
+     * @param digest хэш, полученный из {@link #sha256(String)}; может быть null
+     * @return true, если оба значения заданы и хэш токена совпадает
+     */
+    public static boolean matches(String token, byte[] digest) {
+        return token != null && digest != null && MessageDigest.isEqual(sha256(token), digest);
+    }
+}
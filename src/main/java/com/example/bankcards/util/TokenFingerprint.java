@@ -0,0 +1,50 @@
+package com.example.bankcards.util;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+/**
+ * Компактный ключ токена для кэшей и списков в памяти: первые 128 бит SHA-256.
+ * <p>
+ * Хранит 16 байт вместо строки токена, а подобрать другой токен с тем же ключом
+ * вычислительно невозможно.
+ *
+ * @param high старшие 64 бита хэша
+ * @param low следующие 64 бита хэша
+ */
+public record TokenFingerprint(long high, long low) {
+
+    /**
+     * Вычисляет ключ токена.
+     *
+     * @param token токен
+     * @return ключ токена
+     */
+    public static TokenFingerprint of(String token) {
+        ByteBuffer digest = ByteBuffer.wrap(TokenDigests.sha256(token));
+        return new TokenFingerprint(digest.getLong(), digest.getLong());
+    }
+
+    /**
+     * Восстанавливает ключ из шестнадцатеричной записи.
+     *
+     * @param hex 32 шестнадцатеричных символа, полученные из {@link #toHex()}
+     * @return ключ токена
+     * @throws IllegalArgumentException если запись некорректна
+     */
+    public static TokenFingerprint fromHex(String hex) {
+        if (hex.length() != 32) {
+            throw new IllegalArgumentException("Token fingerprint must have 32 hex digits");
+        }
+        return new TokenFingerprint(Long.parseUnsignedLong(hex, 0, 16, 16), Long.parseUnsignedLong(hex, 16, 32, 16));
+    }
+
+    /**
+     * Шестнадцатеричная запись ключа для хранения в БД и передачи между узлами.
+     *
+     * @return 32 шестнадцатеричных символа
+     */
+    public String toHex() {
+        return HexFormat.of().toHexDigits(high) + HexFormat.of().toHexDigits(low);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.bankcards.util.generatorNumbers;
 
+import java.util.Set;
+
 /**
  * Генератор номеров банковских карт.
  * <p>
@@ -13,13 +15,17 @@ public interface CardNumberGenerator {
      * Номер генерируется по следующему алгоритму:
      * <ol>
      *   <li>Начинается с BIN (Bank Identification Number)</li>
-     *   <li>Добавляются 9 случайных цифр</li>
+     *   <li>Добавляется 9-значный номер счета, уникальный для всех выпущенных номеров</li>
      *   <li>Вычисляется контрольная цифра по алгоритму Луна</li>
      *   <li>Номер маскируется (первые 12 цифр заменяются на *)</li>
      * </ol>
+     * Номера, последние 4 цифры которых уже заняты, пропускаются.
      *
+     * @param usedLast4 последние 4 цифры номеров карт, уже выпущенных владельцу
      * @return Строка, представляющая номер карты в формате "**** **** **** XXXX",
      *         где XXXX - последние 4 цифры номера карты
+     * @throws com.example.bankcards.exception.cards.CardOperationException
+     *         если свободных последних 4 цифр у владельца не осталось
      */
-    String generateNumber();
+    String generateNumber(Set<Short> usedLast4);
 }
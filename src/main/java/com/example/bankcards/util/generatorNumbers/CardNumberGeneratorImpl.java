@@ -1,86 +1,116 @@
 package com.example.bankcards.util.generatorNumbers;
 
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumbers;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Set;
 
 /**
  * Реализация генератора номеров банковских карт.
  * <p>
  * Генерирует 16-значные номера карт, начиная с BIN "220220",
  * с валидной контрольной цифрой по алгоритму Луна.
+ * <p>
+ * Номера счетов выделяются по схеме hi/lo: поток резервирует в последовательности
+ * card_number_block_seq блок из {@value #BLOCK_SIZE} номеров и выдает их без обращения
+ * к БД и без синхронизации с другими потоками. Номера не повторяются между узлами
+ * и перезапусками; неиспользованный остаток блока теряется.
  */
 @Component
 @RequiredArgsConstructor
 public class CardNumberGeneratorImpl implements CardNumberGenerator {
     /** BIN (Bank Identification Number) для генерации карт */
-    private static final String BIN = "220220";
+    private static final long BIN = 220_220L;
+    /** Число номеров счетов в одном блоке */
+    static final int BLOCK_SIZE = 1000;
+    /** Множитель BIN: номер счета занимает 9 цифр */
+    private static final long ACCOUNT_RANGE = 1_000_000_000L;
+    /** Число различных значений последних 4 цифр */
+    private static final int LAST4_VALUES = 10_000;
+
+    private final CardRepository cardRepository;
+    /** Текущий блок потока: следующий номер счета и граница блока */
+    private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[2]);
 
     /**
      * Генерирует номер банковской карты.
      * <p>
      * Генерация включает:
      * - 6 цифр BIN
-     * - 9 случайных цифр
+     * - 9 цифр номера счета из зарезервированного блока
      * - 1 контрольную цифру (алгоритм Луна)
      * - Маскировку первых 12 цифр
      *
      * @return Замаскированный номер карты в формате "**** **** **** XXXX"
-     * @see CardNumberGenerator#generateNumber()
+     * @see CardNumberGenerator#generateNumber(Set)
      */
     @Override
-    public String generateNumber() {
-        Random random = ThreadLocalRandom.current();
-        StringBuilder number = new StringBuilder(BIN);
+    public String generateNumber(Set<Short> usedLast4) {
+        if (usedLast4.size() >= LAST4_VALUES) {
+            throw new CardOperationException("No free card numbers left for user");
+        }
+        while (true) {
+            short last4 = last4(BIN * ACCOUNT_RANGE + nextAccount());
+            if (!usedLast4.contains(last4)) {
+                return CardNumbers.mask(last4);
+            }
+        }
+    }
 
-        for (int i = 0; i < 9; i++) {
-            number.append(random.nextInt(10));
+    /**
+     * Выдает следующий номер счета из блока текущего потока,
+     * резервируя новый блок, когда текущий исчерпан.
+     *
+     * @return номер счета
+     */
+    private long nextAccount() {
+        long[] block = blocks.get();
+        if (block[0] == block[1]) {
+            long start = cardRepository.nextCardNumberBlock() * BLOCK_SIZE;
+            if (start + BLOCK_SIZE > ACCOUNT_RANGE) {
+                throw new IllegalStateException("Card account numbers are exhausted");
+            }
+            block[0] = start;
+            block[1] = start + BLOCK_SIZE;
         }
+        return block[0]++;
+    }
 
-        String partialNumber = number.toString();
-        int checkDigit = checkDigit(partialNumber);
-        return maskCardNumber(partialNumber + checkDigit);
+    /**
+     * Вычисляет последние 4 цифры полного номера: 3 последние цифры номера
+     * и контрольную цифру.
+     *
+     * @param payload номер карты без контрольной цифры (15 цифр)
+     * @return последние 4 цифры полного номера
+     */
+    static short last4(long payload) {
+        return (short) (payload % 1000 * 10 + checkDigit(payload));
     }
 
     /**
-     * Вычисляет контрольную цифру номера карты по алгоритму Луна.
+     * Вычисляет контрольную цифру номера карты по алгоритму Луна
+     * без преобразования номера в строку.
      *
-     * @param number Частичный номер карты (без контрольной цифры)
+     * @param payload Номер карты без контрольной цифры
      * @return Контрольная цифра (0-9)
-     * @throws NumberFormatException если строка содержит нечисловые символы
      */
-    int checkDigit(String number) {
+    static int checkDigit(long payload) {
         int sum = 0;
-        boolean checker = false;
-
-        for (int i = number.length() - 1; i >= 0 ; i--) {
-            int digit = Character.getNumericValue(number.charAt(i));
-            if (checker) {
+        boolean doubled = true;
+        for (long rest = payload; rest > 0; rest /= 10) {
+            int digit = (int) (rest % 10);
+            if (doubled) {
                 digit *= 2;
                 if (digit > 9) {
-                    digit = (digit % 10) + 1;
+                    digit -= 9;
                 }
             }
             sum += digit;
-            checker = !checker;
+            doubled = !doubled;
         }
-        return (10 - (sum % 10)) % 10;
-    }
-
-    /**
-     * Маскирует номер карты, оставляя видимыми только последние 4 цифры.
-     *
-     * @param cardNumber Полный номер карты (16 цифр)
-     * @return Замаскированный номер в формате "**** **** **** XXXX"
-     *         или null, если входная строка не соответствует ожидаемой длине
-     */
-    String maskCardNumber(String cardNumber) {
-        if (cardNumber.length() == 16) {
-            return "**** **** **** " + cardNumber.substring(cardNumber.length() - 4);
-        }
-        return null;
+        return (10 - sum % 10) % 10;
     }
 }
-
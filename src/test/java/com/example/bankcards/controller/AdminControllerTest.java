@@ -1,6 +1,9 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.config.SecurityConfig;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.ExportFormat;
+import com.example.bankcards.dto.cards.AdminCardFilter;
 import com.example.bankcards.dto.cards.CardDTO;
 import com.example.bankcards.dto.cards.CardReplenishmentRequest;
 import com.example.bankcards.dto.cards.UserCardOperationRequest;
@@ -10,7 +13,9 @@ import com.example.bankcards.dto.users.UserDTO;
 import com.example.bankcards.dto.users.UserRegisterRequest;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.Role;
+import com.example.bankcards.service.admin.AdminExportService;
 import com.example.bankcards.service.admin.AdminServiceImpl;
+import com.example.bankcards.service.admin.CardIssuanceService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -21,12 +26,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -36,7 +45,10 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +59,12 @@ class AdminControllerTest {
     @Mock
     private AdminServiceImpl adminServiceImpl;
 
+    @Mock
+    private AdminExportService adminExportService;
+
+    @Mock
+    private CardIssuanceService cardIssuanceService;
+
     @InjectMocks
     private AdminController adminController;
 
@@ -92,7 +110,7 @@ class AdminControllerTest {
                 "john@example.com"
         );
 
-        adminController = new AdminController(adminServiceImpl);
+        adminController = new AdminController(adminServiceImpl, adminExportService, cardIssuanceService);
         mockMvc = MockMvcBuilders.standaloneSetup(adminController).build();
     }
 
@@ -152,6 +170,41 @@ class AdminControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    void searchCards_ShouldReturnRankedCards() throws Exception {
+        when(adminServiceImpl.searchCards("doe", 10)).thenReturn(List.of(testCard));
+
+        mockMvc.perform(get("/api/v1/admin/cards/search")
+                        .param("query", "doe")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cardNumber").value(testCard.getCardNumber()))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void findCards_ShouldBindFilterFromQueryParameters() throws Exception {
+        when(adminServiceImpl.findCards(any(AdminCardFilter.class), eq("abc"), eq(10)))
+                .thenReturn(new CursorPage<>(List.of(testCard), "next"));
+
+        mockMvc.perform(get("/api/v1/admin/cards/filter")
+                        .param("status", "BLOCKED")
+                        .param("expiryFrom", "2030-01-01")
+                        .param("minBalance", "100.00")
+                        .param("holderPrefix", "Jo")
+                        .param("cursor", "abc")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].cardNumber").value(testCard.getCardNumber()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(adminServiceImpl).findCards(argThat(filter -> filter.getStatus() == CardStatus.BLOCKED
+                && LocalDate.of(2030, 1, 1).equals(filter.getExpiryFrom())
+                && new BigDecimal("100.00").equals(filter.getMinBalance())
+                && "Jo".equals(filter.getHolderPrefix())
+                && filter.getUserId() == null), eq("abc"), eq(10));
+    }
+
     @Test
     void getUserCards_ShouldReturnUserCards() throws Exception {
         when(adminServiceImpl.getUserCards(anyLong())).thenReturn(List.of(testCard));
@@ -213,6 +266,24 @@ class AdminControllerTest {
                 .andExpect(jsonPath("$.email").value(testUser.getEmail()));
     }
 
+    @Test
+    void exportCards_ShouldStreamCsvAttachment() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("cardNumber\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(adminExportService).exportCards(eq(ExportFormat.CSV), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/admin/cards/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cards.csv\""))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("cardNumber\r\n"));
+    }
+
     @Test
     void deleteUser_ShouldReturnNoContent() throws Exception {
         doNothing().when(adminServiceImpl).deleteUser(anyLong());
@@ -1,16 +1,32 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.config.SecurityConfig;
+import com.example.bankcards.dto.cards.BatchTransferItemResult;
+import com.example.bankcards.dto.cards.BatchTransferRequest;
+import com.example.bankcards.dto.cards.BatchTransferResponse;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.cards.CardTransactionDTO;
+import com.example.bankcards.dto.cards.P2PTransferRequest;
+import com.example.bankcards.dto.cards.P2PTransferResponse;
 import com.example.bankcards.dto.cards.TransferRequest;
 import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.dto.cards.TransferStatus;
+import com.example.bankcards.dto.cards.TransferStatusDTO;
 import com.example.bankcards.dto.users.UserDTO;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.TransactionType;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.GlobalExceptionHandler;
 import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.exception.transfers.IdempotencyKeyMismatchException;
+import com.example.bankcards.security.principal.UserPrincipal;
+import com.example.bankcards.security.ratelimit.RateLimitInterceptor;
+import com.example.bankcards.security.ratelimit.RateLimiter;
 import com.example.bankcards.service.cards.CardServiceImpl;
+import com.example.bankcards.service.idempotency.TransferIdempotencyService;
+import com.example.bankcards.service.transfers.AsyncTransferService;
 import com.example.bankcards.service.transfers.TransferServiceImpl;
 import com.example.bankcards.service.users.UserServiceImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -38,6 +54,7 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -56,6 +73,12 @@ class UserControllerTest {
     private CardServiceImpl cardServiceImpl;
     @Mock
     private TransferServiceImpl transferServiceImpl;
+    @Mock
+    private TransferIdempotencyService transferIdempotencyService;
+    @Mock
+    private AsyncTransferService asyncTransferService;
+    @Mock
+    private RateLimiter rateLimiter;
 
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
@@ -67,7 +90,9 @@ class UserControllerTest {
 
     @BeforeEach
     void setUp() {
-        UserController controller = new UserController(userServiceImpl, cardServiceImpl, transferServiceImpl);
+        UserController controller = new UserController(
+                userServiceImpl, cardServiceImpl, transferServiceImpl, transferIdempotencyService,
+                asyncTransferService);
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
                 .setControllerAdvice(new GlobalExceptionHandler())
@@ -108,11 +133,12 @@ class UserControllerTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
+        UserPrincipal principal = UserPrincipal.of(testUser);
         UsernamePasswordAuthenticationToken authentication =
                 new UsernamePasswordAuthenticationToken(
-                        testUser,
+                        principal,
                         null,
-                        testUser.getAuthorities()
+                        principal.authorities()
                 );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -123,6 +149,7 @@ class UserControllerTest {
                         new PageableHandlerMethodArgumentResolver()
                 )
                 .setControllerAdvice(new GlobalExceptionHandler())
+                .addInterceptors(new RateLimitInterceptor(rateLimiter))
                 .build();
     }
 
@@ -165,6 +192,57 @@ class UserControllerTest {
                 .andExpect(content().string(BigDecimal.valueOf(1000).toString()));
     }
 
+    @Test
+    void scrollUserCards_WhenCursorGiven_ShouldReturnCursorPage() throws Exception {
+        when(cardServiceImpl.scrollUserCards(1L, null, "", 50))
+                .thenReturn(new CursorPage<>(List.of(testCard), "next"));
+
+        mockMvc.perform(get("/api/v1/user/cards")
+                        .param("cursor", "")
+                        .param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].cardNumber").value(testCard.getCardNumber()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        verify(cardServiceImpl, never()).getUserCards(any(), any(), any());
+    }
+
+    @Test
+    void searchUserCards_ShouldReturnRankedCards() throws Exception {
+        when(cardServiceImpl.searchUserCards(1L, "doe", 20)).thenReturn(List.of(testCard));
+
+        mockMvc.perform(get("/api/v1/user/cards/search").param("query", "doe"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cardNumber").value(testCard.getCardNumber()));
+    }
+
+    @Test
+    void getCardTransactions_ShouldReturnPage() throws Exception {
+        CardTransactionDTO transaction = new CardTransactionDTO(5L, TransactionType.TRANSFER_OUT,
+                new BigDecimal("-10.00"), new BigDecimal("990.00"), LocalDateTime.of(2026, 5, 1, 12, 0));
+        when(cardServiceImpl.getCardTransactions(1L, testCardNumber, "abc", 10))
+                .thenReturn(new CursorPage<>(List.of(transaction), "next"));
+
+        mockMvc.perform(get("/api/v1/user/cards/{cardNumber}/transactions", testCardNumber)
+                        .param("cursor", "abc")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].transactionId").value(5))
+                .andExpect(jsonPath("$.items[0].type").value("TRANSFER_OUT"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getCardBalance_WhenRateLimited_ShouldReturnTooManyRequests() throws Exception {
+        when(rateLimiter.tryAcquire(1L, "GET", "/api/v1/user/cards/" + testCardNumber + "/balance"))
+                .thenReturn(1_500_000_000L);
+
+        mockMvc.perform(get("/api/v1/user/cards/{cardNumber}/balance", testCardNumber))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        verifyNoInteractions(cardServiceImpl);
+    }
+
     @Test
     @WithMockUser(username = "user@example.com", roles = "USER")
     void blockCard_ShouldReturnOk() throws Exception {
@@ -205,6 +283,117 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.toCard.cardNumber").value("**** **** **** " + testToCardNumber));
     }
 
+    @Test
+    void transferBetweenCards_WithIdempotencyKey_ShouldDelegateToIdempotencyService() throws Exception {
+        TransferRequest request = new TransferRequest(testCardNumber, "5678", testAmount);
+        TransferResponse response = new TransferResponse(testCard, testCard);
+
+        when(transferIdempotencyService.execute(eq(1L), eq("key-1"), any(TransferRequest.class), any()))
+                .thenReturn(response);
+
+        mockMvc.perform(post("/api/v1/user/transfer")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromCard.cardNumber").value("**** **** **** " + testCardNumber));
+
+        verifyNoInteractions(transferServiceImpl);
+    }
+
+    @Test
+    void transferBetweenCards_WhenIdempotencyKeyReused_ShouldReturnUnprocessableEntity() throws Exception {
+        TransferRequest request = new TransferRequest(testCardNumber, "5678", testAmount);
+
+        when(transferIdempotencyService.execute(eq(1L), eq("key-1"), any(TransferRequest.class), any()))
+                .thenThrow(new IdempotencyKeyMismatchException("key-1"));
+
+        mockMvc.perform(post("/api/v1/user/transfer")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void transferBetweenCards_WhenAsyncPreferred_ShouldReturnAccepted() throws Exception {
+        TransferRequest request = new TransferRequest(testCardNumber, "5678", testAmount);
+        UUID transferId = UUID.randomUUID();
+        when(asyncTransferService.submit(eq(1L), any()))
+                .thenReturn(new TransferStatusDTO(transferId, TransferStatus.PENDING, null, null));
+
+        mockMvc.perform(post("/api/v1/user/transfer")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/user/transfers/" + transferId))
+                .andExpect(jsonPath("$.transferId").value(transferId.toString()))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verifyNoInteractions(transferServiceImpl);
+    }
+
+    @Test
+    void getTransferStatus_ShouldReturnStatus() throws Exception {
+        UUID transferId = UUID.randomUUID();
+        when(asyncTransferService.getStatus(1L, transferId))
+                .thenReturn(new TransferStatusDTO(transferId, TransferStatus.REJECTED, null, "Insufficient funds"));
+
+        mockMvc.perform(get("/api/v1/user/transfers/{transferId}", transferId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.error").value("Insufficient funds"));
+    }
+
+    @Test
+    void transferToUser_ShouldReturnSenderCardOnly() throws Exception {
+        P2PTransferRequest request = new P2PTransferRequest(testCardNumber, 2L, "5678", testAmount);
+        when(transferServiceImpl.transferToUser(1L, testCardNumber, 2L, "5678", testAmount))
+                .thenReturn(new P2PTransferResponse(testCard, 2L, "**** **** **** 5678", testAmount));
+
+        mockMvc.perform(post("/api/v1/user/transfers/p2p")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromCard.cardNumber").value("**** **** **** " + testCardNumber))
+                .andExpect(jsonPath("$.recipientId").value(2))
+                .andExpect(jsonPath("$.toCardNumber").value("**** **** **** 5678"));
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com", roles = "USER")
+    void transferBatch_ShouldReturnPerItemResults() throws Exception {
+        List<TransferRequest> transfers = List.of(
+                new TransferRequest(testCardNumber, "5678", testAmount),
+                new TransferRequest(testCardNumber, "5678", BigDecimal.valueOf(5000)));
+        BatchTransferResponse response = new BatchTransferResponse(1, 1, List.of(
+                new BatchTransferItemResult(0, true, new TransferResponse(testCard, testCard), null),
+                new BatchTransferItemResult(1, false, null, "Insufficient funds")));
+
+        when(transferServiceImpl.transferBatch(eq(1L), anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/v1/user/transfers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchTransferRequest(transfers))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[1].error").value("Insufficient funds"));
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com", roles = "USER")
+    void transferBatch_WhenEmpty_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/user/transfers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchTransferRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transferServiceImpl);
+    }
+
     @Test
     @WithMockUser(username = "user@example.com", roles = "USER")
     void getUserProfile_ShouldReturnUserProfile() throws Exception {
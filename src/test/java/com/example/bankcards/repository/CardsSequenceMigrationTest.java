@@ -0,0 +1,107 @@
+package com.example.bankcards.repository;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что последовательность cards_seq после миграций выдает идентификаторы
+ * выше уже существующих card_id с учетом pooled-оптимизатора Hibernate.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CardsSequenceMigrationTest {
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Container
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void migrate_WhenCardsExist_ShouldStartFirstBlockAboveMaxCardId() throws Exception {
+        migrate("classpath:/db/changelog/before-cards-sequence.yaml");
+        insertCards(7L, 60L, 120L);
+
+        migrate("classpath:/db/changelog/db.changelog-master.yaml");
+
+        assertThat(allocate(ALLOCATION_SIZE + 1)).allMatch(id -> id > 120L).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void migrate_OnFreshDatabase_ShouldStartFirstBlockAboveSampleCards() throws Exception {
+        migrate("classpath:/db/changelog/db.changelog-master.yaml");
+        Long maxCardId = jdbcTemplate.queryForObject("SELECT max(card_id) FROM cards", Long.class);
+
+        assertThat(allocate(ALLOCATION_SIZE + 1)).allMatch(id -> id > maxCardId).doesNotHaveDuplicates();
+    }
+
+    private void migrate(String changeLog) throws Exception {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(changeLog);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+
+    /**
+     * Добавляет карты с заданными card_id пользователю из тестовых данных миграций.
+     */
+    private void insertCards(Long... cardIds) {
+        for (Long cardId : cardIds) {
+            jdbcTemplate.update("""
+                    INSERT INTO cards (card_id, card_number, card_holder, expiry_date, balance, status, user_id, last4)
+                    VALUES (?, 'encrypted', 'IVAN IVANOV', DATE '2030-01-01', 0, 'ACTIVE', 1, ?)
+                    """, cardId, cardId.shortValue());
+        }
+    }
+
+    /**
+     * Выдает идентификаторы так же, как Hibernate для {@code Card.cardId}.
+     */
+    private List<Long> allocate(int count) {
+        Optimizer optimizer = OptimizerFactory.buildOptimizer(
+                StandardOptimizerDescriptor.POOLED, Long.class, ALLOCATION_SIZE, 1);
+        AccessCallback callback = new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                Long next = jdbcTemplate.queryForObject("SELECT nextval('cards_seq')", Long.class);
+                return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(next);
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return null;
+            }
+        };
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add((Long) optimizer.generate(callback));
+        }
+        return ids;
+    }
+}
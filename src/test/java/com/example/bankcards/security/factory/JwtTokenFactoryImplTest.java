@@ -1,6 +1,8 @@
 package com.example.bankcards.security.factory;
 
+import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.security.principal.UserPrincipal;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
@@ -69,4 +71,23 @@ class JwtTokenFactoryImplTest {
         assertThat(claims.getPayload().getSubject()).isEqualTo(testUser.getEmail());
         assertThat(claims.getPayload().get("authorities")).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    void createAccessToken_ShouldCarryUserIdAndRoleForStatelessPrincipal() {
+        testUser.setRole(Role.ADMIN);
+
+        String token = jwtTokenFactory.createAccessToken(testUser, List.of("ROLE_ADMIN"));
+
+        Claims claims = Jwts.parser()
+                .verifyWith(secretKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        UserPrincipal principal = UserPrincipal.fromClaims(claims).orElseThrow();
+
+        assertThat(principal.userId()).isEqualTo(1L);
+        assertThat(principal.email()).isEqualTo(testUser.getEmail());
+        assertThat(principal.role()).isEqualTo(Role.ADMIN);
+        assertThat(principal.refreshTokenHash()).isNull();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.bankcards.security.filter;
+
+import com.example.bankcards.config.JwtConfig;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.security.factory.JwtTokenFactory;
+import com.example.bankcards.security.parser.JwtParser;
+import com.example.bankcards.security.principal.PrincipalCache;
+import com.example.bankcards.security.principal.UserPrincipal;
+import com.example.bankcards.security.validator.JwtTokenValidator;
+import com.example.bankcards.util.TokenDigests;
+import com.example.bankcards.util.TokenFingerprint;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthFilterTest {
+    private static final String EMAIL = "john@example.com";
+    private static final String ACCESS_TOKEN = "access-token";
+    private static final String REFRESH_TOKEN = "refresh-token";
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private JwtParser jwtParser;
+
+    @Mock
+    private JwtTokenValidator jwtTokenValidator;
+
+    private JwtConfig jwtConfig;
+    private JwtAuthFilter filter;
+    private Claims claims;
+
+    @BeforeEach
+    void setUp() {
+        jwtConfig = new JwtConfig();
+        filter = new JwtAuthFilter(principalCache, jwtParser, jwtTokenValidator, jwtConfig);
+        claims = Jwts.claims()
+                .subject(EMAIL)
+                .add(JwtTokenFactory.USER_ID_CLAIM, 7)
+                .add(JwtTokenFactory.ROLE_CLAIM, "USER")
+                .build();
+        when(jwtParser.parseToken(TokenFingerprint.of(ACCESS_TOKEN), ACCESS_TOKEN)).thenReturn(claims);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessMode_ShouldAuthenticateFromClaimsWithoutLoadingUser() throws Exception {
+        jwtConfig.setStatelessPrincipal(true);
+        MockFilterChain chain = new MockFilterChain();
+        Authentication[] authentication = new Authentication[1];
+
+        filter.doFilter(request("/api/v1/user/cards", null), new MockHttpServletResponse(),
+                (req, res) -> authentication[0] = SecurityContextHolder.getContext().getAuthentication());
+
+        UserPrincipal principal = (UserPrincipal) authentication[0].getPrincipal();
+        assertThat(principal.userId()).isEqualTo(7L);
+        assertThat(principal.role()).isEqualTo(Role.USER);
+        verifyNoInteractions(principalCache);
+    }
+
+    @Test
+    void statelessMode_OnRefresh_ShouldCheckRefreshTokenHash() throws Exception {
+        jwtConfig.setStatelessPrincipal(true);
+        when(principalCache.get(EMAIL)).thenReturn(Optional.of(storedPrincipal()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/v1/auth/refresh", "other-token"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getErrorMessage()).isEqualTo("Invalid refresh token!");
+    }
+
+    @Test
+    void defaultMode_ShouldLoadUserAndRequireRefreshToken() throws Exception {
+        when(principalCache.get(EMAIL)).thenReturn(Optional.of(storedPrincipal()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/v1/user/cards", null), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getErrorMessage()).isEqualTo("Refresh token required!");
+    }
+
+    @Test
+    void revokedAccessToken_ShouldBeRejected() throws Exception {
+        jwtConfig.setStatelessPrincipal(true);
+        when(jwtTokenValidator.isTokenRevoked(TokenFingerprint.of(ACCESS_TOKEN))).thenReturn(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/v1/user/cards", REFRESH_TOKEN), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        verifyNoInteractions(principalCache);
+    }
+
+    private MockHttpServletRequest request(String path, String refreshToken) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", "Bearer " + ACCESS_TOKEN);
+        if (refreshToken != null) {
+            request.setCookies(new Cookie("__Host-refresh", refreshToken));
+        }
+        return request;
+    }
+
+    private UserPrincipal storedPrincipal() {
+        return new UserPrincipal(7L, EMAIL, Role.USER, TokenDigests.sha256(REFRESH_TOKEN));
+    }
+}
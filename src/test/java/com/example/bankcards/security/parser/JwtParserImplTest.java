@@ -1,7 +1,9 @@
 package com.example.bankcards.security.parser;
 
+import com.example.bankcards.config.VerifiedTokenCacheConfig;
 import com.example.bankcards.exception.auth.InvalidTokenException;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,7 +26,7 @@ class JwtParserImplTest {
     @BeforeEach
     void setUp() {
         testKey = Keys.hmacShaKeyFor("test-secret-key-1234567890-1234567890".getBytes());
-        jwtParser = new JwtParserImpl(testKey);
+        jwtParser = new JwtParserImpl(testKey, new VerifiedTokenCacheConfig(), new SimpleMeterRegistry());
     }
 
     @Test
@@ -111,4 +113,32 @@ class JwtParserImplTest {
 
         assertFalse(isExpired);
     }
-}
\ No newline at end of file
+
+    @Test
+    void parseToken_WithSameToken_ShouldReturnCachedClaims() {
+        String token = Jwts.builder()
+                .subject(testSubject)
+                .expiration(new Date(System.currentTimeMillis() + 10000))
+                .signWith(testKey)
+                .compact();
+
+        Claims first = jwtParser.parseToken(token);
+        Claims second = jwtParser.parseToken(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void parseToken_WithTamperedSignature_ShouldNotUseCachedClaims() {
+        String token = Jwts.builder()
+                .subject(testSubject)
+                .expiration(new Date(System.currentTimeMillis() + 10000))
+                .signWith(testKey)
+                .compact();
+        jwtParser.parseToken(token);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(InvalidTokenException.class, () -> jwtParser.parseToken(tampered));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bankcards.security.principal;
+
+import com.example.bankcards.config.PrincipalCacheConfig;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.cluster.ClusterEvent;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+    private static final String EMAIL = "john@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ClusterEventPublisher publisher;
+
+    private PrincipalCache principalCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(new PrincipalCacheConfig(), userRepository, publisher, new SimpleMeterRegistry());
+        user = User.builder()
+                .userId(1L)
+                .email(EMAIL)
+                .role(Role.USER)
+                .refreshToken("refresh-token")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldLoadUserOnceAndKeepOnlyRefreshTokenHash() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        UserPrincipal first = principalCache.get(EMAIL).orElseThrow();
+        UserPrincipal second = principalCache.get(EMAIL).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.userId()).isEqualTo(1L);
+        assertThat(first.authorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        assertThat(first.refreshTokenMatches("refresh-token")).isTrue();
+        assertThat(first.refreshTokenMatches("other-token")).isFalse();
+        assertThat(first.refreshTokenMatches(null)).isFalse();
+        verify(userRepository).findByEmail(EMAIL);
+    }
+
+    @Test
+    void get_WhenUserMissing_ShouldNotCacheAbsence() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        assertThat(principalCache.get(EMAIL)).isEmpty();
+        assertThat(principalCache.get(EMAIL)).isEmpty();
+
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void evict_InTransaction_ShouldInvalidateAfterCompletion() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        principalCache.get(EMAIL);
+        TransactionSynchronizationManager.initSynchronization();
+
+        principalCache.evict(EMAIL);
+        principalCache.get(EMAIL);
+        verify(userRepository).findByEmail(EMAIL);
+        verify(publisher).publish(new ClusterEvent.PrincipalChanged(EMAIL));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        user.setRefreshToken(null);
+        assertThat(principalCache.get(EMAIL).orElseThrow().refreshTokenMatches("refresh-token")).isFalse();
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void invalidate_ShouldDropUserOnlyLocally() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        principalCache.get(EMAIL);
+
+        principalCache.invalidate(EMAIL);
+        principalCache.get(EMAIL);
+
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+        verifyNoInteractions(publisher);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bankcards.security.principal;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPrincipalTest {
+
+    private final User user = User.builder()
+            .userId(1L)
+            .email("user@example.com")
+            .role(Role.USER)
+            .refreshToken("refresh-token")
+            .build();
+
+    @Test
+    void equals_ShouldCompareRefreshTokenHashByContent() {
+        UserPrincipal first = UserPrincipal.of(user);
+        UserPrincipal second = UserPrincipal.of(user);
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first).hasSameHashCodeAs(second);
+    }
+
+    @Test
+    void equals_WhenRefreshTokenDiffers_ShouldNotBeEqual() {
+        UserPrincipal first = UserPrincipal.of(user);
+        user.setRefreshToken("other-token");
+
+        assertThat(first).isNotEqualTo(UserPrincipal.of(user));
+    }
+
+    @Test
+    void toString_ShouldNotExposeRefreshTokenHash() {
+        assertThat(UserPrincipal.of(user).toString())
+                .isEqualTo("UserPrincipal[userId=1, email=user@example.com, role=USER]");
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.bankcards.security.ratelimit;
+
+import com.example.bankcards.config.RateLimitConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterImplTest {
+
+    private static final String TRANSFER = "/api/v1/user/transfer";
+    private static final String BALANCE = "/api/v1/user/cards/1234/balance";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private RateLimiterImpl rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitConfig config = new RateLimitConfig();
+        config.getRoutes().put("transfer", route("POST", List.of(TRANSFER), 3, 1));
+        config.getRoutes().put("balance", route("GET", List.of("/api/v1/user/cards/*/balance"), 2, 10));
+        rateLimiter = new RateLimiterImpl(config, clock::get);
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowBurstUpToCapacity() {
+        assertThat(rateLimiter.tryAcquire(1L, "POST", TRANSFER)).isZero();
+        assertThat(rateLimiter.tryAcquire(1L, "POST", TRANSFER)).isZero();
+        assertThat(rateLimiter.tryAcquire(1L, "POST", TRANSFER)).isZero();
+
+        long wait = rateLimiter.tryAcquire(1L, "POST", TRANSFER);
+
+        assertThat(wait).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(1L, "POST", TRANSFER);
+        }
+        assertThat(rateLimiter.tryAcquire(1L, "POST", TRANSFER)).isPositive();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(rateLimiter.tryAcquire(1L, "POST", TRANSFER)).isZero();
+        assertThat(rateLimiter.tryAcquire(1L, "POST", TRANSFER)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepSeparateBucketsPerUserAndRoute() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(1L, "POST", TRANSFER);
+        }
+
+        assertThat(rateLimiter.tryAcquire(1L, "POST", TRANSFER)).isPositive();
+        assertThat(rateLimiter.tryAcquire(2L, "POST", TRANSFER)).isZero();
+        assertThat(rateLimiter.tryAcquire(1L, "GET", BALANCE)).isZero();
+    }
+
+    @Test
+    void tryAcquire_WhenRouteNotLimited_ShouldAllow() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(rateLimiter.tryAcquire(1L, "GET", "/api/v1/user/profile")).isZero();
+            assertThat(rateLimiter.tryAcquire(1L, "GET", TRANSFER)).isZero();
+        }
+    }
+
+    @Test
+    void tryAcquire_WhenConcurrent_ShouldNotExceedCapacity() throws Exception {
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 200; i++) {
+                executor.execute(() -> {
+                    if (rateLimiter.tryAcquire(1L, "GET", BALANCE) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(allowed).hasValue(2);
+    }
+
+    private static RateLimitConfig.Route route(String method, List<String> patterns, int capacity, double refill) {
+        RateLimitConfig.Route route = new RateLimitConfig.Route();
+        route.setMethod(method);
+        route.setPatterns(patterns);
+        route.setCapacity(capacity);
+        route.setRefillPerSecond(refill);
+        return route;
+    }
+}
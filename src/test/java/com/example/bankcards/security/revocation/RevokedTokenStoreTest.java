@@ -0,0 +1,123 @@
+package com.example.bankcards.security.revocation;
+
+import com.example.bankcards.config.RevocationConfig;
+import com.example.bankcards.util.TokenFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RevokedTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        RevocationConfig config = new RevocationConfig();
+        config.setExpectedTokens(1000);
+        config.setSweepInterval(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        store = new RevokedTokenStore(config, meterRegistry);
+    }
+
+    @Test
+    void revoke_ShouldMarkOnlyThatTokenRevoked() {
+        store.revoke("token.a", Instant.now().plusSeconds(600));
+
+        assertThat(store.isRevoked("token.a")).isTrue();
+        assertThat(store.isRevoked("token.b")).isFalse();
+        assertThat(meterRegistry.get("bank.auth.revoked-tokens").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void revoke_WhenTokenAlreadyExpired_ShouldNotStoreIt() {
+        store.revoke("token.a", Instant.now().minusSeconds(1));
+
+        assertThat(store.isRevoked("token.a")).isFalse();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void sweep_ShouldRemoveOnlyTokensFromElapsedSlots() {
+        Instant now = Instant.now();
+        store.revoke("short.lived", now.plusSeconds(120));
+        store.revoke("long.lived", now.plusSeconds(3600));
+
+        assertThat(store.sweep(now.plusSeconds(300))).isEqualTo(1);
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.isRevoked("long.lived")).isTrue();
+    }
+
+    @Test
+    void sweep_ShouldKeepRevocationsAfterRebuildingFilter() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 500; i++) {
+            store.revoke("expiring." + i, now.plusSeconds(120));
+            store.revoke("active." + i, now.plusSeconds(3600));
+        }
+
+        store.sweep(now.plusSeconds(300));
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(store.isRevoked("active." + i)).isTrue();
+        }
+        assertThat(store.size()).isEqualTo(500);
+    }
+
+    @Test
+    void isRevoked_ByFingerprint_ShouldMatchTokenCheck() {
+        store.revoke("token.a", Instant.now().plusSeconds(600));
+
+        assertThat(store.isRevoked(TokenFingerprint.of("token.a"))).isTrue();
+        assertThat(store.isRevoked(TokenFingerprint.of("token.b"))).isFalse();
+    }
+
+    @Test
+    void sweep_WhenTokensRevokedConcurrently_ShouldNotLoseThem() throws Exception {
+        Instant now = Instant.now();
+        for (int i = 0; i < 5_000; i++) {
+            store.revoke("active." + i, now.plusSeconds(3600));
+        }
+        Thread revoker = new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                store.revoke("concurrent." + i, now.plusSeconds(3600));
+            }
+        });
+
+        revoker.start();
+        for (int round = 0; revoker.isAlive() && round < 1_000; round++) {
+            store.revoke("expiring." + round, now.plusSeconds(60));
+            store.sweep(now.plusSeconds(300));
+        }
+        revoker.join();
+
+        for (int i = 0; i < 2_000; i++) {
+            assertThat(store.isRevoked("concurrent." + i)).isTrue();
+        }
+    }
+
+    @Test
+    void bloomFilter_ShouldHaveNoFalseNegativesAndFewFalsePositives() {
+        TokenBloomFilter filter = new TokenBloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(TokenFingerprint.of("revoked." + i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain(TokenFingerprint.of("revoked." + i))).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(TokenFingerprint.of("unknown." + i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bankcards.security.revocation;
+
+import com.example.bankcards.config.ClusterConfig;
+import com.example.bankcards.config.RevocationConfig;
+import com.example.bankcards.entity.RevokedToken;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import com.example.bankcards.service.cluster.ClusterEvent;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import com.example.bankcards.util.TokenFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository repository;
+
+    @Mock
+    private ClusterEventPublisher publisher;
+
+    private TokenRevocationService revocations;
+
+    @BeforeEach
+    void setUp() {
+        RevocationConfig config = new RevocationConfig();
+        config.setExpectedTokens(1000);
+        ClusterConfig clusterConfig = new ClusterConfig();
+        clusterConfig.setCatchUpOverlap(Duration.ofMinutes(1));
+        revocations = new TokenRevocationService(
+                new RevokedTokenStore(config, new SimpleMeterRegistry()), repository, publisher, clusterConfig);
+    }
+
+    @Test
+    void revoke_ShouldStoreLocallyPersistAndPublish() {
+        Instant expiresAt = Instant.now().plusSeconds(600).truncatedTo(ChronoUnit.MILLIS);
+        TokenFingerprint key = TokenFingerprint.of("token.a");
+
+        revocations.revoke("token.a", Date.from(expiresAt));
+
+        assertThat(revocations.isRevoked("token.a")).isTrue();
+        verify(repository).insert(eq(key.toHex()), eq(expiresAt), any(Instant.class));
+        verify(publisher).publish(new ClusterEvent.TokenRevoked(key, expiresAt.toEpochMilli()));
+    }
+
+    @Test
+    void revoke_WhenTokenExpired_ShouldDoNothing() {
+        revocations.revoke("token.a", Date.from(Instant.now().minusSeconds(1)));
+
+        assertThat(revocations.isRevoked("token.a")).isFalse();
+        verifyNoInteractions(repository, publisher);
+    }
+
+    @Test
+    void apply_ShouldRevokeTokenReceivedFromOtherNode() {
+        revocations.apply(TokenFingerprint.of("token.a"), Instant.now().plusSeconds(600).toEpochMilli());
+
+        assertThat(revocations.isRevoked("token.a")).isTrue();
+        verifyNoInteractions(repository, publisher);
+    }
+
+    @Test
+    void catchUp_ShouldLoadAllFirstAndThenOnlyRecentRevocationsWithOverlap() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        when(repository.findActiveRevokedSince(eq(Instant.EPOCH), any(Instant.class)))
+                .thenReturn(List.of(new RevokedToken(TokenFingerprint.of("token.a").toHex(), expiresAt, Instant.now())));
+
+        assertThat(revocations.catchUp()).isEqualTo(1);
+        assertThat(revocations.isRevoked("token.a")).isTrue();
+
+        Instant beforeSecond = Instant.now();
+        revocations.catchUp();
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        verify(repository, times(2)).findActiveRevokedSince(since.capture(), any(Instant.class));
+        assertThat(since.getAllValues().get(1)).isBefore(beforeSecond.minusSeconds(59));
+        assertThat(since.getAllValues().get(1)).isAfter(Instant.EPOCH);
+    }
+}
@@ -7,6 +7,7 @@ import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.factory.JwtTokenFactory;
+import com.example.bankcards.security.principal.PrincipalCache;
 import com.example.bankcards.util.Mapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,6 +43,9 @@ class JwtServiceImplTest {
     @Mock
     private JwtTokenFactory jwtTokenFactory;
 
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private JwtServiceImpl jwtServiceImpl;
 
@@ -75,6 +79,7 @@ class JwtServiceImplTest {
         assertEquals(userDTO, response.getUserDTO());
 
         verify(userRepository).save(testUser);
+        verify(principalCache).evict("test@example.com");
         assertNotNull(testUser.getRefreshToken());
         assertNotNull(testUser.getRefreshTokenExpiry());
     }
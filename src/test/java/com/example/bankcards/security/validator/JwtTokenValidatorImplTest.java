@@ -1,15 +1,22 @@
 package com.example.bankcards.security.validator;
 
+import com.example.bankcards.config.ClusterConfig;
+import com.example.bankcards.config.RevocationConfig;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.security.parser.JwtParser;
-import com.example.bankcards.security.validator.JwtTokenValidatorImpl;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import com.example.bankcards.security.revocation.RevokedTokenStore;
+import com.example.bankcards.security.revocation.TokenRevocationService;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Date;
+
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.lenient;
@@ -21,12 +28,22 @@ class JwtTokenValidatorImplTest {
     @Mock
     private JwtParser jwtParser;
 
-    @InjectMocks
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private ClusterEventPublisher publisher;
+
     private JwtTokenValidatorImpl jwtTokenValidator;
     private User testUser;
 
     @BeforeEach
     void setUp() {
+        RevocationConfig config = new RevocationConfig();
+        config.setExpectedTokens(1000);
+        RevokedTokenStore store = new RevokedTokenStore(config, new SimpleMeterRegistry());
+        jwtTokenValidator = new JwtTokenValidatorImpl(
+                new TokenRevocationService(store, revokedTokenRepository, publisher, new ClusterConfig()), jwtParser);
         testUser = User.builder()
                 .email("test@example.com")
                 .build();
@@ -35,7 +52,7 @@ class JwtTokenValidatorImplTest {
     @Test
     void revokeToken_WhenTokenNotExpired_ShouldAddToRevokedTokens() {
         String token = "valid.token";
-        when(jwtParser.isTokenExpired(token)).thenReturn(false);
+        when(jwtParser.extractExpiration(token)).thenReturn(new Date(System.currentTimeMillis() + 60_000));
 
         jwtTokenValidator.revokeToken(token);
 
@@ -45,7 +62,7 @@ class JwtTokenValidatorImplTest {
     @Test
     void revokeToken_WhenTokenExpired_ShouldNotAddToRevokedTokens() {
         String token = "expired.token";
-        when(jwtParser.isTokenExpired(token)).thenReturn(true);
+        when(jwtParser.extractExpiration(token)).thenReturn(new Date(System.currentTimeMillis() - 60_000));
 
         jwtTokenValidator.revokeToken(token);
 
@@ -58,7 +75,7 @@ class JwtTokenValidatorImplTest {
         when(jwtParser.extractUsername(token)).thenReturn("test@example.com");
         when(jwtParser.isTokenExpired(token)).thenReturn(false);
 
-        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser);
+        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser.getEmail());
 
         assertTrue(isValid);
     }
@@ -68,7 +85,7 @@ class JwtTokenValidatorImplTest {
         String token = "valid.token";
         when(jwtParser.extractUsername(token)).thenReturn("other@example.com");
 
-        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser);
+        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser.getEmail());
 
         assertFalse(isValid);
     }
@@ -76,12 +93,13 @@ class JwtTokenValidatorImplTest {
     @Test
     void isTokenValid_WhenTokenRevoked_ShouldReturnFalse() {
         String token = "revoked.token";
+        when(jwtParser.extractExpiration(token)).thenReturn(new Date(System.currentTimeMillis() + 60_000));
         jwtTokenValidator.revokeToken(token);
 
         lenient().when(jwtParser.extractUsername(token)).thenReturn("test@example.com");
         lenient().when(jwtParser.isTokenExpired(token)).thenReturn(false);
 
-        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser);
+        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser.getEmail());
 
         assertFalse(isValid);
     }
@@ -92,7 +110,7 @@ class JwtTokenValidatorImplTest {
         when(jwtParser.extractUsername(token)).thenReturn("test@example.com");
         when(jwtParser.isTokenExpired(token)).thenReturn(true);
 
-        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser);
+        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser.getEmail());
 
         assertFalse(isValid);
     }
@@ -102,7 +120,7 @@ class JwtTokenValidatorImplTest {
         String token = "invalid.token";
         when(jwtParser.extractUsername(token)).thenThrow(new RuntimeException("Parsing failed"));
 
-        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser);
+        boolean isValid = jwtTokenValidator.isTokenValid(token, testUser.getEmail());
 
         assertFalse(isValid);
     }
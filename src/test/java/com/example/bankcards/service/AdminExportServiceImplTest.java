@@ -0,0 +1,104 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.ExportFormat;
+import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.users.UserDTO;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.admin.AdminExportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdminExportServiceImplTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AdminExportServiceImpl adminExportService;
+    private ByteArrayOutputStream out;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        adminExportService = new AdminExportServiceImpl(cardRepository, userRepository, objectMapper);
+        out = new ByteArrayOutputStream();
+    }
+
+    @Test
+    void exportCards_Ndjson_ShouldWriteOneObjectPerLineAndCloseStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(cardRepository.streamAllCardDTOs()).thenReturn(Stream.of(
+                card("**** **** **** 1111", "John Doe"),
+                card("**** **** **** 2222", "Jane Doe")
+        ).onClose(() -> closed.set(true)));
+
+        adminExportService.exportCards(ExportFormat.NDJSON, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"cardNumber\":\"**** **** **** 1111\",\"expiryDate\":\"2030-01-31\",\"cardHolder\":\"John Doe\",\"balance\":10.50,\"status\":\"ACTIVE\"}\n"
+                        + "{\"cardNumber\":\"**** **** **** 2222\",\"expiryDate\":\"2030-01-31\",\"cardHolder\":\"Jane Doe\",\"balance\":10.50,\"status\":\"ACTIVE\"}\n");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportCards_Csv_ShouldQuoteSpecialCharacters() throws Exception {
+        when(cardRepository.streamAllCardDTOs()).thenReturn(Stream.of(card("**** **** **** 1111", "Doe, \"Johnny\"")));
+
+        adminExportService.exportCards(ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "cardNumber,expiryDate,cardHolder,balance,status\r\n"
+                        + "**** **** **** 1111,2030-01-31,\"Doe, \"\"Johnny\"\"\",10.50,ACTIVE\r\n");
+    }
+
+    @Test
+    void exportUsers_Csv_ShouldLeaveNullFieldsEmpty() throws Exception {
+        when(userRepository.streamAllUserDTOs()).thenReturn(Stream.of(new UserDTO(
+                1L, "John", "Doe", null, LocalDate.of(1990, 1, 1), "john@example.com",
+                LocalDateTime.of(2025, 1, 1, 12, 0))));
+
+        adminExportService.exportUsers(ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,name,surname,patronymic,birthday,email,createdAt\r\n"
+                        + "1,John,Doe,,1990-01-01,john@example.com,2025-01-01T12:00\r\n");
+    }
+
+    @Test
+    void exportUsers_Ndjson_WhenNoUsers_ShouldWriteNothing() throws Exception {
+        when(userRepository.streamAllUserDTOs()).thenReturn(Stream.empty());
+
+        adminExportService.exportUsers(ExportFormat.NDJSON, out);
+
+        assertThat(out.size()).isZero();
+    }
+
+    private CardDTO card(String cardNumber, String cardHolder) {
+        return new CardDTO(cardNumber, LocalDate.of(2030, 1, 31), cardHolder,
+                new BigDecimal("10.50"), CardStatus.ACTIVE);
+    }
+}
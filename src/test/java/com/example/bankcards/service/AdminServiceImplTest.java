@@ -1,5 +1,7 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.cards.AdminCardFilter;
 import com.example.bankcards.dto.cards.CardDTO;
 import com.example.bankcards.dto.users.UpdateUserRequest;
 import com.example.bankcards.dto.users.UserDTO;
@@ -7,14 +9,21 @@ import com.example.bankcards.dto.users.UserRegisterRequest;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.TransactionType;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidCursorException;
 import com.example.bankcards.exception.cards.CardOperationException;
 import com.example.bankcards.exception.users.EmailBusyException;
 import com.example.bankcards.exception.users.UserExistsException;
 import com.example.bankcards.exception.users.UserNotFoundException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.principal.PrincipalCache;
+import com.example.bankcards.service.cards.CardBalanceCache;
 import com.example.bankcards.service.admin.AdminServiceImpl;
+import com.example.bankcards.service.cards.CardResolver;
+import com.example.bankcards.util.KeysetCursor;
 import com.example.bankcards.util.Mapper;
 import com.example.bankcards.util.generatorNumbers.CardNumberGenerator;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +32,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.math.BigDecimal;
@@ -30,6 +42,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -53,6 +66,18 @@ class AdminServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CardTransactionRepository cardTransactionRepository;
+
+    @Mock
+    private CardBalanceCache balanceCache;
+
+    @Mock
+    private CardResolver cardResolver;
+
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private AdminServiceImpl adminService;
 
@@ -104,20 +129,20 @@ class AdminServiceImplTest {
     //Cards
     @Test
     void createCard_ShouldCreateNewCard() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardNumberGenerator.generateNumber()).thenReturn("1234567890123456");
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testUser));
+        when(cardRepository.findLast4ByUserId(1L)).thenReturn(Set.of((short) 3456));
+        when(cardNumberGenerator.generateNumber(Set.of((short) 3456))).thenReturn("**** **** **** 7890");
         when(mapper.toCardDTO(any(Card.class))).thenReturn(cardDTO);
 
         CardDTO result = adminService.createCard(1L);
 
         assertThat(result).isEqualTo(cardDTO);
-        verify(cardRepository).save(any(Card.class));
-        verify(cardNumberGenerator).generateNumber();
+        verify(cardRepository).save(argThat(card -> "**** **** **** 7890".equals(card.getCardNumber())));
     }
 
     @Test
     void createCard_WhenUserNotFound_ShouldThrowException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> adminService.createCard(1L))
                 .isInstanceOf(UserNotFoundException.class);
@@ -126,12 +151,9 @@ class AdminServiceImplTest {
     @Test
     void setActiveStatus_ShouldActivateCard() {
         String cardNumber = "3456";
-        String formattedNumber = "**** **** **** 3456";
         testCard.setStatus(CardStatus.BLOCKED);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedNumber, testUser))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolve(1L, cardNumber)).thenReturn(testCard);
         when(mapper.toCardDTO(testCard)).thenReturn(cardDTO);
 
         CardDTO result = adminService.activateCard(1L, cardNumber);
@@ -144,11 +166,8 @@ class AdminServiceImplTest {
     @Test
     void setActiveStatus_WhenCardAlreadyActive_ShouldThrowException() {
         String cardNumber = "3456";
-        String formattedNumber = "**** **** **** 3456";
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedNumber, testUser))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolve(1L, cardNumber)).thenReturn(testCard);
 
         assertThatThrownBy(() -> adminService.activateCard(1L, cardNumber))
                 .isInstanceOf(CardOperationException.class)
@@ -158,11 +177,8 @@ class AdminServiceImplTest {
     @Test
     void blockCard_ShouldBlockActiveCard() {
         String cardNumber = "3456";
-        String formattedNumber = "**** **** **** 3456";
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedNumber, testUser))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolve(1L, cardNumber)).thenReturn(testCard);
         when(mapper.toCardDTO(testCard)).thenReturn(cardDTO);
 
         CardDTO result = adminService.blockCard(1L, cardNumber);
@@ -174,12 +190,9 @@ class AdminServiceImplTest {
     @Test
     void blockCard_WhenCardNotActive_ShouldThrowException() {
         String cardNumber = "3456";
-        String formattedNumber = "**** **** **** 3456";
         testCard.setStatus(CardStatus.BLOCKED);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedNumber, testUser))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolve(1L, cardNumber)).thenReturn(testCard);
 
         assertThatThrownBy(() -> adminService.blockCard(1L, cardNumber))
                 .isInstanceOf(CardOperationException.class)
@@ -189,11 +202,8 @@ class AdminServiceImplTest {
     @Test
     void deleteCard_ShouldDeleteCard() {
         String cardNumber = "3456";
-        String formattedNumber = "**** **** **** 3456";
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedNumber, testUser))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolve(1L, cardNumber)).thenReturn(testCard);
 
         adminService.deleteCard(1L, cardNumber);
 
@@ -202,43 +212,72 @@ class AdminServiceImplTest {
 
     @Test
     void getAllCards_ShouldReturnAllCards() {
-        Card card1 = new Card();
-        card1.setCardNumber("1111222233334444");
-        Card card2 = new Card();
-        card2.setCardNumber("5555666677778888");
-
         CardDTO cardDTO1 = new CardDTO("1111222233334444", LocalDate.now().plusYears(3),
                 "John Doe", BigDecimal.ZERO, CardStatus.ACTIVE);
         CardDTO cardDTO2 = new CardDTO("5555666677778888", LocalDate.now().plusYears(3),
                 "Max Doe", BigDecimal.ZERO, CardStatus.ACTIVE);
 
-        when(cardRepository.findAll()).thenReturn(List.of(card1, card2));
-        when(mapper.toCardDTO(card1)).thenReturn(cardDTO1);
-        when(mapper.toCardDTO(card2)).thenReturn(cardDTO2);
+        when(cardRepository.findAllCardDTOs()).thenReturn(List.of(cardDTO1, cardDTO2));
 
         List<CardDTO> result = adminService.getAllCards();
 
         assertThat(result).hasSize(2);
         assertThat(result).containsExactly(cardDTO1, cardDTO2);
-        verify(cardRepository).findAll();
+        verify(cardRepository, never()).findAll();
+        verifyNoInteractions(mapper);
     }
 
 
     @Test
     void updateUserBalance_ShouldUpdateBalance() {
         String cardNumber = "3456";
-        String formattedNumber = "**** **** **** 3456";
         BigDecimal newBalance = new BigDecimal("1000.00");
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedNumber, testUser))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolve(1L, cardNumber)).thenReturn(testCard);
         when(mapper.toCardDTO(testCard)).thenReturn(cardDTO);
 
         CardDTO result = adminService.updateUserBalance(1L, cardNumber, newBalance);
 
         assertThat(result).isEqualTo(cardDTO);
         assertThat(testCard.getBalance()).isEqualByComparingTo(newBalance);
+        verify(balanceCache).evict(1L, testCard.getLast4());
+        verify(cardTransactionRepository).append(argThat(entries -> entries.size() == 1
+                && entries.getFirst().type() == TransactionType.ADJUSTMENT
+                && entries.getFirst().balanceAfter().compareTo(newBalance) == 0));
+    }
+
+    @Test
+    void searchCards_ShouldSearchAllUsersByNormalizedQuery() {
+        when(cardRepository.search("john", "%john%", 20)).thenReturn(List.of(testCard));
+        when(mapper.toCardDTO(testCard)).thenReturn(cardDTO);
+
+        List<CardDTO> result = adminService.searchCards(" John", 20);
+
+        assertThat(result).containsExactly(cardDTO);
+    }
+
+    @Test
+    void findCards_WhenMoreCardsThanPage_ShouldReturnCursorOfLastCard() {
+        testCard.setCardId(7L);
+        testCard.setExpiryDate(LocalDate.of(2030, 1, 1));
+        when(cardRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testCard), PageRequest.of(0, 1), true));
+        when(mapper.toCardDTO(testCard)).thenReturn(cardDTO);
+
+        AdminCardFilter filter = new AdminCardFilter();
+        filter.setStatus(CardStatus.ACTIVE);
+        filter.setHolderPrefix("Jo");
+        CursorPage<CardDTO> page = adminService.findCards(filter, null, 1);
+
+        assertThat(page.getItems()).containsExactly(cardDTO);
+        assertThat(page.getNextCursor()).isEqualTo(KeysetCursor.encode(LocalDate.of(2030, 1, 1), 7L));
+    }
+
+    @Test
+    void findCards_WhenCursorInvalid_ShouldThrowException() {
+        assertThatThrownBy(() -> adminService.findCards(new AdminCardFilter(), "not-a-cursor", 20))
+                .isInstanceOf(InvalidCursorException.class);
+        verifyNoInteractions(cardRepository);
     }
 
     @Test
@@ -267,12 +306,20 @@ class AdminServiceImplTest {
 
     @Test
     void getUserById_ShouldReturnUser() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(mapper.toDTO(testUser)).thenReturn(userDTO);
+        when(userRepository.findDTOById(1L)).thenReturn(Optional.of(userDTO));
 
         UserDTO result = adminService.getUserById(1L);
 
         assertThat(result).isEqualTo(userDTO);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserById_WhenUserNotFound_ShouldThrowException() {
+        when(userRepository.findDTOById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> adminService.getUserById(1L))
+                .isInstanceOf(UserNotFoundException.class);
     }
 
     @Test
@@ -328,6 +375,7 @@ class AdminServiceImplTest {
 
         assertThat(result).isEqualTo(userDTO);
         verify(userRepository).save(testUser);
+        verify(principalCache).evict("john@example.com");
     }
 
     @Test
@@ -387,5 +435,6 @@ class AdminServiceImplTest {
         adminService.deleteUser(1L);
 
         verify(userRepository).delete(testUser);
+        verify(principalCache).evict(testUser.getEmail());
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.TransferEngineConfig;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.dto.cards.TransferStatus;
+import com.example.bankcards.dto.cards.TransferStatusDTO;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.exception.transfers.TransferNotFoundException;
+import com.example.bankcards.exception.transfers.TransferQueueFullException;
+import com.example.bankcards.service.transfers.AsyncTransferServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncTransferServiceTest {
+
+    private AsyncTransferServiceImpl service;
+    private final Long userId = 1L;
+
+    @BeforeEach
+    void setUp() {
+        TransferEngineConfig config = new TransferEngineConfig();
+        config.getAsync().setMaxInFlight(1);
+        service = new AsyncTransferServiceImpl(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void submit_ShouldCompleteTransferInBackground() throws Exception {
+        TransferResponse response = new TransferResponse();
+
+        TransferStatusDTO accepted = service.submit(userId, () -> response);
+
+        assertThat(accepted.getStatus()).isEqualTo(TransferStatus.PENDING);
+        TransferStatusDTO status = awaitFinished(accepted.getTransferId());
+        assertThat(status.getStatus()).isEqualTo(TransferStatus.COMPLETED);
+        assertThat(status.getTransfer()).isSameAs(response);
+    }
+
+    @Test
+    void submit_WhenTransferRejected_ShouldExposeReason() throws Exception {
+        TransferStatusDTO accepted = service.submit(userId, () -> {
+            throw new CardOperationException("Insufficient funds");
+        });
+
+        TransferStatusDTO status = awaitFinished(accepted.getTransferId());
+        assertThat(status.getStatus()).isEqualTo(TransferStatus.REJECTED);
+        assertThat(status.getError()).isEqualTo("Insufficient funds");
+    }
+
+    @Test
+    void submit_WhenUnexpectedError_ShouldHideDetails() throws Exception {
+        TransferStatusDTO accepted = service.submit(userId, () -> {
+            throw new IllegalStateException("connection refused");
+        });
+
+        TransferStatusDTO status = awaitFinished(accepted.getTransferId());
+        assertThat(status.getStatus()).isEqualTo(TransferStatus.FAILED);
+        assertThat(status.getError()).isEqualTo("An unexpected error occurred");
+    }
+
+    @Test
+    void submit_WhenTooManyInFlight_ShouldReject() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TransferStatusDTO first = service.submit(userId, () -> {
+            await(release);
+            return new TransferResponse();
+        });
+
+        assertThatThrownBy(() -> service.submit(userId, TransferResponse::new))
+                .isInstanceOf(TransferQueueFullException.class);
+
+        release.countDown();
+        awaitFinished(first.getTransferId());
+        assertThat(service.submit(userId, TransferResponse::new).getStatus()).isEqualTo(TransferStatus.PENDING);
+    }
+
+    @Test
+    void getStatus_WhenStatusCacheIsFull_ShouldKeepPendingTransfer() throws Exception {
+        TransferEngineConfig config = new TransferEngineConfig();
+        config.getAsync().setMaxInFlight(2);
+        config.getAsync().setStatusCacheSize(1);
+        AsyncTransferServiceImpl small = new AsyncTransferServiceImpl(config);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            TransferStatusDTO slow = small.submit(userId, () -> {
+                await(release);
+                return new TransferResponse();
+            });
+            for (int i = 0; i < 5; i++) {
+                UUID transferId = small.submit(userId, TransferResponse::new).getTransferId();
+                awaitFinished(small, transferId);
+            }
+
+            assertThat(small.getStatus(userId, slow.getTransferId()).getStatus())
+                    .isEqualTo(TransferStatus.PENDING);
+            release.countDown();
+            assertThat(awaitFinished(small, slow.getTransferId()).getStatus())
+                    .isEqualTo(TransferStatus.COMPLETED);
+        } finally {
+            release.countDown();
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void getStatus_WhenTransferOfAnotherUser_ShouldThrowNotFound() {
+        TransferStatusDTO accepted = service.submit(userId, TransferResponse::new);
+
+        assertThatThrownBy(() -> service.getStatus(2L, accepted.getTransferId()))
+                .isInstanceOf(TransferNotFoundException.class);
+        assertThatThrownBy(() -> service.getStatus(userId, UUID.randomUUID()))
+                .isInstanceOf(TransferNotFoundException.class);
+    }
+
+    private TransferStatusDTO awaitFinished(UUID transferId) throws InterruptedException {
+        return awaitFinished(service, transferId);
+    }
+
+    private TransferStatusDTO awaitFinished(AsyncTransferServiceImpl service, UUID transferId)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        TransferStatusDTO status = service.getStatus(userId, transferId);
+        while (status.getStatus() == TransferStatus.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = service.getStatus(userId, transferId);
+        }
+        // семафор освобождается после записи статуса
+        Thread.sleep(10);
+        return status;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
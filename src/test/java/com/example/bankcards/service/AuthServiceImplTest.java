@@ -12,6 +12,7 @@ import com.example.bankcards.exception.users.UserExistsException;
 import com.example.bankcards.exception.users.UserNotFoundException;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.parser.JwtParser;
+import com.example.bankcards.security.principal.PrincipalCache;
 import com.example.bankcards.security.service.JwtService;
 import com.example.bankcards.security.validator.JwtTokenValidator;
 import com.example.bankcards.service.auth.AuthServiceImpl;
@@ -50,6 +51,9 @@ class AuthServiceImplTest {
     @Mock
     private JwtTokenValidator jwtTokenValidator;
 
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -167,6 +171,7 @@ class AuthServiceImplTest {
 
         verify(jwtTokenValidator).revokeToken("access-token");
         verify(userRepository).save(testUser);
+        verify(principalCache).evict(testUser.getEmail());
         assertThat(testUser.getRefreshToken()).isNull();
     }
 
@@ -193,13 +198,16 @@ class AuthServiceImplTest {
 
         when(jwtParser.extractUsername(refreshToken)).thenReturn("john@example.com");
         when(userRepository.findByEmail("john@example.com")).thenReturn(Optional.of(testUser));
-        when(jwtTokenValidator.isTokenValid(refreshToken, testUser)).thenReturn(true);
+        when(jwtTokenValidator.isTokenValid(refreshToken, testUser.getEmail())).thenReturn(true);
         when(jwtService.generateTokenPair(testUser)).thenReturn(expectedResponse);
+        when(jwtService.extractAccessTokenFromRequest()).thenReturn("old-access");
 
         UserLoginResponse result = authService.refreshToken(refreshToken);
 
         assertThat(result).isEqualTo(expectedResponse);
         assertThat(result.getUserDTO()).isNotNull();
+        verify(jwtTokenValidator).revokeToken(refreshToken);
+        verify(jwtTokenValidator).revokeToken("old-access");
     }
 
     @Test
@@ -242,7 +250,7 @@ class AuthServiceImplTest {
         when(jwtParser.extractUsername(refreshToken)).thenReturn("john@example.com");
         when(userRepository.findByEmail("john@example.com")).thenReturn(Optional.of(testUser));
         when(jwtTokenValidator.isTokenRevoked(refreshToken)).thenReturn(false);
-        when(jwtTokenValidator.isTokenValid(refreshToken, testUser)).thenReturn(false);
+        when(jwtTokenValidator.isTokenValid(refreshToken, testUser.getEmail())).thenReturn(false);
 
         assertThatThrownBy(() -> authService.refreshToken(refreshToken))
                 .isInstanceOf(InvalidTokenException.class)
@@ -258,7 +266,7 @@ class AuthServiceImplTest {
         when(jwtParser.extractUsername(refreshToken)).thenReturn("john@example.com");
         when(userRepository.findByEmail("john@example.com")).thenReturn(Optional.of(testUser));
         when(jwtTokenValidator.isTokenRevoked(refreshToken)).thenReturn(false);
-        when(jwtTokenValidator.isTokenValid(refreshToken, testUser)).thenReturn(false);
+        when(jwtTokenValidator.isTokenValid(refreshToken, testUser.getEmail())).thenReturn(false);
 
         assertThatThrownBy(() -> authService.refreshToken(refreshToken))
                 .isInstanceOf(InvalidTokenException.class)
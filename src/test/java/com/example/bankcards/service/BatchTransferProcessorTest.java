@@ -0,0 +1,197 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.TransactionType;
+import com.example.bankcards.exception.cards.CardNotFoundException;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionEntry;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.repository.CardState;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.service.transfers.BatchTransferProcessor;
+import com.example.bankcards.service.transfers.TransferCommand;
+import com.example.bankcards.service.transfers.TransferOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransferProcessorTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardTransactionRepository cardTransactionRepository;
+
+    @Mock
+    private CardBalanceCache balanceCache;
+
+    @InjectMocks
+    private BatchTransferProcessor processor;
+
+    @Captor
+    private ArgumentCaptor<Map<Long, BigDecimal>> deltasCaptor;
+
+    @Captor
+    private ArgumentCaptor<Collection<CardKey>> keysCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<CardTransactionEntry>> entriesCaptor;
+
+    private final Long userId = 1L;
+    private CardState first;
+    private CardState second;
+
+    @BeforeEach
+    void setUp() {
+        first = card(10L, "1111", "100.00", CardStatus.ACTIVE);
+        second = card(20L, "2222", "50.00", CardStatus.ACTIVE);
+    }
+
+    @Test
+    void process_ShouldApplyTransfersSequentiallyAndWriteNetDeltas() {
+        when(cardRepository.lockCards(any())).thenReturn(List.of(first, second));
+
+        List<TransferOutcome> outcomes = processor.process(List.of(
+                new TransferCommand(userId, "1111", "2222", new BigDecimal("80.00")),
+                new TransferCommand(userId, "2222", "1111", new BigDecimal("30.00"))
+        ));
+
+        assertThat(outcomes).allMatch(TransferOutcome::isCompleted);
+        assertThat(outcomes.get(0).response().getFromCard().getBalance()).isEqualByComparingTo("20.00");
+        assertThat(outcomes.get(0).response().getToCard().getBalance()).isEqualByComparingTo("130.00");
+        assertThat(outcomes.get(1).response().getFromCard().getBalance()).isEqualByComparingTo("100.00");
+        assertThat(outcomes.get(1).response().getToCard().getBalance()).isEqualByComparingTo("50.00");
+
+        verify(cardRepository).applyBalanceDeltas(deltasCaptor.capture());
+        assertThat(deltasCaptor.getValue().get(10L)).isEqualByComparingTo("-50.00");
+        assertThat(deltasCaptor.getValue().get(20L)).isEqualByComparingTo("50.00");
+        verify(balanceCache).evict(userId, (short) 1111);
+        verify(balanceCache).evict(userId, (short) 2222);
+    }
+
+    @Test
+    void process_ShouldLockEachCardOnce() {
+        when(cardRepository.lockCards(any())).thenReturn(List.of(first, second));
+
+        processor.process(List.of(
+                new TransferCommand(userId, "1111", "2222", BigDecimal.ONE),
+                new TransferCommand(userId, "2222", "1111", BigDecimal.ONE)
+        ));
+
+        verify(cardRepository).lockCards(keysCaptor.capture());
+        assertThat(keysCaptor.getValue()).containsExactly(
+                new CardKey(userId, (short) 1111),
+                new CardKey(userId, (short) 2222));
+    }
+
+    @Test
+    void process_WhenItemRejected_ShouldKeepOtherItems() {
+        when(cardRepository.lockCards(any())).thenReturn(List.of(first, second));
+
+        List<TransferOutcome> outcomes = processor.process(List.of(
+                new TransferCommand(userId, "1111", "2222", new BigDecimal("500.00")),
+                new TransferCommand(userId, "1111", "2222", new BigDecimal("40.00"))
+        ));
+
+        assertThat(outcomes.get(0).isCompleted()).isFalse();
+        assertThat(outcomes.get(0).error()).hasMessage("Insufficient funds");
+        assertThat(outcomes.get(1).isCompleted()).isTrue();
+
+        verify(cardRepository).applyBalanceDeltas(deltasCaptor.capture());
+        assertThat(deltasCaptor.getValue().get(10L)).isEqualByComparingTo("-40.00");
+
+        verify(cardTransactionRepository).append(entriesCaptor.capture());
+        assertThat(entriesCaptor.getValue()).extracting(CardTransactionEntry::cardId, CardTransactionEntry::type)
+                .containsExactly(
+                        tuple(10L, TransactionType.TRANSFER_OUT),
+                        tuple(20L, TransactionType.TRANSFER_IN));
+    }
+
+    @Test
+    void process_ShouldRunCompletionsOfCompletedItemsOnly() {
+        when(cardRepository.lockCards(any())).thenReturn(List.of(first, second));
+        List<TransferResponse> rejected = new ArrayList<>();
+        List<TransferResponse> completed = new ArrayList<>();
+
+        List<TransferOutcome> outcomes = processor.process(List.of(
+                new TransferCommand(userId, "1111", "2222", new BigDecimal("500.00"), rejected::add),
+                new TransferCommand(userId, "1111", "2222", new BigDecimal("40.00"), completed::add)
+        ));
+
+        assertThat(rejected).isEmpty();
+        assertThat(completed).containsExactly(outcomes.get(1).response());
+    }
+
+    @Test
+    void process_WhenCardBlocked_ShouldRejectItem() {
+        CardState blocked = card(20L, "2222", "50.00", CardStatus.BLOCKED);
+        when(cardRepository.lockCards(any())).thenReturn(List.of(first, blocked));
+
+        List<TransferOutcome> outcomes = processor.process(List.of(
+                new TransferCommand(userId, "1111", "2222", BigDecimal.TEN)));
+
+        assertThat(outcomes.getFirst().error()).hasMessage("One of the cards is not active");
+        verify(cardRepository).applyBalanceDeltas(Map.of());
+    }
+
+    @Test
+    void process_WhenAmountNotPositive_ShouldRejectItem() {
+        when(cardRepository.lockCards(any())).thenReturn(List.of(first, second));
+
+        List<TransferOutcome> outcomes = processor.process(List.of(
+                new TransferCommand(userId, "1111", "2222", BigDecimal.ZERO)));
+
+        assertThat(outcomes.getFirst().error()).hasMessage("Amount must be positive");
+    }
+
+    @Test
+    void process_WhenCardNumberMalformed_ShouldRejectItemWithoutLockingIt() {
+        when(cardRepository.lockCards(any())).thenReturn(List.of(first));
+
+        List<TransferOutcome> outcomes = processor.process(List.of(
+                new TransferCommand(userId, "1111", "12ab", BigDecimal.TEN)));
+
+        verify(cardRepository).lockCards(keysCaptor.capture());
+        assertThat(keysCaptor.getValue()).containsExactly(new CardKey(userId, (short) 1111));
+        assertThat(outcomes.getFirst().error()).isInstanceOf(CardNotFoundException.class);
+    }
+
+    @Test
+    void process_WhenCardNotFound_ShouldRejectItem() {
+        when(cardRepository.lockCards(any())).thenReturn(List.of(first));
+
+        List<TransferOutcome> outcomes = processor.process(List.of(
+                new TransferCommand(userId, "1111", "9999", BigDecimal.TEN)));
+
+        assertThat(outcomes.getFirst().error())
+                .isInstanceOf(CardNotFoundException.class)
+                .hasMessage("Card not found with number **** **** **** 9999");
+    }
+
+    private CardState card(Long cardId, String last4, String balance, CardStatus status) {
+        return new CardState(cardId, userId, "**** **** **** " + last4, Short.valueOf(last4), "John Doe",
+                LocalDate.now().plusYears(1), new BigDecimal(balance), status);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.BalanceCacheConfig;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.service.cluster.ClusterEvent;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class CardBalanceCacheTest {
+
+    private final CardKey key = new CardKey(1L, (short) 1234);
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardBalanceCache cache;
+    private AtomicInteger loads;
+    private ClusterEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = mock(ClusterEventPublisher.class);
+        cache = new CardBalanceCache(new BalanceCacheConfig(), publisher, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldLoadBalanceOnceAndReportHitRatio() {
+        assertThat(cache.get(key, () -> load("100.00"))).isEqualByComparingTo("100.00");
+        assertThat(cache.get(key, () -> load("200.00"))).isEqualByComparingTo("100.00");
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("bank.cards.balance-cache.hit-ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void evict_WithoutTransaction_ShouldInvalidateImmediately() {
+        cache.get(key, () -> load("100.00"));
+
+        cache.evict(1L, (short) 1234);
+
+        assertThat(cache.get(key, () -> load("70.00"))).isEqualByComparingTo("70.00");
+        assertThat(loads).hasValue(2);
+        verify(publisher).publish(new ClusterEvent.BalanceChanged(key));
+    }
+
+    @Test
+    void evict_InTransaction_ShouldInvalidateAfterCompletion() {
+        cache.get(key, () -> load("100.00"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(1L, (short) 1234);
+        assertThat(cache.get(key, () -> load("70.00"))).isEqualByComparingTo("100.00");
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(cache.get(key, () -> load("70.00"))).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    void get_WhenEvictedDuringLoad_ShouldNotCacheLoadedBalance() {
+        BigDecimal stale = cache.get(key, () -> {
+            cache.evict(1L, (short) 1234);
+            return load("100.00");
+        });
+
+        assertThat(stale).isEqualByComparingTo("100.00");
+        assertThat(cache.get(key, () -> load("70.00"))).isEqualByComparingTo("70.00");
+        assertThat(loads).hasValue(2);
+    }
+
+    private BigDecimal load(String balance) {
+        loads.incrementAndGet();
+        return new BigDecimal(balance);
+    }
+
+    @Test
+    void invalidateAll_ShouldDropBalancesLoadedBeforeIt() {
+        cache.get(key, () -> load("100.00"));
+        BigDecimal stale = cache.get(new CardKey(2L, (short) 1), () -> {
+            cache.invalidateAll();
+            return load("50.00");
+        });
+
+        assertThat(stale).isEqualByComparingTo("50.00");
+        assertThat(cache.get(key, () -> load("70.00"))).isEqualByComparingTo("70.00");
+        assertThat(cache.get(new CardKey(2L, (short) 1), () -> load("40.00"))).isEqualByComparingTo("40.00");
+    }
+}
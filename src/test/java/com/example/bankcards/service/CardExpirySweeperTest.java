@@ -0,0 +1,77 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.CardExpiryConfig;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.service.cards.CardExpirySweeper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpirySweeperTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardBalanceCache balanceCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        CardExpiryConfig config = new CardExpiryConfig();
+        config.setChunkSize(2);
+        config.setPause(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new CardExpirySweeper(cardRepository, balanceCache, config, meterRegistry);
+    }
+
+    @Test
+    void expireOverdueCards_ShouldUpdateInChunksUntilChunkIsEmpty() {
+        LocalDate today = LocalDate.now();
+        when(cardRepository.expireBatch(eq(today), eq(2))).thenReturn(
+                List.of(new CardKey(1L, (short) 1111), new CardKey(2L, (short) 2222)),
+                List.of(new CardKey(3L, (short) 3333)),
+                List.of(new CardKey(4L, (short) 4444)),
+                List.of());
+
+        long expired = sweeper.expireOverdueCards();
+
+        assertThat(expired).isEqualTo(4);
+        verify(cardRepository, times(4)).expireBatch(today, 2);
+        verify(balanceCache).evict(1L, (short) 1111);
+        verify(balanceCache).evict(2L, (short) 2222);
+        verify(balanceCache).evict(3L, (short) 3333);
+        verify(balanceCache).evict(4L, (short) 4444);
+        assertThat(meterRegistry.get("bank.cards.expiry.expired").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("bank.cards.expiry.chunks").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    void expireOverdueCards_WhenNothingExpired_ShouldRunSingleQuery() {
+        when(cardRepository.expireBatch(eq(LocalDate.now()), eq(2))).thenReturn(List.of());
+
+        assertThat(sweeper.expireOverdueCards()).isZero();
+
+        verifyNoInteractions(balanceCache);
+        assertThat(meterRegistry.get("bank.cards.expiry.run.duration").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.cards.CardIssueResult;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.admin.CardIssuanceBatch;
+import com.example.bankcards.util.generatorNumbers.CardNumberGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CardIssuanceBatchTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CardNumberGenerator cardNumberGenerator;
+
+    @InjectMocks
+    private CardIssuanceBatch cardIssuanceBatch;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issue_ShouldInsertAllCardsAndKeepLast4UniquePerUser() {
+        User john = user(1L, "John", "Doe");
+        when(userRepository.findAllByIdForUpdate(Set.of(1L, 2L))).thenReturn(List.of(john));
+        when(cardRepository.findCardKeysByUserIds(Set.of(1L))).thenReturn(List.of(new CardKey(1L, (short) 1111)));
+        List<Set<Short>> seen = new ArrayList<>();
+        when(cardNumberGenerator.generateNumber(any())).thenAnswer(invocation -> {
+            seen.add(new HashSet<>(invocation.getArgument(0)));
+            return seen.size() == 1 ? "**** **** **** 2222" : "**** **** **** 3333";
+        });
+
+        List<CardIssueResult> results = cardIssuanceBatch.issue(List.of(1L, 2L, 1L));
+
+        assertThat(results).extracting(CardIssueResult::getUserId).containsExactly(1L, 2L, 1L);
+        assertThat(results).extracting(CardIssueResult::isSuccess).containsExactly(true, false, true);
+        assertThat(results.get(1).getError()).isEqualTo("User not found");
+        assertThat(seen).containsExactly(Set.of((short) 1111), Set.of((short) 1111, (short) 2222));
+
+        ArgumentCaptor<List<Card>> cards = ArgumentCaptor.forClass(List.class);
+        verify(cardRepository).saveAll(cards.capture());
+        assertThat(cards.getValue()).extracting(Card::getCardNumber)
+                .containsExactly("**** **** **** 2222", "**** **** **** 3333");
+        assertThat(cards.getValue()).allSatisfy(card -> {
+            assertThat(card.getCardHolder()).isEqualTo("John Doe");
+            assertThat(card.getUser()).isSameAs(john);
+        });
+    }
+
+    @Test
+    void issue_WhenNoFreeNumber_ShouldReportFailureForThatUser() {
+        when(userRepository.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(user(1L, "John", "Doe")));
+        when(cardRepository.findCardKeysByUserIds(Set.of(1L))).thenReturn(List.of());
+        when(cardNumberGenerator.generateNumber(any()))
+                .thenThrow(new CardOperationException("No free card numbers left for user"));
+
+        List<CardIssueResult> results = cardIssuanceBatch.issue(List.of(1L));
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.isSuccess()).isFalse();
+            assertThat(result.getError()).isEqualTo("No free card numbers left for user");
+        });
+        verify(cardRepository).saveAll(List.of());
+    }
+
+    private User user(Long userId, String name, String surname) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setName(name);
+        user.setSurname(surname);
+        return user;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.cards.CardIssueResult;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.service.admin.CardIssuanceBatch;
+import com.example.bankcards.service.admin.CardIssuanceServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CardIssuanceServiceImplTest {
+
+    @Mock
+    private CardIssuanceBatch cardIssuanceBatch;
+
+    private CardIssuanceServiceImpl cardIssuanceService;
+
+    @BeforeEach
+    void setUp() {
+        cardIssuanceService = new CardIssuanceServiceImpl(cardIssuanceBatch, new ObjectMapper());
+    }
+
+    @Test
+    void issueCards_ShouldProcessChunksAndWriteOneResultPerLine() throws Exception {
+        List<Long> userIds = LongStream.rangeClosed(1, 501).boxed().toList();
+        when(cardIssuanceBatch.issue(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                .map(userId -> new CardIssueResult(userId, true, "**** **** **** 0001", null))
+                .toList());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cardIssuanceService.issueCards(userIds, out);
+
+        verify(cardIssuanceBatch).issue(userIds.subList(0, 500));
+        verify(cardIssuanceBatch).issue(userIds.subList(500, 501));
+        verify(cardIssuanceBatch, times(2)).issue(anyList());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(501);
+        assertThat(lines[0]).isEqualTo(
+                "{\"userId\":1,\"success\":true,\"cardNumber\":\"**** **** **** 0001\",\"error\":null}");
+    }
+
+    @Test
+    void readUserIds_ShouldSkipHeaderBlankLinesAndExtraColumns() throws Exception {
+        String csv = "userId,comment\r\n1,first\r\n\r\n\"2\"\r\n3 , third\r\n";
+
+        List<Long> userIds = cardIssuanceService.readUserIds(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(userIds).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void readUserIds_WhenLineInvalid_ShouldThrowException() {
+        String csv = "1\nabc\n";
+
+        assertThatThrownBy(() -> cardIssuanceService.readUserIds(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(CardOperationException.class)
+                .hasMessage("Invalid user id at line 2");
+    }
+}
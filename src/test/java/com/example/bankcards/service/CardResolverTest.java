@@ -0,0 +1,88 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.cards.CardNotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.cards.CardResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CardResolverTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @InjectMocks
+    private CardResolver cardResolver;
+
+    private final Long userId = 1L;
+
+    @Test
+    void resolve_ShouldFindCardByLast4() {
+        Card card = card(1L, "0042");
+        when(cardRepository.findByUser_UserIdAndLast4(userId, (short) 42)).thenReturn(Optional.of(card));
+
+        assertThat(cardResolver.resolve(userId, "0042")).isSameAs(card);
+    }
+
+    @Test
+    void resolve_WhenCardNotFound_ShouldThrowWithMaskedNumber() {
+        when(cardRepository.findByUser_UserIdAndLast4(userId, (short) 1234)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cardResolver.resolve(userId, "1234"))
+                .isInstanceOf(CardNotFoundException.class)
+                .hasMessage("Card not found with number **** **** **** 1234");
+    }
+
+    @Test
+    void resolve_WhenNumberMalformed_ShouldThrowWithoutQuery() {
+        assertThatThrownBy(() -> cardResolver.resolve(userId, "12a4"))
+                .isInstanceOf(CardNotFoundException.class);
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void resolvePair_ShouldLoadBothCardsWithOneQuery() {
+        Card from = card(1L, "1111");
+        Card to = card(2L, "2222");
+        when(cardRepository.findByUser_UserIdAndLast4In(userId, List.of((short) 1111, (short) 2222)))
+                .thenReturn(List.of(to, from));
+
+        CardResolver.CardPair pair = cardResolver.resolvePair(userId, "1111", "2222");
+
+        assertThat(pair.from()).isSameAs(from);
+        assertThat(pair.to()).isSameAs(to);
+        verify(cardRepository).findByUser_UserIdAndLast4In(userId, List.of((short) 1111, (short) 2222));
+    }
+
+    @Test
+    void resolvePair_WhenToCardNotFound_ShouldThrow() {
+        when(cardRepository.findByUser_UserIdAndLast4In(userId, List.of((short) 1111, (short) 2222)))
+                .thenReturn(List.of(card(1L, "1111")));
+
+        assertThatThrownBy(() -> cardResolver.resolvePair(userId, "1111", "2222"))
+                .isInstanceOf(CardNotFoundException.class)
+                .hasMessage("Card not found with number **** **** **** 2222");
+    }
+
+    private Card card(Long cardId, String last4) {
+        return Card.builder()
+                .cardId(cardId)
+                .cardNumber("**** **** **** " + last4)
+                .last4(Short.valueOf(last4))
+                .build();
+    }
+}
@@ -1,19 +1,31 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.cards.CardTransactionDTO;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.TransactionType;
+import com.example.bankcards.exception.InvalidCursorException;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.cards.CardNotFoundException;
 import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.repository.CardKey;
 import com.example.bankcards.repository.CardRepository;
-import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.service.cards.CardResolver;
 import com.example.bankcards.service.cards.CardServiceImpl;
+import com.example.bankcards.util.KeysetCursor;
 import com.example.bankcards.util.Mapper;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,18 +33,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,9 +55,14 @@ class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
     @Mock
-    private UserRepository userRepository;
+    private CardResolver cardResolver;
     @Mock
     private Mapper mapper;
+    @Mock
+    private CardTransactionRepository cardTransactionRepository;
+
+    @Mock
+    private CardBalanceCache balanceCache;
     @InjectMocks
     private CardServiceImpl cardService;
 
@@ -83,46 +102,103 @@ class CardServiceTest {
 
     @Test
     void getUserCards_ShouldReturnFilteredPage() {
-        when(cardRepository.findAll(any(Specification.class), eq(testPageable)))
-                .thenReturn(new PageImpl<>(List.of(testCard)));
-        when(mapper.toCardDTO(testCard)).thenReturn(testCardDto);
+        when(cardRepository.findCardDTOsByUser(testUserId, "%test%", testPageable))
+                .thenReturn(new PageImpl<>(List.of(testCardDto)));
 
         Page<CardDTO> result = cardService.getUserCards(testUserId, testSearch, testPageable);
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().getFirst()).isEqualTo(testCardDto);
-        verify(cardRepository).findAll(any(Specification.class), eq(testPageable));
+        verifyNoInteractions(mapper);
     }
 
     @Test
     void getUserCards_WithNullSearch_ShouldReturnAllCards() {
-        when(cardRepository.findAll(any(Specification.class), eq(testPageable)))
+        when(cardRepository.findCardDTOsByUser(testUserId, null, testPageable))
                 .thenReturn(new PageImpl<>(List.of()));
 
         cardService.getUserCards(testUserId, null, testPageable);
 
-        verify(cardRepository).findAll(any(Specification.class), eq(testPageable));
+        verify(cardRepository).findCardDTOsByUser(testUserId, null, testPageable);
+    }
+
+    @Test
+    void scrollUserCards_WhenMoreCardsThanPage_ShouldReturnCursorOfLastCard() {
+        testCard.setCardId(7L);
+        testCard.setExpiryDate(LocalDate.of(2030, 1, 1));
+        when(cardRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testCard), PageRequest.of(0, 1), true));
+        when(mapper.toCardDTO(testCard)).thenReturn(testCardDto);
+
+        CursorPage<CardDTO> page = cardService.scrollUserCards(testUserId, null, "", 1);
+
+        assertThat(page.getItems()).containsExactly(testCardDto);
+        assertThat(page.getNextCursor()).isEqualTo(KeysetCursor.encode(LocalDate.of(2030, 1, 1), 7L));
+        verify(cardRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void scrollUserCards_WhenLastPage_ShouldReturnNoCursor() {
+        when(cardRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testCard), PageRequest.of(0, 20), false));
+        when(mapper.toCardDTO(testCard)).thenReturn(testCardDto);
+
+        CursorPage<CardDTO> page = cardService.scrollUserCards(testUserId, null,
+                KeysetCursor.encode(LocalDate.of(2030, 1, 1), 7L), 20);
+
+        assertThat(page.getItems()).containsExactly(testCardDto);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void scrollUserCards_WhenCursorInvalid_ShouldThrowException() {
+        assertThrows(InvalidCursorException.class,
+                () -> cardService.scrollUserCards(testUserId, null, KeysetCursor.encode("tomorrow", 7L), 20));
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scrollUserCards_ShouldNormalizeSearchAndEscapeWildcards() {
+        ArgumentCaptor<Specification<Card>> specCaptor = ArgumentCaptor.forClass(Specification.class);
+        when(cardRepository.findBy(specCaptor.capture(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 20), false));
+
+        cardService.scrollUserCards(testUserId, "  50%_DOE ", null, 20);
+
+        Root<Card> root = mock(Root.class, RETURNS_DEEP_STUBS);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        specCaptor.getValue().toPredicate(root, mock(CriteriaQuery.class), cb);
+        verify(cb, times(2)).like(any(), eq("%50\\%\\_doe%"), eq('\\'));
+    }
+
+    @Test
+    void searchUserCards_ShouldNormalizeQueryAndEscapeWildcards() {
+        when(cardRepository.searchByUser(testUserId, "50%_doe", "%50\\%\\_doe%", 10))
+                .thenReturn(List.of(testCard));
+        when(mapper.toCardDTO(testCard)).thenReturn(testCardDto);
+
+        List<CardDTO> result = cardService.searchUserCards(testUserId, "  50%_DOE ", 10);
+
+        assertThat(result).containsExactly(testCardDto);
     }
 
     @Test
     void blockCard_shouldBlockActiveCard() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser_UserId(testFullCardNumber, testUserId))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolve(testUserId, testCardNumber)).thenReturn(testCard);
 
         cardService.blockCard(testUserId, testCardNumber);
 
         assertEquals(CardStatus.BLOCKED, testCard.getStatus());
         verify(cardRepository).save(testCard);
+        verify(balanceCache).evict(testUserId, testCard.getLast4());
     }
 
     @Test
     void blockCard_whenCardAlreadyBlocked_shouldThrowException() {
         testCard.setStatus(CardStatus.BLOCKED);
 
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser_UserId(testFullCardNumber, testUserId))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolve(testUserId, testCardNumber)).thenReturn(testCard);
 
         assertThrows(CardOperationException.class,
                 () -> cardService.blockCard(testUserId, testCardNumber));
@@ -130,23 +206,20 @@ class CardServiceTest {
 
     @Test
     void blockCard_whenCardNotFound_shouldThrowException() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser_UserId(testFullCardNumber, testUserId))
-                .thenReturn(Optional.empty());
+        when(cardResolver.resolve(testUserId, testCardNumber))
+                .thenThrow(new CardNotFoundException(testFullCardNumber));
 
         CardNotFoundException exception = assertThrows(CardNotFoundException.class,
                 () -> cardService.blockCard(testUserId, testCardNumber));
 
-        String expectedMessage = "Card not found with number " + testFullCardNumber +
-                " for user with email " + testUser.getEmail();
+        String expectedMessage = "Card not found with number " + testFullCardNumber;
         assertEquals(expectedMessage, exception.getMessage());
     }
 
     @Test
     void getCardBalance_shouldReturnBalance() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser_UserId(testFullCardNumber, testUserId))
-                .thenReturn(Optional.of(testCard));
+        when(cardResolver.resolveBalance(testUserId, testCardNumber)).thenReturn(new BigDecimal("1000.00"));
+        loadThroughCache();
 
         BigDecimal balance = cardService.getCardBalance(testUserId, testCardNumber);
 
@@ -155,11 +228,54 @@ class CardServiceTest {
 
     @Test
     void getCardBalance_whenCardNotFound_shouldThrowException() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser_UserId(testFullCardNumber, testUserId))
-                .thenReturn(Optional.empty());
+        when(cardResolver.resolveBalance(testUserId, testCardNumber))
+                .thenThrow(new CardNotFoundException(testFullCardNumber));
+        loadThroughCache();
 
         assertThrows(CardNotFoundException.class,
                 () -> cardService.getCardBalance(testUserId, testCardNumber));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCardTransactions_WhenMoreRowsThanPage_ShouldReturnNextCursor() {
+        testCard.setCardId(7L);
+        LocalDateTime time = LocalDateTime.of(2026, 5, 1, 12, 0);
+        List<CardTransactionDTO> rows = List.of(
+                transaction(3L, time.plusMinutes(2)),
+                transaction(2L, time.plusMinutes(1)),
+                transaction(1L, time));
+        when(cardResolver.resolve(testUserId, testCardNumber)).thenReturn(testCard);
+        when(cardTransactionRepository.findByCard(7L, null, null, 3)).thenReturn(rows);
+
+        CursorPage<CardTransactionDTO> page = cardService.getCardTransactions(testUserId, testCardNumber, null, 2);
+
+        assertThat(page.getItems()).extracting(CardTransactionDTO::getTransactionId).containsExactly(3L, 2L);
+        assertThat(page.getNextCursor()).isNotNull();
+
+        when(cardTransactionRepository.findByCard(7L, time.plusMinutes(1), 2L, 3)).thenReturn(List.of(rows.get(2)));
+
+        CursorPage<CardTransactionDTO> next = cardService.getCardTransactions(
+                testUserId, testCardNumber, page.getNextCursor(), 2);
+
+        assertThat(next.getItems()).extracting(CardTransactionDTO::getTransactionId).containsExactly(1L);
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getCardTransactions_WhenCursorInvalid_ShouldThrowException() {
+        when(cardResolver.resolve(testUserId, testCardNumber)).thenReturn(testCard);
+
+        assertThrows(InvalidCursorException.class,
+                () -> cardService.getCardTransactions(testUserId, testCardNumber, "not a cursor", 20));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadThroughCache() {
+        when(balanceCache.get(eq(new CardKey(testUserId, (short) 1234)), any()))
+                .thenAnswer(invocation -> ((Supplier<BigDecimal>) invocation.getArgument(1)).get());
+    }
+
+    private CardTransactionDTO transaction(Long id, LocalDateTime createdAt) {
+        return new CardTransactionDTO(id, TransactionType.TRANSFER_IN, BigDecimal.TEN, BigDecimal.TEN, createdAt);
+    }
+}
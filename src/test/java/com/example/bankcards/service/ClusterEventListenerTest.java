@@ -0,0 +1,88 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.ClusterConfig;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.security.principal.PrincipalCache;
+import com.example.bankcards.security.revocation.TokenRevocationService;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.service.cluster.ClusterEvent;
+import com.example.bankcards.service.cluster.ClusterEventListener;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import com.example.bankcards.util.TokenFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterEventListenerTest {
+    private static final String OTHER_NODE = "other-node";
+
+    @Mock
+    private ClusterEventPublisher publisher;
+
+    @Mock
+    private TokenRevocationService revocations;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private CardBalanceCache balanceCache;
+
+    private ClusterEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new ClusterEventListener(new DataSourceProperties(), new ClusterConfig(), publisher,
+                revocations, principalCache, balanceCache, new SimpleMeterRegistry());
+        lenient().when(publisher.getNodeId()).thenReturn("this-node");
+    }
+
+    @Test
+    void handle_ShouldApplyEventsFromOtherNodes() {
+        TokenFingerprint key = TokenFingerprint.of("token.a");
+        String payload = String.join("\n", OTHER_NODE,
+                new ClusterEvent.TokenRevoked(key, 1_900_000_000_000L).encode(),
+                new ClusterEvent.PrincipalChanged("john@example.com").encode(),
+                new ClusterEvent.BalanceChanged(new CardKey(7L, (short) 42)).encode());
+
+        assertThat(listener.handle(payload)).isEqualTo(3);
+
+        verify(revocations).apply(key, 1_900_000_000_000L);
+        verify(principalCache).invalidate("john@example.com");
+        verify(balanceCache).invalidate(new CardKey(7L, (short) 42));
+    }
+
+    @Test
+    void handle_ShouldSkipOwnEvents() {
+        assertThat(listener.handle("this-node\nP john@example.com")).isZero();
+
+        verifyNoInteractions(principalCache, balanceCache, revocations);
+    }
+
+    @Test
+    void handle_ShouldSkipMalformedLines() {
+        assertThat(listener.handle(OTHER_NODE + "\nX nonsense\nB 1\nP john@example.com")).isEqualTo(1);
+
+        verify(principalCache).invalidate("john@example.com");
+        verifyNoInteractions(balanceCache);
+    }
+
+    @Test
+    void resynchronize_ShouldClearCachesAndCatchUpRevocations() {
+        listener.resynchronize();
+
+        verify(principalCache).invalidateAll();
+        verify(balanceCache).invalidateAll();
+        verify(revocations).catchUp();
+    }
+}
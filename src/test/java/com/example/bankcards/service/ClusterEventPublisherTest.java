@@ -0,0 +1,99 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.ClusterConfig;
+import com.example.bankcards.repository.CardKey;
+import com.example.bankcards.service.cluster.ClusterEvent;
+import com.example.bankcards.service.cluster.ClusterEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ClusterEventPublisherTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ClusterEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        ClusterConfig config = new ClusterConfig();
+        config.setFlushInterval(Duration.ofHours(1));
+        publisher = new ClusterEventPublisher(jdbcTemplate, config, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        publisher.shutdown();
+    }
+
+    @Test
+    void flush_ShouldSendDistinctEventsInOneNotificationWithNodeId() {
+        publisher.publish(new ClusterEvent.PrincipalChanged("john@example.com"));
+        publisher.publish(new ClusterEvent.BalanceChanged(new CardKey(1L, (short) 1234)));
+        publisher.publish(new ClusterEvent.BalanceChanged(new CardKey(1L, (short) 1234)));
+
+        assertThat(publisher.flush()).isEqualTo(1);
+
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(RowCallbackHandler.class),
+                eq("bank_invalidation"), eq(publisher.getNodeId() + "\nP john@example.com\nB 1 1234"));
+    }
+
+    @Test
+    void flush_ShouldSplitLargeBatchesIntoSeveralNotifications() {
+        for (long userId = 0; userId < 1000; userId++) {
+            publisher.publish(new ClusterEvent.BalanceChanged(new CardKey(userId, (short) 1)));
+        }
+
+        assertThat(publisher.flush()).isGreaterThan(1);
+
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeast(2)).query(anyString(), any(RowCallbackHandler.class),
+                eq("bank_invalidation"), payloads.capture());
+        assertThat(payloads.getAllValues()).allSatisfy(payload -> assertThat(payload.length()).isLessThanOrEqualTo(4000));
+    }
+
+    @Test
+    void publish_InTransaction_ShouldSendOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        publisher.publish(new ClusterEvent.PrincipalChanged("john@example.com"));
+        assertThat(publisher.flush()).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(publisher.flush()).isEqualTo(1);
+    }
+
+    @Test
+    void publish_WhenDisabled_ShouldNotSend() {
+        ClusterConfig config = new ClusterConfig();
+        config.setEnabled(false);
+        ClusterEventPublisher disabled = new ClusterEventPublisher(jdbcTemplate, config, new SimpleMeterRegistry());
+
+        disabled.publish(new ClusterEvent.PrincipalChanged("john@example.com"));
+
+        assertThat(disabled.flush()).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.TransferEngineConfig;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.exception.transfers.TransferTimeoutException;
+import com.example.bankcards.service.transfers.BatchTransferProcessor;
+import com.example.bankcards.service.transfers.GroupCommitTransferService;
+import com.example.bankcards.service.transfers.TransferCommand;
+import com.example.bankcards.service.transfers.TransferOutcome;
+import com.example.bankcards.service.transfers.TransferServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitTransferServiceTest {
+
+    @Mock
+    private TransferServiceImpl delegate;
+
+    @Mock
+    private BatchTransferProcessor processor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GroupCommitTransferService service;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        TransferEngineConfig config = new TransferEngineConfig();
+        config.getGroupCommit().setWorkers(1);
+        config.getGroupCommit().setWindow(Duration.ofMillis(300));
+        config.getGroupCommit().setMaxBatchSize(3);
+        config.getGroupCommit().setResultTimeout(Duration.ofSeconds(2));
+        meterRegistry = new SimpleMeterRegistry();
+        service = new GroupCommitTransferService(delegate, processor, config, meterRegistry);
+        callers = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        service.shutdown();
+    }
+
+    @Test
+    void transfer_ShouldCommitConcurrentTransfersTogetherAndReturnOwnOutcome() throws Exception {
+        TransferResponse first = new TransferResponse();
+        TransferResponse third = new TransferResponse();
+        when(processor.process(anyList())).thenAnswer(invocation -> {
+            List<TransferCommand> commands = invocation.getArgument(0);
+            return commands.stream()
+                    .map(command -> switch (command.fromCardNumber()) {
+                        case "1111" -> TransferOutcome.completed(first);
+                        case "2222" -> TransferOutcome.rejected(new CardOperationException("Insufficient funds"));
+                        default -> TransferOutcome.completed(third);
+                    })
+                    .toList();
+        });
+
+        Future<TransferResponse> a = submit(1L, "1111");
+        Future<TransferResponse> b = submit(2L, "2222");
+        Future<TransferResponse> c = submit(3L, "3333");
+
+        assertThat(a.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        assertThat(c.get(5, TimeUnit.SECONDS)).isSameAs(third);
+        assertThatThrownBy(() -> b.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CardOperationException.class);
+
+        verify(processor, times(1)).process(anyList());
+        assertThat(meterRegistry.get("bank.transfers.group-commit.batch.size").summary().max()).isEqualTo(3);
+        assertThat(meterRegistry.get("bank.transfers.group-commit.queue.delay").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void transfer_WhenBatchTransactionFails_ShouldRetryTransfersOneByOne() throws Exception {
+        TransferResponse response = new TransferResponse();
+        when(processor.process(anyList())).thenAnswer(invocation -> {
+            List<TransferCommand> commands = invocation.getArgument(0);
+            if (commands.size() > 1) {
+                throw new IllegalStateException("deadlock detected");
+            }
+            if (commands.getFirst().userId() == 2L) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return List.of(TransferOutcome.completed(response));
+        });
+
+        Future<TransferResponse> a = submit(1L, "1111");
+        Future<TransferResponse> b = submit(2L, "2222");
+        Future<TransferResponse> c = submit(3L, "3333");
+
+        assertThat(a.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(c.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThatThrownBy(() -> b.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void transfer_WhenProcessorThrowsError_ShouldFailCallerAndKeepWorkerAlive() throws Exception {
+        TransferResponse response = new TransferResponse();
+        when(processor.process(anyList()))
+                .thenThrow(new AssertionError("broken processor"))
+                .thenReturn(List.of(TransferOutcome.completed(response)));
+
+        Future<TransferResponse> failed = submit(1L, "1111");
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .hasRootCauseMessage("broken processor");
+        assertThat(submit(1L, "1111").get(5, TimeUnit.SECONDS)).isSameAs(response);
+    }
+
+    @Test
+    void transfer_WhenResultNotReadyInTime_ShouldThrowTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(processor.process(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(TransferOutcome.completed(new TransferResponse()));
+        });
+
+        try {
+            Future<TransferResponse> result = submit(1L, "1111");
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(TransferTimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private Future<TransferResponse> submit(Long userId, String fromCardNumber) {
+        return callers.submit(() -> service.transferBetweenUserCards(userId, fromCardNumber, "9999", BigDecimal.ONE));
+    }
+}
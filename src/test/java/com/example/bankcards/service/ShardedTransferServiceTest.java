@@ -0,0 +1,150 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.TransferEngineConfig;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.exception.transfers.TransferTimeoutException;
+import com.example.bankcards.service.transfers.BatchTransferProcessor;
+import com.example.bankcards.service.transfers.ShardedTransferService;
+import com.example.bankcards.service.transfers.TransferCommand;
+import com.example.bankcards.service.transfers.TransferOutcome;
+import com.example.bankcards.service.transfers.TransferServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedTransferServiceTest {
+
+    @Mock
+    private TransferServiceImpl delegate;
+
+    @Mock
+    private BatchTransferProcessor processor;
+
+    private ShardedTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        TransferEngineConfig config = new TransferEngineConfig();
+        config.getSharded().setShards(2);
+        config.getSharded().setResultTimeout(Duration.ofMillis(500));
+        service = new ShardedTransferService(delegate, processor, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void transfer_ShouldReturnOutcomeOfShard() {
+        TransferResponse response = new TransferResponse();
+        when(processor.process(anyList())).thenReturn(List.of(TransferOutcome.completed(response)));
+
+        TransferResponse result = service.transferBetweenUserCards(1L, "1111", "2222", BigDecimal.TEN);
+
+        assertThat(result).isSameAs(response);
+        verify(processor).process(List.of(new TransferCommand(1L, "1111", "2222", BigDecimal.TEN)));
+    }
+
+    @Test
+    void transfer_WhenRejected_ShouldThrowReason() {
+        when(processor.process(anyList()))
+                .thenReturn(List.of(TransferOutcome.rejected(new CardOperationException("Insufficient funds"))));
+
+        assertThatThrownBy(() -> service.transferBetweenUserCards(1L, "1111", "2222", BigDecimal.TEN))
+                .isInstanceOf(CardOperationException.class)
+                .hasMessage("Insufficient funds");
+    }
+
+    @Test
+    void transfer_WhenBatchFails_ShouldThrowToCaller() {
+        when(processor.process(anyList())).thenThrow(new IllegalStateException("connection lost"));
+
+        assertThatThrownBy(() -> service.transferBetweenUserCards(1L, "1111", "2222", BigDecimal.TEN))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("connection lost");
+    }
+
+    @Test
+    void transfer_WhenProcessorThrowsError_ShouldFailCallerAndKeepShardAlive() {
+        TransferResponse response = new TransferResponse();
+        when(processor.process(anyList()))
+                .thenThrow(new AssertionError("broken processor"))
+                .thenReturn(List.of(TransferOutcome.completed(response)));
+
+        assertThatThrownBy(() -> service.transferBetweenUserCards(1L, "1111", "2222", BigDecimal.TEN))
+                .hasRootCauseMessage("broken processor");
+        assertThat(service.transferBetweenUserCards(1L, "1111", "2222", BigDecimal.TEN)).isSameAs(response);
+    }
+
+    @Test
+    void transfer_WhenOutcomesDoNotMatchBatch_ShouldFailCaller() {
+        when(processor.process(anyList())).thenReturn(List.of());
+
+        assertThatThrownBy(() -> service.transferBetweenUserCards(1L, "1111", "2222", BigDecimal.TEN))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Expected 1 transfer outcomes, got 0");
+    }
+
+    @Test
+    void transfer_WhenResultNotReadyInTime_ShouldThrowTimeout() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(processor.process(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(TransferOutcome.completed(new TransferResponse()));
+        });
+
+        try {
+            assertThatThrownBy(() -> service.transferBetweenUserCards(1L, "1111", "2222", BigDecimal.TEN))
+                    .isInstanceOf(TransferTimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void transfer_ShouldExecuteTransfersOfOneUserOnOneThread() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(processor.process(anyList())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            List<TransferCommand> commands = invocation.getArgument(0);
+            return Collections.nCopies(commands.size(), TransferOutcome.completed(new TransferResponse()));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TransferResponse>> results = executor.invokeAll(Collections.nCopies(50,
+                    () -> service.transferBetweenUserCards(7L, "1111", "2222", BigDecimal.ONE)));
+            for (Future<TransferResponse> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isNotNull();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(threads).hasSize(1);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.IdempotencyConfig;
+import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.cards.TransferRequest;
+import com.example.bankcards.dto.cards.TransferResponse;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.IdempotencyRecord;
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.exception.transfers.IdempotencyKeyInUseException;
+import com.example.bankcards.exception.transfers.IdempotencyKeyMismatchException;
+import com.example.bankcards.repository.IdempotencyRecordRepository;
+import com.example.bankcards.service.idempotency.TransferIdempotencyServiceImpl;
+import com.example.bankcards.service.transfers.TransferCompletion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferIdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private ObjectMapper objectMapper;
+    private TransferIdempotencyServiceImpl service;
+
+    private final Long userId = 1L;
+    private final String key = "key-1";
+    private TransferRequest request;
+    private TransferResponse response;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        IdempotencyConfig config = new IdempotencyConfig();
+        config.setWaitTimeout(Duration.ofMillis(200));
+        config.setLeaseTimeout(Duration.ofMinutes(1));
+        service = new TransferIdempotencyServiceImpl(repository, objectMapper, config);
+
+        request = new TransferRequest("1111", "2222", new BigDecimal("100.00"));
+        CardDTO card = new CardDTO("**** **** **** 1111", LocalDate.of(2030, 1, 1),
+                "John Doe", new BigDecimal("900.00"), CardStatus.ACTIVE);
+        response = new TransferResponse(card, card);
+    }
+
+    @Test
+    void execute_WhenKeyIsNew_ShouldTransferAndStoreResponse() {
+        when(repository.claim(eq(userId), eq(key), anyString(), any(), any())).thenReturn(1);
+        when(repository.complete(eq(userId), eq(key), any(), anyString(), any())).thenReturn(1);
+
+        TransferResponse result = service.execute(userId, key, request, this::transfer);
+
+        assertThat(result).isEqualTo(response);
+        verify(repository).complete(eq(userId), eq(key), any(), anyString(), any());
+    }
+
+    @Test
+    void execute_ShouldStoreResponseInsideTransferAndExtendLeaseToTtl() {
+        ArgumentCaptor<LocalDateTime> createdAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseExpiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(repository.claim(eq(userId), eq(key), anyString(), createdAt.capture(), leaseExpiresAt.capture()))
+                .thenReturn(1);
+        when(repository.complete(eq(userId), eq(key), any(), anyString(), any())).thenReturn(1);
+
+        service.execute(userId, key, request, completion -> {
+            verify(repository, never()).complete(any(), any(), any(), any(), any());
+            completion.inTransaction(response);
+            verify(repository).complete(eq(userId), eq(key), eq(createdAt.getValue()), anyString(), any());
+            return response;
+        });
+
+        assertThat(leaseExpiresAt.getValue()).isEqualTo(createdAt.getValue().plusMinutes(1));
+        ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).complete(any(), any(), any(), any(), expiresAt.capture());
+        assertThat(expiresAt.getValue()).isAfter(LocalDateTime.now().plusHours(23));
+    }
+
+    @Test
+    void execute_WhenLeaseTakenOverBeforeCompletion_ShouldFailTransfer() {
+        when(repository.claim(eq(userId), eq(key), anyString(), any(), any())).thenReturn(1);
+        when(repository.complete(eq(userId), eq(key), any(), anyString(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.execute(userId, key, request, this::transfer))
+                .isInstanceOf(IdempotencyKeyInUseException.class);
+
+        verify(repository).release(eq(userId), eq(key), any());
+    }
+
+    @Test
+    void execute_WhenRepeated_ShouldReturnCachedResponseWithoutTransfer() {
+        when(repository.claim(eq(userId), eq(key), anyString(), any(), any())).thenReturn(1);
+        when(repository.complete(eq(userId), eq(key), any(), anyString(), any())).thenReturn(1);
+        AtomicInteger transfers = new AtomicInteger();
+
+        service.execute(userId, key, request, completion -> {
+            transfers.incrementAndGet();
+            return transfer(completion);
+        });
+        TransferResponse repeated = service.execute(userId, key,
+                new TransferRequest("1111", "2222", new BigDecimal("100")), completion -> {
+                    transfers.incrementAndGet();
+                    return transfer(completion);
+                });
+
+        assertThat(repeated).isEqualTo(response);
+        assertThat(transfers).hasValue(1);
+        verify(repository, times(1)).claim(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenKeyReusedWithDifferentRequest_ShouldThrow() {
+        when(repository.claim(eq(userId), eq(key), anyString(), any(), any())).thenReturn(1);
+        when(repository.complete(eq(userId), eq(key), any(), anyString(), any())).thenReturn(1);
+        service.execute(userId, key, request, this::transfer);
+
+        TransferRequest other = new TransferRequest("1111", "2222", new BigDecimal("1.00"));
+        assertThatThrownBy(() -> service.execute(userId, key, other, this::transfer))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void execute_WhenCompletedOnAnotherNode_ShouldReturnStoredResponse() throws Exception {
+        when(repository.claim(eq(userId), eq(key), anyString(), any(), any())).thenAnswer(invocation -> {
+            IdempotencyRecord record = new IdempotencyRecord(userId, key, invocation.getArgument(2),
+                    objectMapper.writeValueAsString(response), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+            when(repository.findById(new IdempotencyRecord.Key(userId, key))).thenReturn(Optional.of(record));
+            return 0;
+        });
+
+        TransferResponse result = service.execute(userId, key, request, completion -> {
+            throw new AssertionError("Transfer must not be executed twice");
+        });
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(response);
+        verify(repository, never()).complete(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenStillInProgressOnAnotherNode_ShouldThrowAfterTimeout() {
+        when(repository.claim(eq(userId), eq(key), anyString(), any(), any())).thenAnswer(invocation -> {
+            IdempotencyRecord record = new IdempotencyRecord(userId, key, invocation.getArgument(2),
+                    null, LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+            when(repository.findById(new IdempotencyRecord.Key(userId, key))).thenReturn(Optional.of(record));
+            return 0;
+        });
+
+        assertThatThrownBy(() -> service.execute(userId, key, request, this::transfer))
+                .isInstanceOf(IdempotencyKeyInUseException.class);
+    }
+
+    @Test
+    void execute_WhenTransferFails_ShouldReleaseKey() {
+        when(repository.claim(eq(userId), eq(key), anyString(), any(), any())).thenReturn(1);
+
+        assertThatThrownBy(() -> service.execute(userId, key, request, completion -> {
+            throw new CardOperationException("Insufficient funds");
+        })).isInstanceOf(CardOperationException.class);
+
+        verify(repository).release(eq(userId), eq(key), any());
+        verify(repository, never()).complete(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenConcurrentDuplicate_ShouldWaitForOriginal() throws Exception {
+        when(repository.claim(eq(userId), eq(key), anyString(), any(), any())).thenReturn(1);
+        when(repository.complete(eq(userId), eq(key), any(), anyString(), any())).thenReturn(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger transfers = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<TransferResponse> original = executor.submit(() -> service.execute(userId, key, request, completion -> {
+                transfers.incrementAndGet();
+                started.countDown();
+                await(release);
+                return transfer(completion);
+            }));
+            assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+            Future<TransferResponse> duplicate = executor.submit(() -> service.execute(userId, key, request, completion -> {
+                transfers.incrementAndGet();
+                return transfer(completion);
+            }));
+            release.countDown();
+
+            assertThat(original.get(1, TimeUnit.SECONDS)).isEqualTo(response);
+            assertThat(duplicate.get(1, TimeUnit.SECONDS)).isEqualTo(response);
+            assertThat(transfers).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private TransferResponse transfer(TransferCompletion completion) {
+        completion.inTransaction(response);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,20 +1,28 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.cards.BatchTransferResponse;
 import com.example.bankcards.dto.cards.CardDTO;
+import com.example.bankcards.dto.cards.P2PTransferResponse;
+import com.example.bankcards.dto.cards.TransferRequest;
 import com.example.bankcards.dto.cards.TransferResponse;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.cards.CardNotFoundException;
 import com.example.bankcards.exception.cards.CardOperationException;
-import com.example.bankcards.exception.users.UserNotFoundException;
 import com.example.bankcards.repository.CardRepository;
-import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.CardTransactionEntry;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.service.cards.CardBalanceCache;
+import com.example.bankcards.service.cards.CardResolver;
+import com.example.bankcards.service.transfers.BatchTransferProcessor;
+import com.example.bankcards.service.transfers.TransferCommand;
+import com.example.bankcards.service.transfers.TransferOutcome;
 import com.example.bankcards.service.transfers.TransferServiceImpl;
-import com.example.bankcards.util.Mapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -23,11 +31,12 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TransferServiceTest {
@@ -36,10 +45,16 @@ class TransferServiceTest {
     private CardRepository cardRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private CardResolver cardResolver;
 
     @Mock
-    private Mapper mapper;
+    private BatchTransferProcessor batchTransferProcessor;
+
+    @Mock
+    private CardTransactionRepository cardTransactionRepository;
+
+    @Mock
+    private CardBalanceCache balanceCache;
 
     @InjectMocks
     private TransferServiceImpl transferService;
@@ -65,7 +80,9 @@ class TransferServiceTest {
                 .build();
 
         fromCard = Card.builder()
+                .cardId(1L)
                 .cardNumber(formattedFromCard)
+                .last4((short) 1234)
                 .cardHolder("John Doe")
                 .expiryDate(LocalDate.now().plusYears(2))
                 .balance(new BigDecimal("500.00"))
@@ -74,7 +91,9 @@ class TransferServiceTest {
                 .build();
 
         toCard = Card.builder()
+                .cardId(2L)
                 .cardNumber(formattedToCard)
+                .last4((short) 5678)
                 .cardHolder("Jane Smith")
                 .expiryDate(LocalDate.now().plusYears(3))
                 .balance(new BigDecimal("200.00"))
@@ -88,22 +107,35 @@ class TransferServiceTest {
 
     @Test
     void transferBetweenUserCards_ShouldTransferSuccessfully() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedFromCard, testUser))
-                .thenReturn(Optional.of(fromCard));
-        when(cardRepository.findByCardNumberAndUser(formattedToCard, testUser))
-                .thenReturn(Optional.of(toCard));
-        when(mapper.toCardDTO(fromCard)).thenReturn(fromCardDto);
-        when(mapper.toCardDTO(toCard)).thenReturn(toCardDto);
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenReturn(new CardResolver.CardPair(fromCard, toCard));
+        when(cardRepository.debit(1L, testAmount)).thenReturn(Optional.of(fromCardDto));
+        when(cardRepository.credit(2L, testAmount)).thenReturn(Optional.of(toCardDto));
 
         TransferResponse response = transferService.transferBetweenUserCards(
                 testUserId, testFromCardNumber, testToCardNumber, testAmount);
 
         assertThat(response.getFromCard()).isEqualTo(fromCardDto);
         assertThat(response.getToCard()).isEqualTo(toCardDto);
-        assertThat(fromCard.getBalance()).isEqualByComparingTo("400.00");
-        assertThat(toCard.getBalance()).isEqualByComparingTo("300.00");
-        verify(cardRepository).saveAll(List.of(fromCard, toCard));
+        verify(cardRepository, never()).saveAll(any());
+        verify(balanceCache).evict(testUserId, (short) 1234);
+        verify(balanceCache).evict(testUserId, (short) 5678);
+        verify(cardTransactionRepository).append(CardTransactionEntry.transfer(
+                1L, fromCardDto.getBalance(), 2L, toCardDto.getBalance(), testAmount));
+    }
+
+    @Test
+    void transferBetweenUserCards_WithCompletion_ShouldRunItAfterBalancesChange() {
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenReturn(new CardResolver.CardPair(fromCard, toCard));
+        when(cardRepository.debit(1L, testAmount)).thenReturn(Optional.of(fromCardDto));
+        when(cardRepository.credit(2L, testAmount)).thenReturn(Optional.of(toCardDto));
+        AtomicReference<TransferResponse> completed = new AtomicReference<>();
+
+        TransferResponse response = transferService.transferBetweenUserCards(
+                testUserId, testFromCardNumber, testToCardNumber, testAmount, completed::set);
+
+        assertThat(completed.get()).isSameAs(response);
     }
 
     @Test
@@ -125,11 +157,8 @@ class TransferServiceTest {
     @Test
     void transferBetweenUserCards_WhenFromCardBlocked_ShouldThrowException() {
         fromCard.setStatus(CardStatus.BLOCKED);
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedFromCard, testUser))
-                .thenReturn(Optional.of(fromCard));
-        when(cardRepository.findByCardNumberAndUser(formattedToCard, testUser))
-                .thenReturn(Optional.of(toCard));
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenReturn(new CardResolver.CardPair(fromCard, toCard));
 
         assertThatThrownBy(() -> transferService.transferBetweenUserCards(
                 testUserId, testFromCardNumber, testToCardNumber, testAmount))
@@ -140,11 +169,8 @@ class TransferServiceTest {
     @Test
     void transferBetweenUserCards_WhenToCardBlocked_ShouldThrowException() {
         toCard.setStatus(CardStatus.BLOCKED);
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedFromCard, testUser))
-                .thenReturn(Optional.of(fromCard));
-        when(cardRepository.findByCardNumberAndUser(formattedToCard, testUser))
-                .thenReturn(Optional.of(toCard));
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenReturn(new CardResolver.CardPair(fromCard, toCard));
 
         assertThatThrownBy(() -> transferService.transferBetweenUserCards(
                 testUserId, testFromCardNumber, testToCardNumber, testAmount))
@@ -155,11 +181,8 @@ class TransferServiceTest {
     @Test
     void transferBetweenUserCards_WhenInsufficientFunds_ShouldThrowException() {
         BigDecimal largeAmount = new BigDecimal("1000.00");
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedFromCard, testUser))
-                .thenReturn(Optional.of(fromCard));
-        when(cardRepository.findByCardNumberAndUser(formattedToCard, testUser))
-                .thenReturn(Optional.of(toCard));
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenReturn(new CardResolver.CardPair(fromCard, toCard));
 
         assertThatThrownBy(() -> transferService.transferBetweenUserCards(
                 testUserId, testFromCardNumber, testToCardNumber, largeAmount))
@@ -167,20 +190,10 @@ class TransferServiceTest {
                 .hasMessage("Insufficient funds");
     }
 
-    @Test
-    void transferBetweenUserCards_WhenUserNotFound_ShouldThrowException() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.empty());
-
-        assertThatThrownBy(() -> transferService.transferBetweenUserCards(
-                testUserId, testFromCardNumber, testToCardNumber, testAmount))
-                .isInstanceOf(UserNotFoundException.class);
-    }
-
     @Test
     void transferBetweenUserCards_WhenFromCardNotFound_ShouldThrowException() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedFromCard, testUser))
-                .thenReturn(Optional.empty());
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenThrow(new CardNotFoundException(formattedFromCard));
 
         assertThatThrownBy(() -> transferService.transferBetweenUserCards(
                 testUserId, testFromCardNumber, testToCardNumber, testAmount))
@@ -190,11 +203,8 @@ class TransferServiceTest {
 
     @Test
     void transferBetweenUserCards_WhenToCardNotFound_ShouldThrowException() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedFromCard, testUser))
-                .thenReturn(Optional.of(fromCard));
-        when(cardRepository.findByCardNumberAndUser(formattedToCard, testUser))
-                .thenReturn(Optional.empty());
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenThrow(new CardNotFoundException(formattedToCard));
 
         assertThatThrownBy(() -> transferService.transferBetweenUserCards(
                 testUserId, testFromCardNumber, testToCardNumber, testAmount))
@@ -203,24 +213,107 @@ class TransferServiceTest {
     }
 
     @Test
-    void transferBetweenUserCards_ShouldUpdateBalancesCorrectly() {
-        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByCardNumberAndUser(formattedFromCard, testUser))
-                .thenReturn(Optional.of(fromCard));
-        when(cardRepository.findByCardNumberAndUser(formattedToCard, testUser))
-                .thenReturn(Optional.of(toCard));
-        when(mapper.toCardDTO(fromCard)).thenReturn(fromCardDto);
-        when(mapper.toCardDTO(toCard)).thenReturn(toCardDto);
+    void transferBetweenUserCards_ShouldLockCardsInAscendingIdOrder() {
+        fromCard.setCardId(5L);
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenReturn(new CardResolver.CardPair(fromCard, toCard));
+        when(cardRepository.debit(5L, testAmount)).thenReturn(Optional.of(fromCardDto));
+        when(cardRepository.credit(2L, testAmount)).thenReturn(Optional.of(toCardDto));
 
         TransferResponse response = transferService.transferBetweenUserCards(
                 testUserId, testFromCardNumber, testToCardNumber, testAmount);
         TransferResponse expectedResponse = new TransferResponse(fromCardDto, toCardDto);
         assertThat(response).isEqualTo(expectedResponse);
 
-        assertThat(fromCard.getBalance())
-                .isEqualByComparingTo("400.00");
-        assertThat(toCard.getBalance())
-                .isEqualByComparingTo("300.00");
-        verify(cardRepository).saveAll(List.of(fromCard, toCard));
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).credit(2L, testAmount);
+        inOrder.verify(cardRepository).debit(5L, testAmount);
+    }
+
+    @Test
+    void transferBetweenUserCards_WhenBalanceChangedConcurrently_ShouldThrowException() {
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenReturn(new CardResolver.CardPair(fromCard, toCard));
+        when(cardRepository.debit(1L, testAmount)).thenReturn(Optional.empty());
+        when(cardRepository.findStatus(1L)).thenReturn(Optional.of(CardStatus.ACTIVE));
+
+        assertThatThrownBy(() -> transferService.transferBetweenUserCards(
+                testUserId, testFromCardNumber, testToCardNumber, testAmount))
+                .isInstanceOf(CardOperationException.class)
+                .hasMessage("Insufficient funds");
+        verify(cardRepository, never()).credit(any(), any());
+    }
+
+    @Test
+    void transferBetweenUserCards_WhenCardBlockedConcurrently_ShouldThrowException() {
+        when(cardResolver.resolvePair(testUserId, testFromCardNumber, testToCardNumber))
+                .thenReturn(new CardResolver.CardPair(fromCard, toCard));
+        when(cardRepository.debit(1L, testAmount)).thenReturn(Optional.of(fromCardDto));
+        when(cardRepository.credit(2L, testAmount)).thenReturn(Optional.empty());
+        when(cardRepository.findStatus(2L)).thenReturn(Optional.of(CardStatus.BLOCKED));
+
+        assertThatThrownBy(() -> transferService.transferBetweenUserCards(
+                testUserId, testFromCardNumber, testToCardNumber, testAmount))
+                .isInstanceOf(CardOperationException.class)
+                .hasMessage("One of the cards is not active");
+    }
+
+    @Test
+    void transferBatch_ShouldMapOutcomesToItemResults() {
+        TransferResponse completed = new TransferResponse(fromCardDto, toCardDto);
+        when(batchTransferProcessor.process(List.of(
+                new TransferCommand(testUserId, testFromCardNumber, testToCardNumber, testAmount),
+                new TransferCommand(testUserId, testToCardNumber, testFromCardNumber, testAmount))))
+                .thenReturn(List.of(
+                        TransferOutcome.completed(completed),
+                        TransferOutcome.rejected(new CardOperationException("Insufficient funds"))));
+
+        BatchTransferResponse response = transferService.transferBatch(testUserId, List.of(
+                new TransferRequest(testFromCardNumber, testToCardNumber, testAmount),
+                new TransferRequest(testToCardNumber, testFromCardNumber, testAmount)));
+
+        assertThat(response.getCompleted()).isEqualTo(1);
+        assertThat(response.getRejected()).isEqualTo(1);
+        assertThat(response.getResults().get(0).getTransfer()).isEqualTo(completed);
+        assertThat(response.getResults().get(1).isSuccess()).isFalse();
+        assertThat(response.getResults().get(1).getError()).isEqualTo("Insufficient funds");
+    }
+
+    @Test
+    void transferToUser_ShouldLockCardsInAscendingIdOrderAcrossUsers() {
+        Long recipientId = 2L;
+        fromCard.setCardId(9L);
+        toCard.setCardId(3L);
+        when(cardResolver.resolve(testUserId, testFromCardNumber)).thenReturn(fromCard);
+        when(cardResolver.resolve(recipientId, testToCardNumber)).thenReturn(toCard);
+        when(cardRepository.credit(3L, testAmount)).thenReturn(Optional.of(toCardDto));
+        when(cardRepository.debit(9L, testAmount)).thenReturn(Optional.of(fromCardDto));
+
+        P2PTransferResponse response = transferService.transferToUser(
+                testUserId, testFromCardNumber, recipientId, testToCardNumber, testAmount);
+
+        assertThat(response.getFromCard()).isEqualTo(fromCardDto);
+        assertThat(response.getRecipientId()).isEqualTo(recipientId);
+        assertThat(response.getToCardNumber()).isEqualTo(formattedToCard);
+        verify(balanceCache).evict(recipientId, (short) 5678);
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).credit(3L, testAmount);
+        inOrder.verify(cardRepository).debit(9L, testAmount);
+        verify(cardTransactionRepository).append(CardTransactionEntry.transfer(
+                9L, fromCardDto.getBalance(), 3L, toCardDto.getBalance(), testAmount));
+    }
+
+    @Test
+    void transferToUser_WhenRecipientCardNotFound_ShouldNotRevealRecipient() {
+        when(cardResolver.resolve(testUserId, testFromCardNumber)).thenReturn(fromCard);
+        when(cardResolver.resolve(2L, testToCardNumber))
+                .thenThrow(new CardNotFoundException(formattedToCard));
+
+        assertThatThrownBy(() -> transferService.transferToUser(
+                testUserId, testFromCardNumber, 2L, testToCardNumber, testAmount))
+                .isInstanceOf(CardNotFoundException.class)
+                .hasMessage("Card not found with number " + formattedToCard);
+        verify(cardRepository, never()).debit(any(), any());
     }
-}
\ No newline at end of file
+}
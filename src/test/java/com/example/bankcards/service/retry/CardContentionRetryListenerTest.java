@@ -0,0 +1,118 @@
+package com.example.bankcards.service.retry;
+
+import com.example.bankcards.config.RetryConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringJUnitConfig(CardContentionRetryListenerTest.TestConfig.class)
+class CardContentionRetryListenerTest {
+
+    @Autowired
+    private ConflictingOperation operation;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry.clear();
+        operation.reset();
+    }
+
+    @Test
+    void retryOnConflict_WhenConflictResolved_ShouldRetryAndCountConflicts() {
+        String result = operation.update(1L, "1234", 2);
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(operation.calls()).isEqualTo(3);
+        assertThat(count("bank.cards.contention.conflicts")).isEqualTo(2);
+        assertThat(count("bank.cards.contention.retries")).isEqualTo(2);
+        assertThat(meterRegistry.find("bank.cards.contention.give-ups").counter()).isNull();
+    }
+
+    @Test
+    void retryOnConflict_WhenAttemptsExhausted_ShouldGiveUp() {
+        assertThatThrownBy(() -> operation.update(1L, "1234", 10))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(operation.calls()).isEqualTo(3);
+        assertThat(count("bank.cards.contention.conflicts")).isEqualTo(3);
+        assertThat(count("bank.cards.contention.retries")).isEqualTo(2);
+        assertThat(count("bank.cards.contention.give-ups")).isEqualTo(1);
+    }
+
+    @Test
+    void retryOnConflict_WhenNoConflict_ShouldNotRegisterCounters() {
+        operation.update(1L, "1234", 0);
+
+        assertThat(operation.calls()).isEqualTo(1);
+        assertThat(meterRegistry.find("bank.cards.contention.conflicts").counter()).isNull();
+    }
+
+    @Test
+    void retryOnConflict_WhenConflictsOnDifferentCards_ShouldShareOperationCounter() {
+        operation.update(1L, "1234", 1);
+        operation.reset();
+        operation.update(2L, "5678", 1);
+
+        assertThat(meterRegistry.find("bank.cards.contention.conflicts").counters()).hasSize(1);
+        assertThat(count("bank.cards.contention.conflicts")).isEqualTo(2);
+        assertThat(meterRegistry.get("bank.cards.contention.conflicts").counter().getId().getTags())
+                .containsExactly(Tag.of("operation", "update"));
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name)
+                .tag("operation", "update")
+                .counter()
+                .count();
+    }
+
+    static class ConflictingOperation {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        public int calls() {
+            return calls.get();
+        }
+
+        public void reset() {
+            calls.set(0);
+        }
+
+        @RetryOnConflict
+        public String update(Long userId, String cardNumber, int conflicts) {
+            if (calls.incrementAndGet() <= conflicts) {
+                throw new OptimisticLockingFailureException("Card was changed concurrently");
+            }
+            return "ok";
+        }
+    }
+
+    @Configuration
+    @Import({RetryConfig.class, CardContentionRetryListener.class})
+    static class TestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ConflictingOperation conflictingOperation() {
+            return new ConflictingOperation();
+        }
+    }
+}
@@ -1,70 +1,87 @@
 package com.example.bankcards.util.generatorNumbers;
 
+import com.example.bankcards.exception.cards.CardOperationException;
+import com.example.bankcards.repository.CardRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CardNumberGeneratorImplTest {
 
+    @Mock
+    private CardRepository cardRepository;
+
     @InjectMocks
     private CardNumberGeneratorImpl cardNumberGeneratorImpl;
 
     @Test
-    void generateNumber_ShouldStartWithBin() {
-        String result = cardNumberGeneratorImpl.generateNumber();
-        String lastFourDigits = result.substring(result.length() - 4);
-
-        assertTrue(result.startsWith("**** **** **** " + lastFourDigits));
-    }
+    void generateNumber_ShouldMatchMaskPattern() {
+        when(cardRepository.nextCardNumberBlock()).thenReturn(1L);
+        Pattern pattern = Pattern.compile("^\\*{4} \\*{4} \\*{4} \\d{4}$");
 
-    @Test
-    void generateNumber_ShouldHaveCorrectLength() {
-        String result = cardNumberGeneratorImpl.generateNumber();
+        String result = cardNumberGeneratorImpl.generateNumber(Set.of());
 
+        assertTrue(pattern.matcher(result).matches());
         assertEquals(19, result.length());
     }
 
     @Test
-    void generateNumber_ShouldMatchMaskPattern() {
-        Pattern pattern = Pattern.compile("^\\*{4} \\*{4} \\*{4} \\d{4}$");
+    void generateNumber_ShouldUseAccountNumbersFromReservedBlock() {
+        when(cardRepository.nextCardNumberBlock()).thenReturn(5L);
 
-        String result = cardNumberGeneratorImpl.generateNumber();
+        String result = cardNumberGeneratorImpl.generateNumber(Set.of());
 
-        assertTrue(pattern.matcher(result).matches());
-        assertEquals(19, result.length());
+        assertEquals("**** **** **** 000" + CardNumberGeneratorImpl.checkDigit(220220_000005000L), result);
     }
 
     @Test
-    void maskCardNumber_ShouldMaskCorrectly() {
-        String fullNumber = "2202201234567890";
+    void generateNumber_ShouldReserveNewBlockWhenCurrentIsExhausted() {
+        when(cardRepository.nextCardNumberBlock()).thenReturn(1L, 2L);
 
-        String result = cardNumberGeneratorImpl.maskCardNumber(fullNumber);
+        Set<String> numbers = new HashSet<>();
+        IntStream.rangeClosed(0, CardNumberGeneratorImpl.BLOCK_SIZE)
+                .forEach(i -> numbers.add(cardNumberGeneratorImpl.generateNumber(Set.of())));
 
-        assertEquals("**** **** **** 7890", result);
+        verify(cardRepository, times(2)).nextCardNumberBlock();
+        assertTrue(numbers.size() >= CardNumberGeneratorImpl.BLOCK_SIZE);
     }
 
     @Test
-    void maskCardNumber_WithInvalidLength_ShouldReturnNull() {
-        String invalidNumber = "123456789";
+    void generateNumber_ShouldSkipUsedLast4() {
+        when(cardRepository.nextCardNumberBlock()).thenReturn(5L);
+        short first = CardNumberGeneratorImpl.last4(220220_000005000L);
+        short second = CardNumberGeneratorImpl.last4(220220_000005001L);
 
-        String result = cardNumberGeneratorImpl.maskCardNumber(invalidNumber);
+        String result = cardNumberGeneratorImpl.generateNumber(Set.of(first));
 
-        assertNull(result);
+        assertEquals(String.format("**** **** **** %04d", second), result);
     }
 
     @Test
-    void generateNumber_ShouldProduceValidLuhnNumber() {
-        String maskedNumber = cardNumberGeneratorImpl.generateNumber();
-
-        String visiblePart = maskedNumber.substring(maskedNumber.length() - 4);
+    void generateNumber_WhenAllLast4Used_ShouldThrowException() {
+        Set<Short> used = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            used.add((short) i);
+        }
+
+        assertThrows(CardOperationException.class, () -> cardNumberGeneratorImpl.generateNumber(used));
+        verifyNoInteractions(cardRepository);
+    }
 
-        assertEquals(4, visiblePart.length());
-        assertTrue(visiblePart.matches("\\d{4}"));
+    @Test
+    void checkDigit_ShouldProduceValidLuhnNumber() {
+        assertEquals(7, CardNumberGeneratorImpl.checkDigit(453914880343646L));
+        assertEquals(3, CardNumberGeneratorImpl.checkDigit(7992739871L));
     }
-}
\ No newline at end of file
+}